@@ -0,0 +1,77 @@
+package com.spgroup.benchmarks;
+
+import com.spgroup.model.LiveEvent;
+import com.spgroup.service.EventStateManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventStateManager under contention: status flips, lookups and counts running together
+ * on the same events, as the REST API, the poll threads and the stats endpoint do
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventStateManagerBenchmark {
+
+    @Param({"1000", "100000"})
+    private int events;
+
+    private EventStateManager eventStateManager;
+    private String[] eventIds;
+
+    @Setup
+    public void setUp() {
+        eventStateManager = new EventStateManager();
+        eventIds = new String[events];
+        for (int i = 0; i < events; i++) {
+            eventIds[i] = "event" + i;
+            if (i % 2 == 0) {
+                eventStateManager.markEventAsLive(eventIds[i]);
+            }
+        }
+    }
+
+    private String randomEventId() {
+        return eventIds[ThreadLocalRandom.current().nextInt(events)];
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public LiveEvent markLive() {
+        return eventStateManager.markEventAsLive(randomEventId());
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public LiveEvent markNotLive() {
+        return eventStateManager.markEventAsNotLive(randomEventId());
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public LiveEvent get() {
+        return eventStateManager.getEvent(randomEventId());
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public int count() {
+        return eventStateManager.getLiveEventsCount();
+    }
+}
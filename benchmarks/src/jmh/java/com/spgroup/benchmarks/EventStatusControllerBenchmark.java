@@ -0,0 +1,138 @@
+package com.spgroup.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spgroup.cluster.ClusterCoordinator;
+import com.spgroup.config.JacksonConfig;
+import com.spgroup.controller.EventStatusController;
+import com.spgroup.service.EventStateManager;
+import com.spgroup.model.ExternalApiResponse;
+import com.spgroup.service.EventStatusBatchService;
+import com.spgroup.service.LatestScoreCache;
+import com.spgroup.service.SportsTrackerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * EventStatusController request handling through MockMvc: body parsing, validation, state
+ * update and response serialization, without the HTTP server and with polling stubbed out
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventStatusControllerBenchmark {
+
+    private static final int EVENTS = 1_000;
+    private static final int BATCH_SIZE = 100;
+
+    private MockMvc mockMvc;
+    private LocalValidatorFactoryBean validator;
+    private byte[][] liveBodies;
+    private byte[][] notLiveBodies;
+    private byte[] batchBody;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+        validator = new LocalValidatorFactoryBean();
+        validator.afterPropertiesSet();
+
+        EventStateManager eventStateManager = new EventStateManager();
+        // Stub only: a recording mock would keep every invocation of the run
+        SportsTrackerService sportsTrackerService = mock(SportsTrackerService.class, withSettings().stubOnly());
+        ObjectProvider<ClusterCoordinator> noCluster =
+                new StaticListableBeanFactory().getBeanProvider(ClusterCoordinator.class);
+        EventStatusBatchService batchService = new EventStatusBatchService(eventStateManager,
+                sportsTrackerService, noCluster, validator, objectMapper, 500);
+        LatestScoreCache latestScores = new LatestScoreCache(Duration.ofHours(6), new SimpleMeterRegistry());
+
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new EventStatusController(eventStateManager, sportsTrackerService,
+                        batchService, noCluster, latestScores))
+                .setMessageConverters(new ByteArrayHttpMessageConverter(),
+                        new MappingJackson2HttpMessageConverter(objectMapper))
+                .setValidator(validator)
+                .build();
+
+        liveBodies = new byte[EVENTS][];
+        notLiveBodies = new byte[EVENTS][];
+        for (int i = 0; i < EVENTS; i++) {
+            liveBodies[i] = body("event" + i, "live").getBytes(StandardCharsets.UTF_8);
+            notLiveBodies[i] = body("event" + i, "not_live").getBytes(StandardCharsets.UTF_8);
+            eventStateManager.markEventAsLive("event" + i);
+            latestScores.record("event" + i, ExternalApiResponse.builder()
+                    .eventId("event" + i)
+                    .currentScore(i % 5 + ":" + i % 3)
+                    .build());
+        }
+
+        StringBuilder batch = new StringBuilder();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.append(body("event" + i, i % 2 == 0 ? "live" : "not_live")).append('\n');
+        }
+        batchBody = batch.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validator.close();
+    }
+
+    private static String body(String eventId, String status) {
+        return "{\"eventId\":\"" + eventId + "\",\"status\":\"" + status + "\"}";
+    }
+
+    @Benchmark
+    public int updateStatus() throws Exception {
+        int i = ThreadLocalRandom.current().nextInt(EVENTS);
+        byte[] body = ThreadLocalRandom.current().nextBoolean() ? liveBodies[i] : notLiveBodies[i];
+        return mockMvc.perform(post("/events/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int getStatus() throws Exception {
+        return mockMvc.perform(get("/events/{eventId}/status", "event" + ThreadLocalRandom.current().nextInt(EVENTS)))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int getScore() throws Exception {
+        return mockMvc.perform(get("/events/{eventId}/score", "event" + ThreadLocalRandom.current().nextInt(EVENTS)))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int updateStatusBatch() throws Exception {
+        return mockMvc.perform(post("/events/status/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(batchBody))
+                .andReturn().getResponse().getStatus();
+    }
+}
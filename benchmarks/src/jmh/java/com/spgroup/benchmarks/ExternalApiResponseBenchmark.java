@@ -0,0 +1,61 @@
+package com.spgroup.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.spgroup.config.JacksonConfig;
+import com.spgroup.model.ExternalApiResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialization of external API bodies, one event per call and a 100 event batch response
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExternalApiResponseBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    private ObjectReader singleReader;
+    private ObjectReader batchReader;
+    private byte[] singleBody;
+    private byte[] batchBody;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+        singleReader = objectMapper.readerFor(ExternalApiResponse.class);
+        batchReader = objectMapper.readerForListOf(ExternalApiResponse.class);
+
+        singleBody = "{\"eventId\":\"event123\",\"currentScore\":\"2:1\"}".getBytes(StandardCharsets.UTF_8);
+
+        StringBuilder batch = new StringBuilder("[");
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.append(i == 0 ? "" : ",")
+                    .append("{\"eventId\":\"event").append(i).append("\",\"currentScore\":\"")
+                    .append(i % 5).append(':').append(i % 3).append("\"}");
+        }
+        batchBody = batch.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ExternalApiResponse single() throws IOException {
+        return singleReader.readValue(singleBody);
+    }
+
+    @Benchmark
+    public List<ExternalApiResponse> batch() throws IOException {
+        return batchReader.readValue(batchBody);
+    }
+}
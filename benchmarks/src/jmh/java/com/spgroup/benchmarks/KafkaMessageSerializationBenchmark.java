@@ -0,0 +1,69 @@
+package com.spgroup.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spgroup.config.JacksonConfig;
+import com.spgroup.message.ScoreUpdateCodec;
+import com.spgroup.message.ScoreUpdateJsonWriter;
+import com.spgroup.message.ScoreUpdateMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transform of a polled score into a Kafka record value, down to the bytes the producer sends
+ * <p>
+ * {@code mapWithObjectMapper} is the original transformToKafkaMessage: a HashMap and an ISO
+ * timestamp String serialized by the application's ObjectMapper, then encoded by StringSerializer.
+ * The others build the ScoreUpdateMessage the tracker publishes now and serialize it per format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KafkaMessageSerializationBenchmark {
+
+    private static final String EVENT_ID = "event123";
+    private static final String SCORE = "2:1";
+
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new JacksonConfig().objectMapper();
+    }
+
+    @Benchmark
+    public byte[] mapWithObjectMapper() throws JsonProcessingException {
+        Map<String, Object> message = new HashMap<>();
+        message.put("eventId", EVENT_ID);
+        message.put("currentScore", SCORE);
+        message.put("timestamp", Instant.now().toString());
+        message.put("source", "sports-tracker");
+        return objectMapper.writeValueAsString(message).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] recordWithObjectMapper() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ScoreUpdateMessage.of(EVENT_ID, SCORE, Instant.now()));
+    }
+
+    @Benchmark
+    public byte[] recordWithJsonWriter() {
+        return ScoreUpdateJsonWriter.toBytes(ScoreUpdateMessage.of(EVENT_ID, SCORE, Instant.now()));
+    }
+
+    @Benchmark
+    public byte[] recordWithBinaryCodec() {
+        return ScoreUpdateCodec.encode(ScoreUpdateMessage.of(EVENT_ID, SCORE, Instant.now()));
+    }
+}
@@ -0,0 +1,40 @@
+package com.spgroup.loadtest;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory stand-in for the application's KafkaTemplates
+ * Records each send in {@link LoadMetrics} and acknowledges it right away, no producer is created
+ *
+ * @param <V> Record value type
+ */
+public class CapturingKafkaTemplate<V> extends KafkaTemplate<String, V> {
+
+    private final LoadMetrics metrics;
+    private final AtomicLong offset = new AtomicLong();
+
+    public CapturingKafkaTemplate(LoadMetrics metrics) {
+        super(() -> {
+            throw new UnsupportedOperationException("The load simulator does not connect to Kafka");
+        });
+        this.metrics = metrics;
+        setMicrometerEnabled(false);
+    }
+
+    @Override
+    public CompletableFuture<SendResult<String, V>> send(String topic, String key, V data) {
+        metrics.onPublish(key);
+
+        ProducerRecord<String, V> record = new ProducerRecord<>(topic, key, data);
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition(topic, 0), offset.getAndIncrement(), 0,
+                System.currentTimeMillis(), key == null ? 0 : key.length(), -1);
+        return CompletableFuture.completedFuture(new SendResult<>(record, metadata));
+    }
+}
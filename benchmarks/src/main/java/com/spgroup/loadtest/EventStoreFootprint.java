@@ -0,0 +1,87 @@
+package com.spgroup.loadtest;
+
+import com.spgroup.service.EventStateManager;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Heap footprint of the ended events kept by {@link EventStateManager}, with and without
+ * the compact history store
+ * <p>
+ * For each event count and store, marks the events live then not live in a fresh manager and
+ * reports the retained heap per event (heap used after a full GC, minus the baseline) and the
+ * time of a full GC with the events held, which grows with the number of objects to mark.
+ * <p>
+ * Run with {@code ./gradlew :benchmarks:eventStoreFootprint --args="..."}, options:
+ * <pre>
+ * --events=100000,1000000,5000000   event counts, one run per store each
+ * </pre>
+ */
+public final class EventStoreFootprint {
+
+    private static final int CHUNK = 10_000;
+
+    private EventStoreFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int[] counts = {100_000, 1_000_000, 5_000_000};
+        for (String arg : args) {
+            if (!arg.startsWith("--events=")) {
+                throw new IllegalArgumentException("Expected --events=n,m, got " + arg);
+            }
+            counts = Arrays.stream(arg.substring("--events=".length()).split(","))
+                    .map(String::trim)
+                    .mapToInt(Integer::parseInt)
+                    .toArray();
+        }
+
+        System.out.printf("%10s %8s %14s %12s %12s%n", "events", "store", "retained MB", "bytes/event", "full GC ms");
+        for (int events : counts) {
+            for (boolean compact : new boolean[]{false, true}) {
+                measure(events, compact);
+            }
+        }
+    }
+
+    private static void measure(int events, boolean compact) {
+        long baseline = usedAfterGc();
+
+        EventStateManager eventStateManager = new EventStateManager(compact);
+        for (int from = 0; from < events; from += CHUNK) {
+            List<String> eventIds = new ArrayList<>(CHUNK);
+            for (int i = from; i < Math.min(events, from + CHUNK); i++) {
+                eventIds.add("event" + i);
+            }
+            eventStateManager.markEventsAsLive(eventIds);
+            eventStateManager.markEventsAsNotLive(eventIds);
+        }
+
+        long retained = usedAfterGc() - baseline;
+        long gcStart = System.nanoTime();
+        System.gc();
+        double gcMs = (System.nanoTime() - gcStart) / 1e6;
+
+        System.out.printf("%10d %8s %14.1f %12d %12.1f%n", eventStateManager.getTotalEventsCount(),
+                compact ? "compact" : "objects", retained / 1024.0 / 1024.0, retained / events, gcMs);
+    }
+
+    /**
+     * @return Heap used once repeated full GCs stop freeing memory
+     */
+    private static long usedAfterGc() {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            long now = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            if (now >= used) {
+                break;
+            }
+            used = now;
+        }
+        return used;
+    }
+}
@@ -0,0 +1,154 @@
+package com.spgroup.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Measurements of one simulation run, fed by the upstream and Kafka stand-ins
+ * <p>
+ * Every upstream request is a poll. Drift is how far each poll is from the previous poll of
+ * the same event plus the poll interval. Lag is how overdue the next poll of an event is,
+ * taking its first poll plus one interval per poll as the schedule; it grows when the node
+ * cannot keep up.
+ * End-to-end latency runs from the upstream request to the record handed to Kafka.
+ */
+public class LoadMetrics {
+
+    private static final long MAX_TRACKED_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final long intervalNanos;
+    private final Map<String, EventTrace> traces = new ConcurrentHashMap<>();
+    private final Histogram drift = new ConcurrentHistogram(MAX_TRACKED_MICROS, 3);
+    private final Histogram latency = new ConcurrentHistogram(MAX_TRACKED_MICROS, 3);
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final LongAccumulator maxHeapUsed = new LongAccumulator(Math::max, 0);
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    private volatile boolean measuring;
+
+    public LoadMetrics(long intervalMs) {
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+    }
+
+    /**
+     * Called by the upstream stand-in for every event it serves
+     */
+    public void onPoll(String eventId) {
+        long now = System.nanoTime();
+        EventTrace trace = traces.computeIfAbsent(eventId, id -> new EventTrace(now));
+
+        long previous;
+        long previousPolls;
+        synchronized (trace) {
+            previous = trace.lastPollNanos;
+            previousPolls = trace.polls++;
+            trace.lastPollNanos = now;
+        }
+
+        if (measuring) {
+            polls.incrementAndGet();
+            if (previousPolls > 0) {
+                recordMicros(drift, Math.abs(now - previous - intervalNanos));
+            }
+        }
+    }
+
+    /**
+     * Called by the Kafka stand-in for every record sent
+     */
+    public void onPublish(String eventId) {
+        if (!measuring) {
+            return;
+        }
+
+        published.incrementAndGet();
+        EventTrace trace = traces.get(eventId);
+        if (trace != null) {
+            recordMicros(latency, System.nanoTime() - trace.lastPollNanos);
+        }
+    }
+
+    public void sampleHeap() {
+        maxHeapUsed.accumulate(memory.getHeapMemoryUsage().getUsed());
+    }
+
+    /**
+     * Clears what was recorded while events were registered and first polled
+     */
+    public void startMeasuring() {
+        drift.reset();
+        latency.reset();
+        polls.set(0);
+        published.set(0);
+        maxHeapUsed.reset();
+        measuring = true;
+    }
+
+    public void stopMeasuring() {
+        measuring = false;
+    }
+
+    /**
+     * @return Lag of every polled event at this instant, in microseconds
+     */
+    public Histogram lagSnapshot() {
+        long now = System.nanoTime();
+        Histogram lag = new Histogram(MAX_TRACKED_MICROS, 3);
+        traces.values().forEach(trace -> {
+            long nextDue;
+            synchronized (trace) {
+                nextDue = trace.firstPollNanos + trace.polls * intervalNanos;
+            }
+            recordMicros(lag, Math.max(0, now - nextDue));
+        });
+        return lag;
+    }
+
+    public Histogram getDrift() {
+        return drift;
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public long getPolls() {
+        return polls.get();
+    }
+
+    public long getPublished() {
+        return published.get();
+    }
+
+    public long getMaxHeapUsed() {
+        return maxHeapUsed.get();
+    }
+
+    public int getPolledEvents() {
+        return traces.size();
+    }
+
+    private static void recordMicros(Histogram histogram, long nanos) {
+        histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), MAX_TRACKED_MICROS));
+    }
+
+    private static final class EventTrace {
+
+        private final long firstPollNanos;
+        private long lastPollNanos;
+        private long polls;
+
+        private EventTrace(long now) {
+            this.firstPollNanos = now;
+        }
+    }
+}
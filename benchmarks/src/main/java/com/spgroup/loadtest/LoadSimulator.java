@@ -0,0 +1,236 @@
+package com.spgroup.loadtest;
+
+import com.spgroup.SportsTrackerApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end polling load simulator, a capacity planning tool for one tracker node
+ * <p>
+ * For each event count, starts the whole application in this JVM, registers the events as
+ * live through POST /events/status/batch, lets the first polls spread over one interval and
+ * then measures for a fixed duration. The external API is {@link UpstreamStandIn} and the
+ * KafkaTemplates are replaced by {@link CapturingKafkaTemplate}, so the node's own scheduling,
+ * fetching, transform and publishing are what is measured.
+ * <p>
+ * Run with {@code ./gradlew :benchmarks:simulateLoad --args="..."}, options:
+ * <pre>
+ * --events=1000,10000,50000,100000,200000   event counts, one run each
+ * --interval=10000                          poll interval in ms
+ * --upstream-latency=20ms                   latency of every upstream answer
+ * --duration=60s                            measurement window per run
+ * --any.application.property=value          passed to the application, e.g. app.polling.execution-mode=reactive
+ * </pre>
+ */
+public final class LoadSimulator {
+
+    private static final int REGISTRATION_CHUNK = 10_000;
+    private static final long MB = 1024 * 1024;
+
+    private LoadSimulator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        System.out.printf("Simulating %s events, interval %dms, upstream latency %s, %s per run, properties %s%n",
+                Arrays.toString(options.events()), options.intervalMs(), options.upstreamLatency(),
+                options.duration(), options.properties());
+
+        List<Result> results = new ArrayList<>();
+        for (int events : options.events()) {
+            Result result = run(options, events);
+            results.add(result);
+            System.out.println("Finished run with " + events + " events");
+        }
+
+        printReport(options, results);
+    }
+
+    private static Result run(Options options, int events) throws Exception {
+        LoadMetrics metrics = new LoadMetrics(options.intervalMs());
+        ScheduledExecutorService heapSampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "heap-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (UpstreamStandIn upstream = new UpstreamStandIn(options.upstreamLatency(), metrics);
+             ConfigurableApplicationContext context = startApplication(options, upstream, metrics)) {
+
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            long registrationStart = System.nanoTime();
+            register(port, events);
+            long registrationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - registrationStart);
+
+            heapSampler.scheduleAtFixedRate(metrics::sampleHeap, 0, 250, TimeUnit.MILLISECONDS);
+
+            // First polls are spread over one interval, measure once every event polls steadily
+            Thread.sleep(options.intervalMs() + 2_000);
+            metrics.startMeasuring();
+            long measureStart = System.nanoTime();
+            Thread.sleep(options.duration().toMillis());
+            metrics.stopMeasuring();
+            double seconds = (System.nanoTime() - measureStart) / 1e9;
+
+            Histogram lag = metrics.lagSnapshot();
+            System.gc();
+            long heapAfterGc = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+            return new Result(events, registrationMs, metrics.getPolledEvents(),
+                    events * 1000.0 / options.intervalMs(), metrics.getPolls() / seconds,
+                    metrics.getPublished() / seconds, metrics.getDrift().copy(), lag,
+                    metrics.getLatency().copy(), metrics.getMaxHeapUsed(), heapAfterGc);
+        } finally {
+            heapSampler.shutdownNow();
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(Options options, UpstreamStandIn upstream,
+                                                                   LoadMetrics metrics) {
+        // Command line arguments, so they take precedence over application.yml
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("external-api.url", upstream.getUrl());
+        properties.put("external-api.batch-url", upstream.getBatchUrl());
+        properties.put("app.polling.interval", String.valueOf(options.intervalMs()));
+        // A steady poll rate per event, adaptive intervals would hide the lag
+        properties.put("app.polling.adaptive.enabled", "false");
+        properties.put("spring.kafka.admin.auto-create", "false");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.spgroup", "WARN");
+        properties.putAll(options.properties());
+
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+
+        ApplicationContextInitializer<ConfigurableApplicationContext> kafkaStandIn = context ->
+                context.getBeanFactory().addBeanPostProcessor(new KafkaStandInPostProcessor(metrics));
+
+        return new SpringApplicationBuilder(SportsTrackerApplication.class)
+                .initializers(kafkaStandIn)
+                .run(args);
+    }
+
+    /**
+     * Registers the events as live through the real controller, as NDJSON batches
+     */
+    private static void register(int port, int events) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        URI uri = URI.create("http://localhost:" + port + "/events/status/batch");
+
+        for (int from = 0; from < events; from += REGISTRATION_CHUNK) {
+            StringBuilder body = new StringBuilder();
+            for (int i = from; i < Math.min(events, from + REGISTRATION_CHUNK); i++) {
+                body.append("{\"eventId\":\"event").append(i).append("\",\"status\":\"live\"}\n");
+            }
+
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri)
+                            .header("Content-Type", "application/x-ndjson")
+                            .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                            .build(),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Registration failed with HTTP " + response.statusCode());
+            }
+        }
+    }
+
+    private static void printReport(Options options, List<Result> results) {
+        System.out.println();
+        System.out.printf("Interval %dms, upstream latency %s, window %s%n",
+                options.intervalMs(), options.upstreamLatency(), options.duration());
+        System.out.printf("%9s %9s %9s %10s %10s %10s %22s %16s %22s %16s%n",
+                "events", "reg ms", "polled", "target/s", "polls/s", "publish/s",
+                "drift p50/p99/max ms", "lag p99/max ms", "e2e p50/p99/p999 ms", "heap max/GC MB");
+
+        for (Result result : results) {
+            System.out.printf("%9d %9d %9d %10.0f %10.0f %10.0f %22s %16s %22s %16s%n",
+                    result.events(), result.registrationMs(), result.polledEvents(), result.targetRate(),
+                    result.pollRate(), result.publishRate(),
+                    millis(result.drift(), 50, 99, 100),
+                    millis(result.lag(), 99, 100),
+                    millis(result.latency(), 50, 99, 99.9),
+                    result.maxHeapUsed() / MB + "/" + result.heapAfterGc() / MB);
+        }
+        System.out.println();
+        System.out.println("polls/s below target/s or a growing lag means the node is over capacity");
+    }
+
+    private static String millis(Histogram histogram, double... percentiles) {
+        List<String> values = new ArrayList<>();
+        for (double percentile : percentiles) {
+            values.add(String.format("%.1f", histogram.getValueAtPercentile(percentile) / 1000.0));
+        }
+        return String.join("/", values);
+    }
+
+    /**
+     * Replaces every KafkaTemplate bean with a {@link CapturingKafkaTemplate}
+     */
+    private record KafkaStandInPostProcessor(LoadMetrics metrics) implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean instanceof KafkaTemplate<?, ?> ? new CapturingKafkaTemplate<>(metrics) : bean;
+        }
+    }
+
+    private record Result(int events, long registrationMs, int polledEvents, double targetRate, double pollRate,
+                          double publishRate, Histogram drift, Histogram lag, Histogram latency,
+                          long maxHeapUsed, long heapAfterGc) {
+    }
+
+    private record Options(int[] events, long intervalMs, Duration upstreamLatency, Duration duration,
+                           Map<String, String> properties) {
+
+        static Options parse(String[] args) {
+            int[] events = {1_000, 10_000, 50_000, 100_000, 200_000};
+            long intervalMs = 10_000;
+            Duration upstreamLatency = Duration.ofMillis(20);
+            Duration duration = Duration.ofSeconds(60);
+            Map<String, String> properties = new LinkedHashMap<>();
+
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Expected --name=value, got " + arg);
+                }
+                String name = arg.substring(2, arg.indexOf('='));
+                String value = arg.substring(arg.indexOf('=') + 1);
+
+                switch (name) {
+                    case "events" -> events = Arrays.stream(value.split(","))
+                            .map(String::trim)
+                            .mapToInt(Integer::parseInt)
+                            .toArray();
+                    case "interval" -> intervalMs = Long.parseLong(value);
+                    case "upstream-latency" -> upstreamLatency = DurationStyle.detectAndParse(value);
+                    case "duration" -> duration = DurationStyle.detectAndParse(value);
+                    default -> properties.put(name, value);
+                }
+            }
+            return new Options(events, intervalMs, upstreamLatency, duration, properties);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.spgroup.loadtest;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-JVM stand-in for MockApiController, served by Reactor Netty outside the application
+ * <p>
+ * Answers the single and batch endpoints after a fixed latency, with a score that changes on
+ * every call so every poll is published. No ETag is sent, answers are never 304.
+ */
+public class UpstreamStandIn implements AutoCloseable {
+
+    private final Duration latency;
+    private final LoadMetrics metrics;
+    private final Map<String, Integer> scores = new ConcurrentHashMap<>();
+    private final DisposableServer server;
+
+    public UpstreamStandIn(Duration latency, LoadMetrics metrics) {
+        this.latency = latency;
+        this.metrics = metrics;
+        this.server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .get("/data", this::single)
+                        .get("/data/batch", this::batch))
+                .bindNow();
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + server.port() + "/data";
+    }
+
+    public String getBatchUrl() {
+        return getUrl() + "/batch";
+    }
+
+    private Mono<Void> single(HttpServerRequest request, HttpServerResponse response) {
+        List<String> eventIds = eventIds(request);
+        if (eventIds.isEmpty()) {
+            return response.status(400).send();
+        }
+        return respond(response, score(eventIds.get(0)));
+    }
+
+    private Mono<Void> batch(HttpServerRequest request, HttpServerResponse response) {
+        StringBuilder json = new StringBuilder("[");
+        for (String eventId : eventIds(request)) {
+            json.append(json.length() > 1 ? "," : "").append(score(eventId));
+        }
+        return respond(response, json.append(']').toString());
+    }
+
+    private String score(String eventId) {
+        metrics.onPoll(eventId);
+        int home = scores.merge(eventId, 1, Integer::sum);
+        return "{\"eventId\":\"" + eventId + "\",\"currentScore\":\"" + home + ":0\"}";
+    }
+
+    private Mono<Void> respond(HttpServerResponse response, String json) {
+        Mono<Void> send = response
+                .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                .sendString(Mono.just(json))
+                .then();
+        return latency.isZero() ? send : Mono.delay(latency).then(send);
+    }
+
+    private static List<String> eventIds(HttpServerRequest request) {
+        return new QueryStringDecoder(request.uri()).parameters().getOrDefault("eventId", List.of());
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
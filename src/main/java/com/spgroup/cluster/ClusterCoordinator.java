@@ -0,0 +1,224 @@
+package com.spgroup.cluster;
+
+import com.spgroup.model.LiveEvent;
+import com.spgroup.service.EventStateManager;
+import com.spgroup.service.SportsTrackerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Shards live events across the tracker nodes of a cluster
+ * <p>
+ * Every event is owned by one node, picked with a {@link ConsistentHashRing} over the
+ * current members; only the owner keeps its state and polls it. Status changes for events
+ * owned elsewhere are sent to the owner. When membership changes, each node hands the live
+ * events it no longer owns to their new owner: polling is stopped locally before the
+ * handoff, so an event is never polled by two nodes at once. A periodic reconcile repeats
+ * the handoff for events that raced with a membership change.
+ * <p>
+ * The membership callback runs on the Kafka consumer thread during a rebalance, so it only
+ * swaps the ring; the handoff, which waits for HTTP forwards to the new owners, runs on the
+ * task scheduler. Handoffs are serialized by their own lock, never by the callback.
+ * <p>
+ * Events of a node that crashes are lost with it, unless the node restores them from its
+ * journal and hands them over after restarting.
+ */
+@Slf4j
+public class ClusterCoordinator {
+
+    private final ClusterNode self;
+    private final ClusterMembership membership;
+    private final ClusterTransport transport;
+    private final EventStateManager eventStateManager;
+    private final SportsTrackerService sportsTrackerService;
+    private final int virtualNodes;
+    private final TaskScheduler taskScheduler;
+    // Held while events are handed off, so two handoffs never send the same events
+    private final Object handOffLock = new Object();
+
+    private volatile ConsistentHashRing ring;
+    private volatile boolean stopped;
+    private ScheduledFuture<?> reconcileTask;
+
+    public ClusterCoordinator(ClusterNode self, ClusterMembership membership, ClusterTransport transport,
+                              EventStateManager eventStateManager, SportsTrackerService sportsTrackerService,
+                              int virtualNodes, TaskScheduler taskScheduler) {
+        this.self = self;
+        this.membership = membership;
+        this.transport = transport;
+        this.eventStateManager = eventStateManager;
+        this.sportsTrackerService = sportsTrackerService;
+        this.virtualNodes = virtualNodes;
+        this.taskScheduler = taskScheduler;
+        // Until the first membership update this node owns everything
+        this.ring = new ConsistentHashRing(List.of(self), virtualNodes);
+    }
+
+    /**
+     * Joins the cluster
+     */
+    public void start() {
+        membership.join(self, this::onMembershipChanged);
+        log.info("Node [{}] joined the cluster at {}", self.nodeId(), self.url());
+    }
+
+    /**
+     * Runs {@link #reconcile()} periodically until the node leaves the cluster
+     */
+    public synchronized void scheduleReconcile(Duration interval) {
+        reconcileTask = taskScheduler.scheduleAtFixedRate(this::reconcile, interval);
+    }
+
+    /**
+     * Hands every live event to its owner among the remaining nodes and leaves the cluster
+     */
+    public void stop() {
+        synchronized (this) {
+            if (reconcileTask != null) {
+                reconcileTask.cancel(false);
+                reconcileTask = null;
+            }
+        }
+
+        synchronized (handOffLock) {
+            stopped = true;
+            ConsistentHashRing remaining = ring.without(self, virtualNodes);
+            if (remaining != null) {
+                handOff(eventStateManager.getAllLiveEvents(), remaining);
+            }
+        }
+        membership.leave();
+        log.info("Node [{}] left the cluster", self.nodeId());
+    }
+
+    /**
+     * @return true if this node owns the event
+     */
+    public boolean isLocal(String eventId) {
+        return self.equals(ring.ownerOf(eventId));
+    }
+
+    public ClusterNode ownerOf(String eventId) {
+        return ring.ownerOf(eventId);
+    }
+
+    /**
+     * Applies status changes, locally for owned events and on the owner for the others
+     *
+     * @param eventIds Event IDs
+     * @param live     New status of the events
+     */
+    public void route(List<String> eventIds, boolean live) {
+        ConsistentHashRing current = ring;
+        Map<ClusterNode, List<String>> byOwner = new HashMap<>();
+        for (String eventId : eventIds) {
+            byOwner.computeIfAbsent(current.ownerOf(eventId), owner -> new ArrayList<>()).add(eventId);
+        }
+
+        byOwner.forEach((owner, ownerEventIds) -> {
+            if (owner.equals(self)) {
+                applyLocal(ownerEventIds, live);
+            } else {
+                transport.send(owner, ownerEventIds, live);
+            }
+        });
+    }
+
+    /**
+     * Applies status changes on this node without checking ownership
+     * Used for changes sent by other nodes
+     *
+     * @param eventIds Event IDs
+     * @param live     New status of the events
+     */
+    public void applyLocal(List<String> eventIds, boolean live) {
+        if (live) {
+            List<LiveEvent> events = eventStateManager.markEventsAsLive(eventIds);
+            sportsTrackerService.startPollingForEvents(events);
+        } else {
+            sportsTrackerService.stopPollingForEvents(eventIds);
+            eventStateManager.markEventsAsNotLive(eventIds);
+        }
+    }
+
+    /**
+     * Rebuilds the ring for the new members, the events that moved away are handed off
+     * on the task scheduler
+     * Called from the rebalance callback, so it must return without waiting for other nodes
+     *
+     * @param members Current members, this node included
+     */
+    public void onMembershipChanged(List<ClusterNode> members) {
+        List<ClusterNode> nodes = new ArrayList<>(members);
+        if (!nodes.contains(self)) {
+            nodes.add(self);
+        }
+
+        ring = new ConsistentHashRing(nodes, virtualNodes);
+        log.info("Cluster membership changed: {} nodes {}", nodes.size(),
+                nodes.stream().map(ClusterNode::nodeId).toList());
+
+        taskScheduler.schedule(this::reconcile, Instant.now());
+    }
+
+    /**
+     * Hands off the live events this node holds but does not own
+     * Uses the ring current when the handoff starts, a newer ring is applied by the next reconcile
+     */
+    public void reconcile() {
+        synchronized (handOffLock) {
+            if (stopped) {
+                return;
+            }
+
+            ConsistentHashRing current = ring;
+            List<LiveEvent> moved = eventStateManager.getAllLiveEvents().stream()
+                    .filter(event -> !self.equals(current.ownerOf(event.getEventId())))
+                    .toList();
+
+            if (!moved.isEmpty()) {
+                handOff(moved, current);
+            }
+        }
+    }
+
+    public ClusterNode getSelf() {
+        return self;
+    }
+
+    public List<ClusterNode> getMembers() {
+        return ring.getNodes();
+    }
+
+    private void handOff(List<LiveEvent> events, ConsistentHashRing target) {
+        Map<ClusterNode, List<String>> byOwner = new HashMap<>();
+        for (LiveEvent event : events) {
+            byOwner.computeIfAbsent(target.ownerOf(event.getEventId()), owner -> new ArrayList<>())
+                    .add(event.getEventId());
+        }
+        byOwner.remove(self);
+
+        byOwner.forEach((owner, eventIds) -> {
+            // Stop polling first, the new owner starts as soon as it receives the events
+            sportsTrackerService.stopPollingForEvents(eventIds);
+            try {
+                transport.send(owner, eventIds, true);
+                eventIds.forEach(eventStateManager::removeEvent);
+                log.info("Handed {} live events to node [{}]", eventIds.size(), owner.nodeId());
+            } catch (Exception e) {
+                log.error("Failed to hand {} live events to node [{}], keeping them", eventIds.size(), owner.nodeId(), e);
+                sportsTrackerService.startPollingForEvents(eventIds.stream()
+                        .map(eventStateManager::getEvent)
+                        .toList());
+            }
+        });
+    }
+}
@@ -0,0 +1,23 @@
+package com.spgroup.cluster;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Tracks which nodes are members of the cluster
+ */
+public interface ClusterMembership {
+
+    /**
+     * Joins the cluster
+     *
+     * @param self     This node
+     * @param listener Receives the full member list, this node included, whenever it changes
+     */
+    void join(ClusterNode self, Consumer<List<ClusterNode>> listener);
+
+    /**
+     * Leaves the cluster, the remaining members are notified
+     */
+    void leave();
+}
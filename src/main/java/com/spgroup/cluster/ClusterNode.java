@@ -0,0 +1,10 @@
+package com.spgroup.cluster;
+
+/**
+ * A tracker node of the cluster
+ *
+ * @param nodeId Unique node ID, also used to place the node on the hash ring
+ * @param url    Base URL other nodes use to forward requests to this node
+ */
+public record ClusterNode(String nodeId, String url) {
+}
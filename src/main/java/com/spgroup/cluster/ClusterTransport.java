@@ -0,0 +1,19 @@
+package com.spgroup.cluster;
+
+import java.util.List;
+
+/**
+ * Delivers status changes to the node owning the events
+ */
+public interface ClusterTransport {
+
+    /**
+     * Applies a status change on another node, which applies it without checking ownership
+     * again, so a request is forwarded at most once
+     *
+     * @param owner    Node owning the events
+     * @param eventIds Event IDs
+     * @param live     New status of the events
+     */
+    void send(ClusterNode owner, List<String> eventIds, boolean live);
+}
@@ -0,0 +1,97 @@
+package com.spgroup.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable consistent hash ring assigning event IDs to cluster nodes
+ * Every node is placed on the ring at {@code virtualNodes} points, an event belongs to the
+ * first node point at or after its hash. Adding or removing a node only moves the events
+ * between that node and its ring neighbours.
+ */
+public final class ConsistentHashRing {
+
+    private final long[] points;
+    private final ClusterNode[] owners;
+    private final List<ClusterNode> nodes;
+
+    public ConsistentHashRing(Collection<ClusterNode> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+
+        this.nodes = nodes.stream()
+                .sorted(Comparator.comparing(ClusterNode::nodeId))
+                .toList();
+
+        int size = this.nodes.size() * virtualNodes;
+        long[] unsortedPoints = new long[size];
+        Integer[] order = new Integer[size];
+        ClusterNode[] unsortedOwners = new ClusterNode[size];
+
+        int i = 0;
+        for (ClusterNode node : this.nodes) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                unsortedPoints[i] = hash(node.nodeId() + "#" + replica);
+                unsortedOwners[i] = node;
+                order[i] = i;
+                i++;
+            }
+        }
+
+        Arrays.sort(order, Comparator.comparingLong(index -> unsortedPoints[index]));
+        this.points = new long[size];
+        this.owners = new ClusterNode[size];
+        for (int j = 0; j < size; j++) {
+            points[j] = unsortedPoints[order[j]];
+            owners[j] = unsortedOwners[order[j]];
+        }
+    }
+
+    /**
+     * @param eventId Event ID
+     * @return Node owning the event
+     */
+    public ClusterNode ownerOf(String eventId) {
+        int index = Arrays.binarySearch(points, hash(eventId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * @return Ring without the given node, used to find the successors of a leaving node
+     */
+    public ConsistentHashRing without(ClusterNode node, int virtualNodes) {
+        List<ClusterNode> remaining = new ArrayList<>(nodes);
+        remaining.remove(node);
+        return remaining.isEmpty() ? null : new ConsistentHashRing(remaining, virtualNodes);
+    }
+
+    public List<ClusterNode> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer for spread
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
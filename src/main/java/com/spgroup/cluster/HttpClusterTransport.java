@@ -0,0 +1,55 @@
+package com.spgroup.cluster;
+
+import com.spgroup.dto.EventStatusRequest;
+import com.spgroup.dto.EventStatusRequest.EventStatus;
+import com.spgroup.externalapi.UpstreamClientRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Sends status changes to their owner through its POST /events/status/batch endpoint
+ * Uses the pooled clients of {@link UpstreamClientRegistry}, one per node
+ */
+@Slf4j
+public class HttpClusterTransport implements ClusterTransport {
+
+    /**
+     * Marks a request sent by another node, the receiver applies it without forwarding it again
+     */
+    public static final String FORWARDED_HEADER = "X-Tracker-Forwarded";
+
+    private final UpstreamClientRegistry clients;
+    private final Duration timeout;
+
+    public HttpClusterTransport(UpstreamClientRegistry clients, Duration timeout) {
+        this.clients = clients;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void send(ClusterNode owner, List<String> eventIds, boolean live) {
+        EventStatus status = live ? EventStatus.LIVE : EventStatus.NOT_LIVE;
+        List<EventStatusRequest> body = eventIds.stream()
+                .map(eventId -> EventStatusRequest.builder()
+                        .eventId(eventId)
+                        .status(status)
+                        .build())
+                .toList();
+
+        String url = owner.url() + "/events/status/batch";
+        log.debug("Sending {} status changes to node [{}]", eventIds.size(), owner.nodeId());
+
+        clients.forUrl(url)
+                .post()
+                .uri(url)
+                .header(FORWARDED_HEADER, "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .retrieve()
+                .toBodilessEntity()
+                .block(timeout);
+    }
+}
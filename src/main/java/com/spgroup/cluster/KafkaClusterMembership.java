@@ -0,0 +1,209 @@
+package com.spgroup.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
+import org.apache.kafka.clients.consumer.ConsumerPartitionAssignor;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Configurable;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Cluster membership coordinated by a Kafka consumer group
+ * <p>
+ * Every node joins the same consumer group on the membership topic. Kafka detects nodes
+ * joining, leaving and timing out, and rebalances the group. A custom partition assignor
+ * carries each node's ID and URL in its subscription; the group leader collects them and
+ * sends the full member list to every node with its assignment, so all nodes switch to the
+ * same membership in the same rebalance. The topic's records are not used.
+ */
+@Slf4j
+public class KafkaClusterMembership implements ClusterMembership {
+
+    static final String SELF_CONFIG = "tracker.cluster.self";
+    static final String LISTENER_CONFIG = "tracker.cluster.listener";
+
+    private final String bootstrapServers;
+    private final String topic;
+    private final String groupId;
+    private final Duration sessionTimeout;
+
+    private volatile boolean running;
+    private KafkaConsumer<byte[], byte[]> consumer;
+    private Thread pollThread;
+
+    public KafkaClusterMembership(String bootstrapServers, String topic, String groupId, Duration sessionTimeout) {
+        this.bootstrapServers = bootstrapServers;
+        this.topic = topic;
+        this.groupId = groupId;
+        this.sessionTimeout = sessionTimeout;
+    }
+
+    @Override
+    public synchronized void join(ClusterNode self, Consumer<List<ClusterNode>> listener) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.CLIENT_ID_CONFIG, "tracker-cluster-" + self.nodeId());
+        // Custom assignors need the classic group protocol
+        props.put(ConsumerConfig.GROUP_PROTOCOL_CONFIG, "classic");
+        props.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, MembershipAssignor.class.getName());
+        props.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, (int) sessionTimeout.toMillis());
+        props.put(ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG, (int) sessionTimeout.toMillis() / 3);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(SELF_CONFIG, self);
+        props.put(LISTENER_CONFIG, listener);
+
+        consumer = new KafkaConsumer<>(props);
+        consumer.subscribe(List.of(topic));
+        running = true;
+
+        pollThread = new Thread(this::pollLoop, "cluster-membership");
+        pollThread.setDaemon(true);
+        pollThread.start();
+    }
+
+    @Override
+    public synchronized void leave() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        consumer.wakeup();
+        try {
+            pollThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Keeps the group membership alive, rebalances run inside poll
+     */
+    private void pollLoop() {
+        try {
+            while (running) {
+                consumer.poll(Duration.ofMillis(500));
+            }
+        } catch (WakeupException e) {
+            // Leaving the cluster
+        } catch (Exception e) {
+            log.error("Cluster membership consumer failed", e);
+        } finally {
+            // Leaves the group, the other nodes rebalance right away
+            consumer.close();
+        }
+    }
+
+    static ByteBuffer encode(List<ClusterNode> nodes) {
+        StringBuilder builder = new StringBuilder();
+        for (ClusterNode node : nodes) {
+            builder.append(node.nodeId()).append('\t').append(node.url()).append('\n');
+        }
+        return ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static List<ClusterNode> decode(ByteBuffer buffer) {
+        List<ClusterNode> nodes = new ArrayList<>();
+        if (buffer == null) {
+            return nodes;
+        }
+
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        for (String line : new String(bytes, StandardCharsets.UTF_8).split("\n")) {
+            int separator = line.indexOf('\t');
+            if (separator > 0) {
+                nodes.add(new ClusterNode(line.substring(0, separator), line.substring(separator + 1)));
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Partition assignor distributing the member list through the group rebalance
+     * Instantiated by the Kafka consumer, which passes this node and the listener as configs
+     */
+    public static class MembershipAssignor implements ConsumerPartitionAssignor, Configurable {
+
+        private ClusterNode self;
+        private Consumer<List<ClusterNode>> listener;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void configure(Map<String, ?> configs) {
+            this.self = (ClusterNode) configs.get(SELF_CONFIG);
+            this.listener = (Consumer<List<ClusterNode>>) configs.get(LISTENER_CONFIG);
+        }
+
+        @Override
+        public ByteBuffer subscriptionUserData(Set<String> topics) {
+            return encode(List.of(self));
+        }
+
+        @Override
+        public GroupAssignment assign(Cluster metadata, GroupSubscription groupSubscription) {
+            Map<String, Subscription> subscriptions = groupSubscription.groupSubscription();
+
+            List<ClusterNode> members = new ArrayList<>();
+            Map<String, List<TopicPartition>> partitions = new HashMap<>();
+            List<String> memberIds = new ArrayList<>(subscriptions.keySet());
+            memberIds.sort(Comparator.naturalOrder());
+
+            for (String memberId : memberIds) {
+                members.addAll(decode(subscriptions.get(memberId).userData()));
+                partitions.put(memberId, new ArrayList<>());
+            }
+            members.sort(Comparator.comparing(ClusterNode::nodeId));
+
+            // Spread the topic's partitions round robin, only to keep the group valid
+            Set<String> topics = Set.copyOf(subscriptions.get(memberIds.get(0)).topics());
+            int next = 0;
+            for (String topic : topics) {
+                List<PartitionInfo> infos = metadata.partitionsForTopic(topic);
+                for (PartitionInfo info : infos) {
+                    partitions.get(memberIds.get(next++ % memberIds.size()))
+                            .add(new TopicPartition(info.topic(), info.partition()));
+                }
+            }
+
+            Map<String, Assignment> assignments = new HashMap<>();
+            for (String memberId : memberIds) {
+                assignments.put(memberId, new Assignment(partitions.get(memberId), encode(members)));
+            }
+            return new GroupAssignment(assignments);
+        }
+
+        @Override
+        public void onAssignment(Assignment assignment, ConsumerGroupMetadata metadata) {
+            List<ClusterNode> members = decode(assignment.userData());
+            if (!members.isEmpty()) {
+                listener.accept(members);
+            }
+        }
+
+        @Override
+        public String name() {
+            return "tracker-membership";
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.spgroup.config;
+
+import com.spgroup.cluster.ClusterCoordinator;
+import com.spgroup.cluster.ClusterMembership;
+import com.spgroup.cluster.ClusterNode;
+import com.spgroup.cluster.ClusterTransport;
+import com.spgroup.cluster.HttpClusterTransport;
+import com.spgroup.cluster.KafkaClusterMembership;
+import com.spgroup.externalapi.UpstreamClientRegistry;
+import com.spgroup.service.EventStateManager;
+import com.spgroup.service.SportsTrackerService;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+
+/**
+ * Configuration of cluster mode
+ * Only active with app.cluster.enabled=true; events are then sharded across the nodes
+ * joining the same membership group
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.cluster.enabled", havingValue = "true")
+public class ClusterConfig {
+
+    @Bean
+    public NewTopic clusterMembershipTopic(@Value("${app.cluster.membership-topic}") String topic,
+                                           KafkaClientConfiguration config) {
+        return TopicBuilder.name(topic)
+                .partitions(1)
+                .replicas(config.getReplicas())
+                .build();
+    }
+
+    @Bean
+    public ClusterMembership clusterMembership(KafkaClientConfiguration config,
+                                               @Value("${app.cluster.membership-topic}") String topic,
+                                               @Value("${app.cluster.group-id}") String groupId,
+                                               @Value("${app.cluster.session-timeout:10s}") Duration sessionTimeout) {
+        return new KafkaClusterMembership(config.getBootstrapServers(), topic, groupId, sessionTimeout);
+    }
+
+    @Bean
+    public ClusterTransport clusterTransport(UpstreamClientRegistry upstreamClients,
+                                             @Value("${app.cluster.forward-timeout:5s}") Duration timeout) {
+        return new HttpClusterTransport(upstreamClients, timeout);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ClusterCoordinator clusterCoordinator(@Value("${app.cluster.node-id}") String nodeId,
+                                                 @Value("${app.cluster.advertised-url}") String advertisedUrl,
+                                                 @Value("${app.cluster.virtual-nodes:128}") int virtualNodes,
+                                                 @Value("${app.cluster.reconcile-interval:30s}") Duration reconcileInterval,
+                                                 ClusterMembership membership,
+                                                 ClusterTransport transport,
+                                                 EventStateManager eventStateManager,
+                                                 SportsTrackerService sportsTrackerService,
+                                                 TaskScheduler taskScheduler) {
+        ClusterCoordinator coordinator = new ClusterCoordinator(new ClusterNode(nodeId, advertisedUrl),
+                membership, transport, eventStateManager, sportsTrackerService, virtualNodes, taskScheduler);
+        coordinator.scheduleReconcile(reconcileInterval);
+        return coordinator;
+    }
+}
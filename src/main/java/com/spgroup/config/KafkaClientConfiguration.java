@@ -1,9 +1,17 @@
 package com.spgroup.config;
 
+import com.spgroup.message.MessageFormat;
+import com.spgroup.spill.SpillQueue;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 @ConfigurationProperties(prefix = "kafka")
@@ -20,6 +28,18 @@ public class KafkaClientConfiguration {
     private String producerAcks;
     @Value(value = "${kafka.producer.retries}")
     private String producerRetries;
+    @Value(value = "${kafka.producer.enable-idempotence}")
+    private Boolean producerEnableIdempotence;
+    @Value(value = "${kafka.producer.linger-ms}")
+    private Integer producerLingerMs;
+    @Value(value = "${kafka.producer.batch-size}")
+    private Integer producerBatchSize;
+    @Value(value = "${kafka.producer.compression-type}")
+    private String producerCompressionType;
+    @Value(value = "${kafka.producer.async.enabled}")
+    private Boolean producerAsyncEnabled = false;
+    @Value(value = "${kafka.producer.async.max-in-flight}")
+    private Integer producerMaxInFlight = 10000;
 
     @Value(value = "${kafka.topic}")
     private String topic;
@@ -29,4 +49,34 @@ public class KafkaClientConfiguration {
     private Integer partitions;
     @Value(value = "${kafka.replicas}")
     private Integer replicas;
+
+    @Value(value = "${kafka.message-format:json}")
+    private MessageFormat messageFormat = MessageFormat.JSON;
+    // Per-topic overrides of message-format, e.g. kafka.topic-formats.sports-events=binary
+    private Map<String, MessageFormat> topicFormats = new HashMap<>();
+
+    // Local spill queue for records the producer can't take, see SpillQueue
+    @Value(value = "${kafka.spill.enabled:false}")
+    private Boolean spillEnabled = false;
+    @Value(value = "${kafka.spill.directory:./data/spill}")
+    private Path spillDirectory = Path.of("./data/spill");
+    @Value(value = "${kafka.spill.segment-size:16MB}")
+    private DataSize spillSegmentSize = DataSize.ofMegabytes(16);
+    @Value(value = "${kafka.spill.max-size:256MB}")
+    private DataSize spillMaxSize = DataSize.ofMegabytes(256);
+    @Value(value = "${kafka.spill.drop-policy:drop-oldest}")
+    private SpillQueue.DropPolicy spillDropPolicy = SpillQueue.DropPolicy.DROP_OLDEST;
+    @Value(value = "${kafka.spill.max-block:100ms}")
+    private Duration spillMaxBlock = Duration.ofMillis(100);
+    @Value(value = "${kafka.spill.drain-interval:1s}")
+    private Duration spillDrainInterval = Duration.ofSeconds(1);
+    @Value(value = "${kafka.spill.drain-batch-size:500}")
+    private Integer spillDrainBatchSize = 500;
+
+    /**
+     * @return Wire format of the records published to the topic
+     */
+    public MessageFormat messageFormatFor(String topic) {
+        return topicFormats.getOrDefault(topic, messageFormat);
+    }
 }
@@ -1,14 +1,20 @@
 package com.spgroup.config;
 
+import com.spgroup.spill.SpillQueue;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,23 +33,82 @@ public class KafkaConfig {
                 .build();
     }
 
+    /**
+     * Producer of the JSON topics
+     * Client metrics, among them the producer's own retries ({@code kafka.producer.record.retry.total}),
+     * are exported through Micrometer
+     */
+    @Bean
+    public ProducerFactory<String, String> producerFactory(KafkaClientConfiguration config, MeterRegistry meterRegistry) {
+        Map<String, Object> props = producerProps(config);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, config.getProducerValueSerializer());
+
+        DefaultKafkaProducerFactory<String, String> factory = new DefaultKafkaProducerFactory<>(props);
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
+    }
+
+    /**
+     * Producer of the topics using the binary message format
+     * Same settings as the String producer, with raw byte[] values
+     */
+    @Bean
+    public ProducerFactory<String, byte[]> binaryProducerFactory(KafkaClientConfiguration config,
+                                                                MeterRegistry meterRegistry) {
+        Map<String, Object> props = producerProps(config);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+
+        DefaultKafkaProducerFactory<String, byte[]> factory = new DefaultKafkaProducerFactory<>(props);
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
+    }
+
+    @Bean
+    public KafkaTemplate<String, String> kafkaTemplate(ProducerFactory<String, String> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+
     @Bean
-    public ProducerFactory<String, String> producerFactory(KafkaClientConfiguration config) {
+    public KafkaTemplate<String, byte[]> binaryKafkaTemplate(ProducerFactory<String, byte[]> binaryProducerFactory) {
+        return new KafkaTemplate<>(binaryProducerFactory);
+    }
+
+    /**
+     * Disk-backed queue of the records the producer could not take, replayed by KafkaProducerService
+     * Only created when kafka.spill.enabled=true
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "kafka.spill.enabled", havingValue = "true")
+    public SpillQueue spillQueue(KafkaClientConfiguration config, MeterRegistry meterRegistry) throws IOException {
+        SpillQueue spillQueue = new SpillQueue(config.getSpillDirectory(), config.getSpillSegmentSize().toBytes(),
+                config.getSpillMaxSize().toBytes(), config.getSpillDropPolicy());
+        spillQueue.bindTo(meterRegistry);
+        return spillQueue;
+    }
+
+    private Map<String, Object> producerProps(KafkaClientConfiguration config) {
         Map<String, Object> props = new HashMap<>();
 
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, config.getBootstrapServers());
 
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, config.getProducerKeySerializer());
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, config.getProducerValueSerializer());
 
         props.put(ProducerConfig.ACKS_CONFIG, config.getProducerAcks());
+        // Retriable send errors are only retried by the producer, bounded by delivery.timeout.ms, so idempotence
+        // keeps them free of duplicates and in order
         props.put(ProducerConfig.RETRIES_CONFIG, config.getProducerRetries());
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, config.getProducerEnableIdempotence());
 
-        return new DefaultKafkaProducerFactory<>(props);
-    }
+        // Batching: records sent within linger-ms share one request, compressed as a batch
+        props.put(ProducerConfig.LINGER_MS_CONFIG, config.getProducerLingerMs());
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, config.getProducerBatchSize());
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, config.getProducerCompressionType());
 
-    @Bean
-    public KafkaTemplate<String, String> kafkaTemplate(ProducerFactory<String, String> producerFactory) {
-        return new KafkaTemplate<>(producerFactory);
+        if (config.getSpillEnabled()) {
+            // Without metadata or buffer space, fail the hand-off fast so the record is spilled
+            props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, config.getSpillMaxBlock().toMillis());
+        }
+
+        return props;
     }
 }
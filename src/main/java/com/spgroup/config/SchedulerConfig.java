@@ -1,13 +1,23 @@
 package com.spgroup.config;
 
+import com.spgroup.scheduler.HashedWheelPollScheduler;
+import com.spgroup.scheduler.PhaseStrategy;
+import com.spgroup.scheduler.VirtualThreadPollExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
+import java.time.Duration;
+
 /**
- * Configuration for TaskScheduler
- * Used for dynamic scheduling of polling tasks
+ * Configuration for TaskScheduler and the poll scheduler
+ * The poll scheduler decides when events are due, the polls run on the TaskScheduler threads
+ * or, with app.polling.execution-mode=virtual, on one virtual thread per poll
  */
 @Configuration
 public class SchedulerConfig {
@@ -23,4 +33,52 @@ public class SchedulerConfig {
 
         return scheduler;
     }
+
+    /**
+     * Health of the TaskScheduler pool the polls run on
+     * Queued polls waiting for a thread mean the pool can't keep up with the wheel
+     */
+    @Bean
+    public MeterBinder taskSchedulerMetrics(TaskScheduler taskScheduler) {
+        return registry -> {
+            if (!(taskScheduler instanceof ThreadPoolTaskScheduler scheduler)) {
+                return;
+            }
+            Gauge.builder("polling.executor.queued", scheduler,
+                            pool -> pool.getScheduledThreadPoolExecutor().getQueue().size())
+                    .description("Polls waiting for a TaskScheduler thread")
+                    .register(registry);
+            Gauge.builder("polling.executor.active", scheduler, ThreadPoolTaskScheduler::getActiveCount)
+                    .description("TaskScheduler threads running a poll")
+                    .register(registry);
+            Gauge.builder("polling.executor.pool-size", scheduler, ThreadPoolTaskScheduler::getPoolSize)
+                    .description("TaskScheduler threads")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Hashed timing wheel used to schedule the periodic poll of every live event
+     * First polls are spread across the interval with app.polling.wheel.phase-strategy
+     */
+    @Bean(destroyMethod = "stop")
+    public HashedWheelPollScheduler pollScheduler(
+            @Value("${app.polling.wheel.tick-duration:100}") long tickDurationMs,
+            @Value("${app.polling.wheel.size:512}") int wheelSize,
+            @Value("${app.polling.wheel.phase-strategy:even}") String phaseStrategy) {
+        return new HashedWheelPollScheduler(tickDurationMs, wheelSize,
+                PhaseStrategy.valueOf(phaseStrategy.toUpperCase()));
+    }
+
+    /**
+     * Executes each poll on its own virtual thread
+     * Only created when app.polling.execution-mode=virtual
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.polling.execution-mode", havingValue = "virtual")
+    public VirtualThreadPollExecutor virtualThreadPollExecutor(
+            @Value("${app.polling.virtual.max-concurrency:1000}") int maxConcurrency,
+            @Value("${app.polling.virtual.pinned-threshold:20ms}") Duration pinnedThreshold) {
+        return new VirtualThreadPollExecutor(maxConcurrency, pinnedThreshold);
+    }
 }
@@ -1,23 +1,35 @@
 package com.spgroup.controller;
 
+import com.spgroup.cluster.ClusterCoordinator;
+import com.spgroup.cluster.ClusterNode;
+import com.spgroup.cluster.HttpClusterTransport;
+import com.spgroup.dto.EventStatusBatchResponse;
 import com.spgroup.dto.EventStatusRequest;
 import com.spgroup.dto.EventStatusResponse;
 import com.spgroup.model.LiveEvent;
 import com.spgroup.service.EventStateManager;
+import com.spgroup.service.EventStatusBatchService;
+import com.spgroup.service.LatestScoreCache;
 import com.spgroup.service.SportsTrackerService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.InputStream;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
@@ -37,21 +49,30 @@ public class EventStatusController {
 
     private final EventStateManager eventStateManager;
     private final SportsTrackerService sportsTrackerService;
+    private final EventStatusBatchService eventStatusBatchService;
+    private final ObjectProvider<ClusterCoordinator> clusterCoordinator;
+    private final LatestScoreCache latestScores;
+
+    @Value("${app.scores.max-ids:1000}")
+    private int maxScoreIds;
 
     /**
      * Updates event status (live / not live)
      * When event is marked as "live", starts polling task
      * When event is marked as "not live", stops polling task
+     * In cluster mode an event owned by another node is forwarded to its owner
      * <p>
      * POST /events/status
      * Body: { "eventId": "1234", "status": "live" }
      *
-     * @param request Event status request
+     * @param request   Event status request
+     * @param forwarded true if another cluster node forwarded the request
      * @return Event status response
      */
     @PostMapping("/status")
     public ResponseEntity<EventStatusResponse> updateEventStatus(
-            @Valid @RequestBody EventStatusRequest request) {
+            @Valid @RequestBody EventStatusRequest request,
+            @RequestHeader(value = HttpClusterTransport.FORWARDED_HEADER, defaultValue = "false") boolean forwarded) {
 
         try {
             String eventId = request.getEventId();
@@ -59,6 +80,15 @@ public class EventStatusController {
 
             log.info("Received status update for event [{}]: status={}", eventId, request.getStatus());
 
+            ClusterCoordinator cluster = clusterCoordinator.getIfAvailable();
+            if (cluster != null && !forwarded && !cluster.isLocal(eventId)) {
+                ClusterNode owner = cluster.ownerOf(eventId);
+                cluster.route(List.of(eventId), isLive);
+                log.info("Forwarded status of event [{}] to node [{}]", eventId, owner.nodeId());
+
+                return ResponseEntity.ok(EventStatusResponse.success(eventId, isLive ? "LIVE" : "NOT_LIVE"));
+            }
+
             if (isLive) {
                 // Mark event as live and start polling
                 LiveEvent event = eventStateManager.markEventAsLive(eventId);
@@ -102,6 +132,38 @@ public class EventStatusController {
         }
     }
 
+    /**
+     * Updates the status of many events in one request
+     * The body is streamed and applied in chunks, each item gets its own result
+     * <p>
+     * POST /events/status/batch
+     * Body (application/json): [{ "eventId": "1234", "status": "live" }, ...]
+     * Body (application/x-ndjson): one { "eventId": "1234", "status": "live" } per line
+     *
+     * @param body      Request body stream
+     * @param forwarded true if another cluster node forwarded the request
+     * @return Result for each item
+     */
+    @PostMapping(value = "/status/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<EventStatusBatchResponse> updateEventStatusBatch(
+            InputStream body,
+            @RequestHeader(value = HttpClusterTransport.FORWARDED_HEADER, defaultValue = "false") boolean forwarded) {
+        try {
+            return ResponseEntity.ok(eventStatusBatchService.applyAll(body, forwarded));
+
+        } catch (Exception e) {
+            log.error("Error updating event status in bulk", e);
+
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(EventStatusBatchResponse.builder()
+                            .timestamp(Instant.now().toString())
+                            .results(List.of())
+                            .build());
+        }
+    }
+
     /**
      * Gets status of a specific event
      * GET /events/{eventId}/status
@@ -118,6 +180,10 @@ public class EventStatusController {
             notFound.put("eventId", eventId);
             notFound.put("found", false);
             notFound.put("message", "Event not found");
+            ClusterCoordinator cluster = clusterCoordinator.getIfAvailable();
+            if (cluster != null && !cluster.isLocal(eventId)) {
+                notFound.put("owner", cluster.ownerOf(eventId));
+            }
 
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(notFound);
         }
@@ -127,11 +193,60 @@ public class EventStatusController {
         status.put("isLive", event.isLive());
         status.put("lastUpdated", event.getLastUpdated());
         status.put("lastPolled", event.getLastPolled());
+        status.put("pollIntervalMs", event.getPollIntervalMs());
         status.put("hasScheduledTask", event.getScheduledTask() != null && !event.getScheduledTask().isCancelled());
 
         return ResponseEntity.ok(status);
     }
 
+    /**
+     * Gets the latest fetched score of an event, from memory
+     * GET /events/{eventId}/score
+     *
+     * @param eventId Event ID
+     * @return Score as published to Kafka, timestamp is the fetch time
+     */
+    @GetMapping("/{eventId}/score")
+    public ResponseEntity<?> getEventScore(@PathVariable("eventId") String eventId) {
+        LatestScoreCache.Entry score = latestScores.get(eventId);
+
+        if (score == null) {
+            Map<String, Object> notFound = new HashMap<>();
+            notFound.put("eventId", eventId);
+            notFound.put("found", false);
+            notFound.put("message", "No score fetched for event");
+            ClusterCoordinator cluster = clusterCoordinator.getIfAvailable();
+            if (cluster != null && !cluster.isLocal(eventId)) {
+                notFound.put("owner", cluster.ownerOf(eventId));
+            }
+
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(notFound);
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(score.json());
+    }
+
+    /**
+     * Gets the latest fetched scores of many events, from memory
+     * GET /events/scores?ids=1234,5678
+     *
+     * @param eventIds Event IDs, events without a score are left out
+     * @return JSON array of the scores
+     */
+    @GetMapping("/scores")
+    public ResponseEntity<?> getEventScores(@RequestParam("ids") List<String> eventIds) {
+        if (eventIds.size() > maxScoreIds) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", "At most " + maxScoreIds + " ids per request"));
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(latestScores.toJsonArray(eventIds));
+    }
+
     /**
      * Gets all live events
      * GET /events/live
@@ -165,7 +280,15 @@ public class EventStatusController {
      */
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getStats() {
-        return ResponseEntity.ok(sportsTrackerService.getPollingStats());
+        Map<String, Object> stats = sportsTrackerService.getPollingStats();
+
+        ClusterCoordinator cluster = clusterCoordinator.getIfAvailable();
+        if (cluster != null) {
+            stats.put("nodeId", cluster.getSelf().nodeId());
+            stats.put("clusterMembers", cluster.getMembers().stream().map(ClusterNode::nodeId).toList());
+        }
+
+        return ResponseEntity.ok(stats);
     }
 
     /**
@@ -0,0 +1,81 @@
+package com.spgroup.dto;
+
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the bulk event status response
+ * Holds one result per item of the request, in request order
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventStatusBatchResponse {
+
+    @JsonProperty("total")
+    private int total;
+
+    @JsonProperty("succeeded")
+    private int succeeded;
+
+    @JsonProperty("failed")
+    private int failed;
+
+    @JsonProperty("results")
+    private List<ItemResult> results;
+
+    @JsonProperty("timestamp")
+    private String timestamp;
+
+    /**
+     * Result of a single item
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+
+        @JsonProperty("index")
+        private int index;
+
+        @JsonProperty("eventId")
+        private String eventId;
+
+        @JsonProperty("status")
+        private String status;
+
+        @JsonProperty("message")
+        private String message;
+
+        public static ItemResult success(int index, String eventId, String status) {
+            return ItemResult.builder()
+                    .index(index)
+                    .eventId(eventId)
+                    .status(status)
+                    .build();
+        }
+
+        public static ItemResult error(int index, String eventId, String errorMessage) {
+            return ItemResult.builder()
+                    .index(index)
+                    .eventId(eventId)
+                    .status("ERROR")
+                    .message(errorMessage)
+                    .build();
+        }
+
+        @JsonIgnore
+        public boolean isError() {
+            return "ERROR".equals(status);
+        }
+    }
+}
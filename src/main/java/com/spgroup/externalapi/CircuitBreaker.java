@@ -0,0 +1,147 @@
+package com.spgroup.externalapi;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker for one upstream host
+ * <p>
+ * CLOSED keeps the outcomes of the last {@code windowSize} calls and opens once the window is
+ * full and the failure rate reaches the threshold. OPEN rejects every call for
+ * {@code openDuration}, then HALF_OPEN lets {@code halfOpenCalls} trial calls through: all of
+ * them succeeding closes the breaker, any failure opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+
+    // Ring of the last outcomes in CLOSED, true for a failure
+    private final boolean[] window;
+    private int windowIndex;
+    private int recorded;
+    private int failures;
+
+    private long openedAtNanos;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    public CircuitBreaker(int windowSize, double failureRateThreshold, Duration openDuration, int halfOpenCalls) {
+        this(windowSize, failureRateThreshold, openDuration, halfOpenCalls, System::nanoTime);
+    }
+
+    CircuitBreaker(int windowSize, double failureRateThreshold, Duration openDuration, int halfOpenCalls,
+                   LongSupplier nanoClock) {
+        if (windowSize < 1 || halfOpenCalls < 1 || failureRateThreshold <= 0 || failureRateThreshold > 1) {
+            throw new IllegalArgumentException("Circuit breaker needs window-size >= 1, half-open-calls >= 1 "
+                    + "and a failure-rate-threshold in (0, 1]");
+        }
+        this.windowSize = windowSize;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+        this.window = new boolean[windowSize];
+    }
+
+    /**
+     * @return true if the call may be sent, its outcome must then be reported
+     * with {@link #onSuccess()}, {@link #onFailure()} or {@link #onIgnored()}
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAtNanos >= openNanos) {
+            transitionTo(State.HALF_OPEN);
+        }
+
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (trialsStarted >= halfOpenCalls) {
+                    yield false;
+                }
+                trialsStarted++;
+                yield true;
+            }
+        };
+    }
+
+    public synchronized void onSuccess() {
+        switch (state) {
+            case CLOSED -> record(false);
+            case HALF_OPEN -> {
+                if (++trialsSucceeded >= halfOpenCalls) {
+                    transitionTo(State.CLOSED);
+                }
+            }
+            case OPEN -> {
+                // Call permitted before the breaker opened
+            }
+        }
+    }
+
+    public synchronized void onFailure() {
+        switch (state) {
+            case CLOSED -> {
+                record(true);
+                if (recorded == windowSize && failures >= failureRateThreshold * windowSize) {
+                    transitionTo(State.OPEN);
+                }
+            }
+            case HALF_OPEN -> transitionTo(State.OPEN);
+            case OPEN -> {
+                // Call permitted before the breaker opened
+            }
+        }
+    }
+
+    /**
+     * Reports a permitted call that ended without a verdict on the upstream, e.g. cancelled
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && trialsStarted > trialsSucceeded) {
+            trialsStarted--;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == windowSize && window[windowIndex]) {
+            failures--;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            failures++;
+        }
+        windowIndex = (windowIndex + 1) % windowSize;
+        recorded = Math.min(windowSize, recorded + 1);
+    }
+
+    private void transitionTo(State next) {
+        state = next;
+        switch (next) {
+            case OPEN -> openedAtNanos = nanoClock.getAsLong();
+            case HALF_OPEN -> {
+                trialsStarted = 0;
+                trialsSucceeded = 0;
+            }
+            case CLOSED -> {
+                windowIndex = 0;
+                recorded = 0;
+                failures = 0;
+            }
+        }
+    }
+}
@@ -26,4 +26,48 @@ public class ExternalApiClientConfiguration {
     private Duration timeout;
     @Value("${external-api.retry-attempts}")
     private Integer retryAttempts;
+    @Value("${external-api.batch-url}")
+    private String batchUrl;
+    @Value("${external-api.conditional-requests:false}")
+    private Boolean conditionalRequests;
+    @Value("${external-api.pool.max-connections}")
+    private Integer poolMaxConnections;
+    @Value("${external-api.pool.pending-acquire-max}")
+    private Integer poolPendingAcquireMax;
+    @Value("${external-api.pool.pending-acquire-timeout}")
+    private Duration poolPendingAcquireTimeout;
+    @Value("${external-api.pool.max-idle-time}")
+    private Duration poolMaxIdleTime;
+    @Value("${external-api.pool.eviction-interval}")
+    private Duration poolEvictionInterval;
+    @Value("${external-api.pool.http2}")
+    private Boolean poolHttp2;
+    @Value("${external-api.retry.initial-backoff}")
+    private Duration retryInitialBackoff;
+    @Value("${external-api.retry.max-backoff}")
+    private Duration retryMaxBackoff;
+    @Value("${external-api.retry.budget.ratio}")
+    private Double retryBudgetRatio;
+    @Value("${external-api.retry.budget.min-per-second}")
+    private Double retryBudgetMinPerSecond;
+    @Value("${external-api.retry.budget.max-tokens}")
+    private Integer retryBudgetMaxTokens;
+    @Value("${external-api.circuit-breaker.window-size}")
+    private Integer circuitBreakerWindowSize;
+    @Value("${external-api.circuit-breaker.failure-rate-threshold}")
+    private Double circuitBreakerFailureRateThreshold;
+    @Value("${external-api.circuit-breaker.open-duration}")
+    private Duration circuitBreakerOpenDuration;
+    @Value("${external-api.circuit-breaker.half-open-calls}")
+    private Integer circuitBreakerHalfOpenCalls;
+    @Value("${external-api.bulkhead.max-concurrent-calls}")
+    private Integer bulkheadMaxConcurrentCalls;
+    @Value("${external-api.hedge.enabled}")
+    private Boolean hedgeEnabled;
+    @Value("${external-api.hedge.percentile}")
+    private Double hedgePercentile;
+    @Value("${external-api.hedge.min-delay}")
+    private Duration hedgeMinDelay;
+    @Value("${external-api.hedge.max-percent}")
+    private Double hedgeMaxPercent;
 }
@@ -0,0 +1,147 @@
+package com.spgroup.externalapi;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Request hedging for one upstream host
+ * <p>
+ * If a request has not answered after the observed latency percentile of the host, a second
+ * identical request is sent and the first answer wins, the other request is cancelled. The
+ * percentile is computed once a second from the last {@value #WINDOW} answers; hedging starts
+ * once {@value #MIN_SAMPLES} answers were seen. Hedges are paid from a {@link RetryBudget}
+ * that each first request credits with {@code maxPercent / 100} tokens, so they add at most
+ * that share of the load. A failed or rejected hedge is ignored, the first request decides.
+ * <p>
+ * Hedge rate is {@code external-api.hedge.sent / external-api.hedge.requests}, win rate
+ * {@code external-api.hedge.won / external-api.hedge.sent}.
+ */
+public class HedgePolicy {
+
+    static final int WINDOW = 1000;
+    static final int MIN_SAMPLES = 20;
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int BURST = 10;
+
+    private final double percentile;
+    private final long minDelayNanos;
+    private final RetryBudget budget;
+    private final LongSupplier nanoClock;
+
+    // Latencies of the last answers, a ring of WINDOW entries
+    private final long[] samples = new long[WINDOW];
+    private int nextSample;
+    private int sampleCount;
+    private long refreshedAtNanos;
+    private volatile long thresholdNanos;
+
+    private final Counter requestCounter;
+    private final Counter sentCounter;
+    private final Counter wonCounter;
+    private final Counter budgetExhaustedCounter;
+
+    public HedgePolicy(String host, double percentile, Duration minDelay, double maxPercent,
+                       MeterRegistry meterRegistry) {
+        this(host, percentile, minDelay, maxPercent, meterRegistry, System::nanoTime);
+    }
+
+    HedgePolicy(String host, double percentile, Duration minDelay, double maxPercent,
+                MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        if (percentile <= 0 || percentile >= 1 || maxPercent <= 0) {
+            throw new IllegalArgumentException("Hedging needs a percentile in (0, 1) and max-percent > 0");
+        }
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.budget = new RetryBudget(maxPercent / 100, 0, BURST, nanoClock);
+        this.nanoClock = nanoClock;
+        this.refreshedAtNanos = nanoClock.getAsLong() - REFRESH_NANOS;
+
+        this.requestCounter = meterRegistry.counter("external-api.hedge.requests", "host", host);
+        this.sentCounter = meterRegistry.counter("external-api.hedge.sent", "host", host);
+        this.wonCounter = meterRegistry.counter("external-api.hedge.won", "host", host);
+        this.budgetExhaustedCounter = meterRegistry.counter("external-api.hedge.budget-exhausted", "host", host);
+        TimeGauge.builder("external-api.hedge.threshold", this, TimeUnit.NANOSECONDS, policy -> policy.thresholdNanos)
+                .description("Delay after which a request is hedged, 0 until enough answers were seen")
+                .tag("host", host)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param request Cold Mono sending the request on every subscription
+     * @return The request, hedged once it is slower than the threshold
+     */
+    public <T> Mono<T> hedge(Mono<T> request) {
+        return Mono.defer(() -> {
+            requestCounter.increment();
+            budget.onRequest();
+
+            Mono<T> primary = timed(request);
+            long threshold = getThresholdNanos();
+            if (threshold == 0) {
+                return primary;
+            }
+
+            Mono<T> hedge = Mono.delay(Duration.ofNanos(threshold))
+                    .flatMap(tick -> {
+                        if (!budget.tryAcquire()) {
+                            budgetExhaustedCounter.increment();
+                            return Mono.<T>never();
+                        }
+                        sentCounter.increment();
+                        return timed(request)
+                                .doOnNext(value -> wonCounter.increment())
+                                .onErrorResume(error -> Mono.never());
+                    });
+
+            // The first signal wins: an answer from either, or an error of the first request
+            return Mono.firstWithSignal(primary, hedge);
+        });
+    }
+
+    /**
+     * @return Current hedge delay in nanoseconds, 0 while there are too few samples
+     */
+    public long getThresholdNanos() {
+        long now = nanoClock.getAsLong();
+        if (now - refreshedAtNanos >= REFRESH_NANOS) {
+            refresh(now);
+        }
+        return thresholdNanos;
+    }
+
+    private synchronized void refresh(long now) {
+        if (now - refreshedAtNanos < REFRESH_NANOS) {
+            return;
+        }
+        refreshedAtNanos = now;
+
+        if (sampleCount < MIN_SAMPLES) {
+            thresholdNanos = 0;
+            return;
+        }
+        long[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sampleCount) - 1;
+        thresholdNanos = Math.max(minDelayNanos, sorted[Math.max(0, index)]);
+    }
+
+    synchronized void recordLatency(long nanos) {
+        samples[nextSample] = nanos;
+        nextSample = (nextSample + 1) % WINDOW;
+        sampleCount = Math.min(WINDOW, sampleCount + 1);
+    }
+
+    private <T> Mono<T> timed(Mono<T> request) {
+        return Mono.defer(() -> {
+            long start = nanoClock.getAsLong();
+            return request.doOnNext(value -> recordLatency(nanoClock.getAsLong() - start));
+        });
+    }
+}
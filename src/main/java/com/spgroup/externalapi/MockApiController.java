@@ -3,13 +3,20 @@ package com.spgroup.externalapi;
 
 import com.spgroup.model.ExternalApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @RestController
@@ -18,32 +25,91 @@ public class MockApiController {
 
     private final Random random = new Random();
 
+    // Current score per event, changed on a call with probability score-change-probability
+    private final Map<String, MockScore> scores = new ConcurrentHashMap<>();
+
+    @Value("${mock-api.score-change-probability:0.1}")
+    private double scoreChangeProbability;
+
     /**
      * Mock endpoint that returns event data
      * GET /mock/events/data?eventId=123
+     * Supports conditional requests: returns 304 when If-None-Match matches the current ETag
      */
     @GetMapping("/data")
     public ResponseEntity<ExternalApiResponse> getMockEventData(
-            @RequestParam("eventId") String eventId) {
+            @RequestParam("eventId") String eventId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
         log.info("Mock API called for event [{}]", eventId);
 
-        int homeScore = random.nextInt(5);
-        int awayScore = random.nextInt(5);
-        String score = homeScore + ":" + awayScore;
+        MockScore score = nextScore(eventId);
+
+        if (score.etag().equals(ifNoneMatch)) {
+            log.debug("Score of event [{}] not modified", eventId);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(score.etag())
+                    .lastModified(score.changedAt())
+                    .build();
+        }
+
+        ExternalApiResponse response = score.toResponse(eventId);
+
+        log.debug("Returning mock data for event [{}]: score={}", eventId, response.getCurrentScore());
+
+        return ResponseEntity.ok()
+                .eTag(score.etag())
+                .lastModified(score.changedAt())
+                .body(response);
+    }
+
+    /**
+     * Mock batch endpoint that returns data for several events in one call
+     * GET /mock/events/data/batch?eventId=123&eventId=456
+     */
+    @GetMapping("/data/batch")
+    public ResponseEntity<List<ExternalApiResponse>> getMockEventDataBatch(
+            @RequestParam("eventId") List<String> eventIds) {
 
-        ExternalApiResponse response = ExternalApiResponse.builder()
-                .eventId(eventId)
-                .currentScore(score)
-                .build();
+        log.info("Mock batch API called for {} events", eventIds.size());
 
-        log.debug("Returning mock data for event [{}]: score={}", eventId, score);
+        List<ExternalApiResponse> responses = eventIds.stream()
+                .map(eventId -> nextScore(eventId).toResponse(eventId))
+                .toList();
+
+        return ResponseEntity.ok(responses);
+    }
 
-        return ResponseEntity.ok(response);
+    private MockScore nextScore(String eventId) {
+        return scores.compute(eventId, (id, current) -> {
+            if (current == null) {
+                return new MockScore(0, 0, 0, System.currentTimeMillis());
+            }
+            if (random.nextDouble() >= scoreChangeProbability) {
+                return current;
+            }
+            return random.nextBoolean()
+                    ? new MockScore(current.home() + 1, current.away(), current.version() + 1, System.currentTimeMillis())
+                    : new MockScore(current.home(), current.away() + 1, current.version() + 1, System.currentTimeMillis());
+        });
     }
 
     @GetMapping("/health")
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("Mock API is running");
     }
-}
\ No newline at end of file
+
+    private record MockScore(int home, int away, long version, long changedAt) {
+
+        String etag() {
+            return "\"" + version + "\"";
+        }
+
+        ExternalApiResponse toResponse(String eventId) {
+            return ExternalApiResponse.builder()
+                    .eventId(eventId)
+                    .currentScore(home + ":" + away)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.spgroup.externalapi;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket shared by all upstream retries
+ * Every first attempt deposits {@code ratio} tokens and the bucket also refills at
+ * {@code minPerSecond}, a retry spends one token. Retries therefore add at most
+ * {@code ratio} of the request load plus a small floor, however many calls fail together.
+ * {@link HedgePolicy} pays its hedges from a budget of its own.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double minPerSecond;
+    private final double maxTokens;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public RetryBudget(double ratio, double minPerSecond, int maxTokens) {
+        this(ratio, minPerSecond, maxTokens, System::nanoTime);
+    }
+
+    RetryBudget(double ratio, double minPerSecond, int maxTokens, LongSupplier nanoClock) {
+        if (ratio < 0 || minPerSecond < 0 || maxTokens < 1) {
+            throw new IllegalArgumentException("Retry budget needs ratio >= 0, min-per-second >= 0 and max-tokens >= 1");
+        }
+        this.ratio = ratio;
+        this.minPerSecond = minPerSecond;
+        this.maxTokens = maxTokens;
+        this.nanoClock = nanoClock;
+        this.tokens = maxTokens;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Records a first attempt, which earns a fraction of a retry
+     */
+    public synchronized void onRequest() {
+        refill();
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    /**
+     * @return true if a retry may be sent, its token is spent
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    public synchronized double getAvailableTokens() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(maxTokens, tokens + (now - lastRefillNanos) / 1e9 * minPerSecond);
+        lastRefillNanos = now;
+    }
+}
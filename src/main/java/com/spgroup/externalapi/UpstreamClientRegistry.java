@@ -0,0 +1,100 @@
+package com.spgroup.externalapi;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Long-lived WebClients for upstream APIs, one per host
+ * Each client owns a Reactor Netty connection pool, so polls reuse kept-alive connections
+ * instead of paying for a client and a TCP handshake on every call. With
+ * {@code external-api.pool.http2} the client negotiates h2c and multiplexes polls over a
+ * few connections.
+ * <p>
+ * Pool metrics are published by Reactor Netty as
+ * {@code reactor.netty.connection.provider.{active,idle,pending,total}.connections}.
+ */
+@Slf4j
+@Component
+public class UpstreamClientRegistry implements DisposableBean {
+
+    private final WebClient.Builder webClientBuilder;
+    private final ExternalApiClientConfiguration config;
+
+    private final Map<String, UpstreamClient> clients = new ConcurrentHashMap<>();
+
+    public UpstreamClientRegistry(WebClient.Builder webClientBuilder, ExternalApiClientConfiguration config) {
+        this.webClientBuilder = webClientBuilder;
+        this.config = config;
+    }
+
+    /**
+     * Returns the shared client for the host of the given URL, creating it on first use
+     *
+     * @param url Absolute upstream URL
+     * @return WebClient bound to the connection pool of the host
+     */
+    public WebClient forUrl(String url) {
+        return clients.computeIfAbsent(hostKey(url), this::createClient).webClient();
+    }
+
+    /**
+     * @return Number of upstream hosts with a client
+     */
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    private UpstreamClient createClient(String host) {
+        ConnectionProvider provider = ConnectionProvider.builder("upstream-" + host)
+                .maxConnections(config.getPoolMaxConnections())
+                .pendingAcquireMaxCount(config.getPoolPendingAcquireMax())
+                .pendingAcquireTimeout(config.getPoolPendingAcquireTimeout())
+                .maxIdleTime(config.getPoolMaxIdleTime())
+                .evictInBackground(config.getPoolEvictionInterval())
+                .metrics(true)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .keepAlive(true)
+                .responseTimeout(config.getTimeout());
+
+        if (config.getPoolHttp2()) {
+            // Upgrade to h2c when the upstream supports it, plain HTTP/1.1 otherwise
+            httpClient = httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+
+        WebClient webClient = webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+
+        log.info("Created upstream client for [{}]: maxConnections={}, http2={}",
+                host, config.getPoolMaxConnections(), config.getPoolHttp2());
+
+        return new UpstreamClient(webClient, provider);
+    }
+
+    static String hostKey(String url) {
+        UriComponents uri = UriComponentsBuilder.fromUriString(url).build();
+        return uri.getScheme() + "://" + uri.getHost() + (uri.getPort() != -1 ? ":" + uri.getPort() : "");
+    }
+
+    @Override
+    public void destroy() {
+        clients.values().forEach(client -> client.provider().dispose());
+        clients.clear();
+    }
+
+    private record UpstreamClient(WebClient webClient, ConnectionProvider provider) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.spgroup.externalapi;
+
+/**
+ * Upstream call rejected locally, without being sent, by the circuit breaker or the bulkhead
+ */
+public class UpstreamRejectedException extends RuntimeException {
+
+    private final String reason;
+
+    public UpstreamRejectedException(String host, String reason) {
+        super("Call to " + host + " rejected: " + reason);
+        this.reason = reason;
+    }
+
+    /**
+     * @return {@code circuit-open} or {@code bulkhead-full}
+     */
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,191 @@
+package com.spgroup.externalapi;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The single retry policy of upstream calls, with a circuit breaker and a bulkhead per host
+ * <p>
+ * Each attempt first takes a bulkhead permit (at most {@code external-api.bulkhead.max-concurrent-calls}
+ * calls in flight per host) and a circuit breaker permission, and is bounded by
+ * {@code external-api.timeout}. Rejected attempts fail right away with {@link UpstreamRejectedException}
+ * and are not retried. Timeouts, connection errors, 5xx and 429 answers count as upstream failures
+ * and are retried with jittered exponential backoff up to {@code external-api.retry-attempts} times,
+ * as long as the global {@link RetryBudget} has a token left. With {@code external-api.hedge.enabled}
+ * every attempt is also hedged by the {@link HedgePolicy} of its host.
+ * <p>
+ * Metrics: {@code external-api.circuit-breaker.state{host}} (0 closed, 1 open, 2 half-open),
+ * {@code external-api.bulkhead.available{host}}, {@code external-api.rejected{host,reason}},
+ * {@code external-api.retries{outcome=retried|budget-exhausted}} and {@code external-api.retry-budget.tokens}.
+ */
+@Slf4j
+@Component
+public class UpstreamResilience {
+
+    private final ExternalApiClientConfiguration config;
+    private final MeterRegistry meterRegistry;
+    private final RetryBudget retryBudget;
+    private final Map<String, HostGuard> guards = new ConcurrentHashMap<>();
+
+    private final Counter retriedCounter;
+    private final Counter budgetExhaustedCounter;
+
+    public UpstreamResilience(ExternalApiClientConfiguration config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.retryBudget = new RetryBudget(config.getRetryBudgetRatio(), config.getRetryBudgetMinPerSecond(),
+                config.getRetryBudgetMaxTokens());
+
+        this.retriedCounter = meterRegistry.counter("external-api.retries", "outcome", "retried");
+        this.budgetExhaustedCounter = meterRegistry.counter("external-api.retries", "outcome", "budget-exhausted");
+        Gauge.builder("external-api.retry-budget.tokens", retryBudget, RetryBudget::getAvailableTokens)
+                .description("Retries the global retry budget can still pay for")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sends the call through the bulkhead and circuit breaker of its host, with timeout and retries
+     *
+     * @param url  Upstream URL, selects the host
+     * @param call Cold Mono that performs the HTTP call on every subscription
+     * @return Mono failing with the last error, or with {@link UpstreamRejectedException} if rejected
+     */
+    public <T> Mono<T> protect(String url, Mono<T> call) {
+        HostGuard guard = guards.computeIfAbsent(UpstreamClientRegistry.hostKey(url), this::createGuard);
+        Mono<T> attempt = guard.attempt(call.timeout(config.getTimeout()));
+        if (guard.hedgePolicy() != null) {
+            attempt = guard.hedgePolicy().hedge(attempt);
+        }
+
+        Mono<T> retried = attempt.retryWhen(retryPolicy(guard.host()));
+        return Mono.defer(() -> {
+            retryBudget.onRequest();
+            return retried;
+        });
+    }
+
+    /**
+     * @return Circuit breaker state of the host of the URL, CLOSED if it was never called
+     */
+    public CircuitBreaker.State getState(String url) {
+        HostGuard guard = guards.get(UpstreamClientRegistry.hostKey(url));
+        return guard != null ? guard.breaker().getState() : CircuitBreaker.State.CLOSED;
+    }
+
+    RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    private Retry retryPolicy(String host) {
+        Duration initialBackoff = config.getRetryInitialBackoff();
+        Duration maxBackoff = config.getRetryMaxBackoff();
+
+        return Retry.from(signals -> signals.concatMap(signal -> {
+            Throwable failure = signal.failure();
+            if (!isUpstreamFailure(failure) || signal.totalRetries() >= config.getRetryAttempts()) {
+                return Mono.error(failure);
+            }
+            if (!retryBudget.tryAcquire()) {
+                budgetExhaustedCounter.increment();
+                log.debug("Retry budget exhausted, not retrying call to [{}]", host);
+                return Mono.error(failure);
+            }
+
+            retriedCounter.increment();
+            log.warn("Retrying call to [{}], attempt: {}", host, signal.totalRetries() + 2);
+            return Mono.delay(backoff(initialBackoff, maxBackoff, signal.totalRetries()));
+        }));
+    }
+
+    /**
+     * Exponential backoff with up to 50% jitter, so retries of calls that failed together spread out
+     */
+    private static Duration backoff(Duration initial, Duration max, long retry) {
+        long nanos = Math.min(max.toNanos(), initial.toNanos() << Math.min(retry, 30));
+        return Duration.ofNanos(nanos - ThreadLocalRandom.current().nextLong(nanos / 2 + 1));
+    }
+
+    /**
+     * @return true for errors that say the upstream is unhealthy, worth a retry and a breaker failure
+     */
+    static boolean isUpstreamFailure(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError()
+                    || response.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+        }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException;
+    }
+
+    private HostGuard createGuard(String host) {
+        HostGuard guard = new HostGuard(host,
+                new CircuitBreaker(config.getCircuitBreakerWindowSize(), config.getCircuitBreakerFailureRateThreshold(),
+                        config.getCircuitBreakerOpenDuration(), config.getCircuitBreakerHalfOpenCalls()),
+                new Semaphore(config.getBulkheadMaxConcurrentCalls()),
+                config.getHedgeEnabled()
+                        ? new HedgePolicy(host, config.getHedgePercentile(), config.getHedgeMinDelay(),
+                        config.getHedgeMaxPercent(), meterRegistry)
+                        : null,
+                meterRegistry.counter("external-api.rejected", "host", host, "reason", "circuit-open"),
+                meterRegistry.counter("external-api.rejected", "host", host, "reason", "bulkhead-full"));
+
+        Gauge.builder("external-api.circuit-breaker.state", guard.breaker(), breaker -> breaker.getState().ordinal())
+                .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .tag("host", host)
+                .register(meterRegistry);
+        Gauge.builder("external-api.bulkhead.available", guard.bulkhead(), Semaphore::availablePermits)
+                .description("Concurrent calls the bulkhead still admits")
+                .tag("host", host)
+                .register(meterRegistry);
+        log.info("Created circuit breaker and bulkhead for [{}]: maxConcurrentCalls={}, hedging={}",
+                host, config.getBulkheadMaxConcurrentCalls(), config.getHedgeEnabled());
+        return guard;
+    }
+
+    /**
+     * @param hedgePolicy null when hedging is disabled
+     */
+    private record HostGuard(String host, CircuitBreaker breaker, Semaphore bulkhead, HedgePolicy hedgePolicy,
+                             Counter circuitOpenCounter, Counter bulkheadFullCounter) {
+
+        <T> Mono<T> attempt(Mono<T> call) {
+            return Mono.defer(() -> {
+                if (!bulkhead.tryAcquire()) {
+                    bulkheadFullCounter.increment();
+                    return Mono.error(new UpstreamRejectedException(host, "bulkhead-full"));
+                }
+                if (!breaker.tryAcquirePermission()) {
+                    bulkhead.release();
+                    circuitOpenCounter.increment();
+                    return Mono.error(new UpstreamRejectedException(host, "circuit-open"));
+                }
+
+                return call
+                        .doOnSuccess(value -> breaker.onSuccess())
+                        .doOnError(error -> {
+                            if (isUpstreamFailure(error)) {
+                                breaker.onFailure();
+                            } else {
+                                breaker.onSuccess();
+                            }
+                        })
+                        .doOnCancel(breaker::onIgnored)
+                        .doFinally(signal -> bulkhead.release());
+            });
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package com.spgroup.journal;
+
+import com.spgroup.model.LiveEvent;
+import com.spgroup.service.EventStateListener;
+import com.spgroup.service.EventStateManager;
+import com.spgroup.service.SportsTrackerService;
+import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable journal of event status transitions
+ * <p>
+ * Every live / not live transition of {@link EventStateManager} is appended to a
+ * memory-mapped segment. Appending is a few absolute writes into the mapping under a
+ * lock of its own, the OS writes the pages back, so a crash of the process loses nothing.
+ * <p>
+ * There are two segments ({@code journal-0.log}, {@code journal-1.log}) used in turn. When
+ * the active one is full, or every snapshot interval, it is sealed and appends continue in
+ * the other one. The sealed segment is then compacted on a thread of its own, so a long
+ * snapshot write never takes a thread from the polls: the previous
+ * snapshot with the sealed records replayed on top is written as the new snapshot
+ * ({@code snapshot.bin}). Compaction reads only files that no longer change, never the
+ * EventStateManager, so a transition never waits for a snapshot or an fsync. Should both
+ * segments fill up before the compaction is done, records are held in memory until it is, up to
+ * {@code app.journal.max-overflow} records. Past that transitions are dropped and counted
+ * ({@code journal.records.dropped}), a restart may then restore a stale status for those events.
+ * <p>
+ * On startup the snapshot is loaded, the segments replayed on top of it in generation order,
+ * and polling is restarted for every event that was live. A snapshot of generation n holds
+ * every segment of a lower generation; older segments (crash after the snapshot was written)
+ * are ignored.
+ * <p>
+ * Journal record: type byte (1 live, 2 not live), unsigned short ID length, UTF-8 ID.
+ * A zero type byte marks the end; it is written before the record, and the record's type
+ * byte last, so a torn append is never replayed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.journal.enabled", havingValue = "true")
+public class StateJournal implements EventStateListener {
+
+    private static final int MAGIC = 0x534A524E;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 16;
+    private static final int GENERATION_OFFSET = 8;
+    // Generation of a segment that was never used
+    private static final long UNUSED = -1;
+
+    private static final byte RECORD_END = 0;
+    private static final byte RECORD_LIVE = 1;
+    private static final byte RECORD_NOT_LIVE = 2;
+
+    private record Record(byte type, byte[] id) {
+    }
+
+    private final EventStateManager eventStateManager;
+    private final SportsTrackerService sportsTrackerService;
+    private final ScheduledExecutorService compactor;
+    private final Path[] segmentFiles;
+    private final Path snapshotFile;
+    private final int segmentSize;
+    private final Duration snapshotInterval;
+    private final int maxOverflow;
+    private final Counter droppedRecords;
+
+    private final FileChannel[] channels = new FileChannel[2];
+    private final MappedByteBuffer[] segments = new MappedByteBuffer[2];
+    private final long[] generations = new long[2];
+
+    // Append state, guarded by appendLock
+    private final Object appendLock = new Object();
+    private int active;
+    // The other segment holds records that are not in the snapshot yet
+    private boolean sealed;
+    private long appendedSinceSeal;
+    // Records that fit in no segment until the sealed one is compacted
+    private final Deque<Record> overflow = new ArrayDeque<>();
+    // Set while records are dropped, so the drops are logged once per full overflow
+    private boolean dropping;
+
+    private ScheduledFuture<?> compactionTask;
+    private long lastRecoveryMillis;
+
+    @Autowired
+    public StateJournal(EventStateManager eventStateManager,
+                        SportsTrackerService sportsTrackerService,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.journal.directory:./data/journal}") Path directory,
+                        @Value("${app.journal.segment-size:64MB}") DataSize segmentSize,
+                        @Value("${app.journal.snapshot-interval:5m}") Duration snapshotInterval,
+                        @Value("${app.journal.max-overflow:100000}") int maxOverflow) {
+        this(eventStateManager, sportsTrackerService, meterRegistry, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "state-journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        }), directory, segmentSize, snapshotInterval, maxOverflow);
+    }
+
+    StateJournal(EventStateManager eventStateManager,
+                 SportsTrackerService sportsTrackerService,
+                 MeterRegistry meterRegistry,
+                 ScheduledExecutorService compactor,
+                 Path directory,
+                 DataSize segmentSize,
+                 Duration snapshotInterval,
+                 int maxOverflow) {
+        this.eventStateManager = eventStateManager;
+        this.sportsTrackerService = sportsTrackerService;
+        this.compactor = compactor;
+        this.segmentFiles = new Path[]{directory.resolve("journal-0.log"), directory.resolve("journal-1.log")};
+        this.snapshotFile = directory.resolve("snapshot.bin");
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.snapshotInterval = snapshotInterval;
+        this.maxOverflow = maxOverflow;
+        this.droppedRecords = Counter.builder("journal.records.dropped")
+                .description("Status transitions not journaled because the segments and the overflow were full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Restores the live events and restarts their polling, then starts journaling
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        long started = System.nanoTime();
+        Files.createDirectories(snapshotFile.getParent());
+
+        Set<String> liveIds = new LinkedHashSet<>();
+        long snapshotGeneration = readSnapshot(liveIds);
+        for (int i = 0; i < segments.length; i++) {
+            openSegment(i);
+        }
+
+        synchronized (appendLock) {
+            replaySegments(snapshotGeneration, liveIds);
+        }
+
+        List<LiveEvent> events = eventStateManager.markEventsAsLive(new ArrayList<>(liveIds));
+        sportsTrackerService.startPollingForEvents(events);
+        eventStateManager.addListener(this);
+
+        lastRecoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Restored {} live events from journal in {}ms", liveIds.size(), lastRecoveryMillis);
+
+        // Start from a fresh snapshot, so the next restart replays only what happens from now on
+        compact();
+        long intervalMs = snapshotInterval.toMillis();
+        compactionTask = compactor.scheduleAtFixedRate(this::compactIfChanged, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onTransition(String eventId, boolean live) {
+        byte[] id = eventId.getBytes(StandardCharsets.UTF_8);
+        if (id.length > 0xFFFF || HEADER_SIZE + 3 + id.length + 1 > segmentSize) {
+            log.error("Event ID too long to journal: {} bytes", id.length);
+            return;
+        }
+
+        Record record = new Record(live ? RECORD_LIVE : RECORD_NOT_LIVE, id);
+        boolean sealedNow;
+        synchronized (appendLock) {
+            if (overflow.size() >= maxOverflow) {
+                droppedRecords.increment();
+                if (!dropping) {
+                    dropping = true;
+                    log.error("Journal overflow of {} records full, dropping transitions until the compaction is done",
+                            maxOverflow);
+                }
+                return;
+            }
+            overflow.addLast(record);
+            sealedNow = drainOverflow();
+        }
+
+        if (sealedNow) {
+            compactor.execute(this::compactSealed);
+        }
+    }
+
+    /**
+     * Seals the active segment and writes a snapshot including it
+     */
+    public synchronized void compact() {
+        synchronized (appendLock) {
+            if (!sealed) {
+                sealActiveSegment();
+            }
+        }
+        compactSealed();
+    }
+
+    /**
+     * @return Time the last startup took to restore the live events and restart polling
+     */
+    public long getLastRecoveryMillis() {
+        return lastRecoveryMillis;
+    }
+
+    /**
+     * @return Transitions dropped because the overflow was full
+     */
+    public long getDroppedRecords() {
+        return (long) droppedRecords.count();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (compactionTask != null) {
+            compactionTask.cancel(false);
+        }
+        // Compactions already handed over still run, and find nothing left to compact
+        compactor.shutdown();
+        compactIfChanged();
+
+        synchronized (appendLock) {
+            for (int i = 0; i < segments.length; i++) {
+                segments[i].force();
+                channels[i].close();
+            }
+        }
+    }
+
+    private synchronized void compactIfChanged() {
+        synchronized (appendLock) {
+            if (!sealed && appendedSinceSeal == 0 && overflow.isEmpty()) {
+                return;
+            }
+        }
+        compact();
+    }
+
+    /**
+     * Writes the previous snapshot with the sealed segment replayed on top as the new snapshot,
+     * then frees the sealed segment
+     * Runs on the compactor thread, or on the caller of {@link #compact()}
+     */
+    private synchronized void compactSealed() {
+        boolean sealedAgain;
+        do {
+            int sealedIndex;
+            synchronized (appendLock) {
+                if (!sealed) {
+                    return;
+                }
+                sealedIndex = 1 - active;
+            }
+
+            // Neither the snapshot nor the sealed segment change until the segment is freed
+            long sealedGeneration = generations[sealedIndex];
+            Set<String> liveIds = new LinkedHashSet<>();
+            try {
+                if (readSnapshot(liveIds) <= sealedGeneration) {
+                    replay(segments[sealedIndex], liveIds);
+                    writeSnapshot(liveIds, sealedGeneration + 1);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write journal snapshot", e);
+            }
+            log.debug("Compacted journal into snapshot {} with {} live events", sealedGeneration + 1, liveIds.size());
+
+            synchronized (appendLock) {
+                sealed = false;
+                sealedAgain = drainOverflow();
+            }
+        } while (sealedAgain);
+    }
+
+    /**
+     * Appends the held records in order, sealing the active segment when it is full
+     * and the other one is free
+     *
+     * @return true if a segment was sealed and has to be compacted
+     */
+    private boolean drainOverflow() {
+        boolean sealedNow = false;
+        while (!overflow.isEmpty()) {
+            Record record = overflow.peekFirst();
+            if (!fits(record)) {
+                if (sealed) {
+                    if (overflow.size() == 1) {
+                        log.warn("Journal segments full, holding records until the compaction is done");
+                    }
+                    break;
+                }
+                sealActiveSegment();
+                sealedNow = true;
+                continue;
+            }
+            write(record);
+            overflow.removeFirst();
+        }
+        if (overflow.isEmpty()) {
+            dropping = false;
+        }
+        return sealedNow;
+    }
+
+    private boolean fits(Record record) {
+        MappedByteBuffer segment = segments[active];
+        return segment.position() + 3 + record.id().length + 1 <= segment.limit();
+    }
+
+    private void write(Record record) {
+        MappedByteBuffer segment = segments[active];
+        int recordSize = 3 + record.id().length;
+        int position = segment.position();
+        segment.put(position + recordSize, RECORD_END);
+        segment.putShort(position + 1, (short) record.id().length);
+        segment.put(position + 3, record.id());
+        segment.put(position, record.type());
+        segment.position(position + recordSize);
+        appendedSinceSeal++;
+    }
+
+    /**
+     * Continues in the other segment, emptied with the next generation
+     * No fsync: like appends, the new header only has to survive a crash of the process
+     */
+    private void sealActiveSegment() {
+        int next = 1 - active;
+        resetSegment(next, generations[active] + 1, false);
+        active = next;
+        sealed = true;
+        appendedSinceSeal = 0;
+    }
+
+    private void openSegment(int index) throws IOException {
+        FileChannel channel = FileChannel.open(segmentFiles[index],
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean existing = channel.size() >= HEADER_SIZE;
+        MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentSize, channel.size()));
+        channels[index] = channel;
+        segments[index] = segment;
+
+        if (existing && segment.getInt(0) == MAGIC && segment.getInt(4) == VERSION) {
+            generations[index] = segment.getLong(GENERATION_OFFSET);
+        } else {
+            segment.putInt(0, MAGIC);
+            segment.putInt(4, VERSION);
+            resetSegment(index, UNUSED, true);
+        }
+    }
+
+    private void resetSegment(int index, long newGeneration, boolean force) {
+        MappedByteBuffer segment = segments[index];
+        generations[index] = newGeneration;
+        segment.putLong(GENERATION_OFFSET, newGeneration);
+        segment.put(HEADER_SIZE, RECORD_END);
+        segment.position(HEADER_SIZE);
+        if (force) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Replays the segments the snapshot doesn't hold, oldest first, and continues in the newest
+     */
+    private void replaySegments(long snapshotGeneration, Set<String> liveIds) {
+        int older = generations[0] <= generations[1] ? 0 : 1;
+        int newer = 1 - older;
+
+        for (int index : new int[]{older, newer}) {
+            if (generations[index] != UNUSED && generations[index] >= snapshotGeneration) {
+                int records = replay(segments[index], liveIds);
+                log.debug("Replayed {} journal records of generation {}", records, generations[index]);
+            } else if (generations[index] != UNUSED) {
+                log.debug("Journal generation {} is already in snapshot generation {}",
+                        generations[index], snapshotGeneration);
+            }
+        }
+
+        if (generations[newer] != UNUSED && generations[newer] >= snapshotGeneration) {
+            active = newer;
+            // The older one still has to be compacted if the snapshot doesn't hold it
+            sealed = generations[older] != UNUSED && generations[older] >= snapshotGeneration;
+        } else {
+            active = 0;
+            sealed = false;
+            resetSegment(0, snapshotGeneration, true);
+        }
+        appendedSinceSeal = segments[active].position() > HEADER_SIZE ? 1 : 0;
+    }
+
+    /**
+     * Applies the records of the segment to the live set
+     * Leaves the segment positioned after the last complete record
+     *
+     * @return Number of records replayed
+     */
+    private int replay(MappedByteBuffer segment, Set<String> liveIds) {
+        int position = HEADER_SIZE;
+        int limit = segment.limit();
+        int records = 0;
+
+        while (position + 3 <= limit) {
+            byte type = segment.get(position);
+            if (type != RECORD_LIVE && type != RECORD_NOT_LIVE) {
+                break;
+            }
+            int length = Short.toUnsignedInt(segment.getShort(position + 1));
+            if (position + 3 + length > limit) {
+                break;
+            }
+
+            byte[] id = new byte[length];
+            segment.get(position + 3, id);
+            String eventId = new String(id, StandardCharsets.UTF_8);
+            if (type == RECORD_LIVE) {
+                liveIds.add(eventId);
+            } else {
+                liveIds.remove(eventId);
+            }
+
+            position += 3 + length;
+            records++;
+        }
+
+        segment.position(position);
+        if (position < limit) {
+            segment.put(position, RECORD_END);
+        }
+        return records;
+    }
+
+    /**
+     * @return Generation of the snapshot, 0 if there is none
+     */
+    private long readSnapshot(Set<String> liveIds) throws IOException {
+        if (!Files.exists(snapshotFile)) {
+            return 0;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshotFile), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a journal snapshot: " + snapshotFile);
+            }
+            long snapshotGeneration = in.readLong();
+            int count = in.readInt();
+
+            for (int i = 0; i < count; i++) {
+                byte[] id = new byte[in.readUnsignedShort()];
+                in.readFully(id);
+                liveIds.add(new String(id, StandardCharsets.UTF_8));
+            }
+            return snapshotGeneration;
+        }
+    }
+
+    private void writeSnapshot(Collection<String> liveIds, long snapshotGeneration) throws IOException {
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+
+        try (FileChannel snapshotChannel = FileChannel.open(tempFile,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(Channels.newOutputStream(snapshotChannel), 1 << 16))) {
+
+            List<byte[]> ids = new ArrayList<>(liveIds.size());
+            for (String eventId : liveIds) {
+                byte[] id = eventId.getBytes(StandardCharsets.UTF_8);
+                if (id.length <= 0xFFFF) {
+                    ids.add(id);
+                }
+            }
+
+            out.writeInt(MAGIC);
+            out.writeLong(snapshotGeneration);
+            out.writeInt(ids.size());
+            for (byte[] id : ids) {
+                out.writeShort(id.length);
+                out.write(id);
+            }
+            out.flush();
+            snapshotChannel.force(true);
+        }
+
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
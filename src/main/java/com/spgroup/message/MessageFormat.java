@@ -0,0 +1,17 @@
+package com.spgroup.message;
+
+/**
+ * Wire format of the records published to a Kafka topic
+ */
+public enum MessageFormat {
+
+    /**
+     * UTF-8 JSON text, written by {@link ScoreUpdateJsonWriter} for score updates and by Jackson otherwise
+     */
+    JSON,
+
+    /**
+     * Compact binary encoding of {@link ScoreUpdateCodec}, sent through the byte[] template
+     */
+    BINARY
+}
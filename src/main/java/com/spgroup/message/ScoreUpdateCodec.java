@@ -0,0 +1,219 @@
+package com.spgroup.message;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary encoding of {@link ScoreUpdateMessage}, the {@link MessageFormat#BINARY} format
+ * <p>
+ * Layout of version 1, varints are unsigned LEB128 (7 bits per byte, low bits first):
+ * <pre>
+ * byte    magic 0xB5, never the first byte of a JSON record
+ * byte    schema version
+ * byte    flags: 0x01 score is a home:away pair, 0x02 score is text, 0x04 custom source
+ * varint  timestamp, microseconds since the epoch
+ * varint  event ID length, then the UTF-8 event ID
+ * score   pair: varint home, varint away; text: varint length, then UTF-8; none: nothing
+ * source  only with flag 0x04: varint length, then UTF-8; {@link ScoreUpdateMessage#SOURCE} otherwise
+ * </pre>
+ * A "2:1" update of an 8 character event ID takes 22 bytes, against about 100 as JSON.
+ * Consumers in Java can decode records with {@link #decode(byte[])}; it rejects versions
+ * it does not know, so the version has to be bumped on any layout change.
+ */
+public final class ScoreUpdateCodec {
+
+    public static final byte MAGIC = (byte) 0xB5;
+    public static final byte VERSION = 1;
+
+    static final int FLAG_SCORE_PAIR = 0x01;
+    static final int FLAG_SCORE_TEXT = 0x02;
+    static final int FLAG_CUSTOM_SOURCE = 0x04;
+
+    private ScoreUpdateCodec() {
+    }
+
+    /**
+     * Encodes the message into an exactly sized array
+     *
+     * @param message Message with a non-null event ID
+     * @return Encoded record value
+     */
+    public static byte[] encode(ScoreUpdateMessage message) {
+        if (message.eventId() == null) {
+            throw new IllegalArgumentException("Event ID is required");
+        }
+
+        byte[] eventId = message.eventId().getBytes(StandardCharsets.UTF_8);
+        long scorePair = parseScorePair(message.currentScore());
+        byte[] scoreText = scorePair < 0 && message.currentScore() != null
+                ? message.currentScore().getBytes(StandardCharsets.UTF_8)
+                : null;
+        byte[] source = message.source() != null && !ScoreUpdateMessage.SOURCE.equals(message.source())
+                ? message.source().getBytes(StandardCharsets.UTF_8)
+                : null;
+
+        int flags = 0;
+        int size = 3 + varLongSize(message.timestampMicros()) + varLongSize(eventId.length) + eventId.length;
+        if (scorePair >= 0) {
+            flags |= FLAG_SCORE_PAIR;
+            size += varLongSize(scorePair >>> 32) + varLongSize(scorePair & 0xFFFFFFFFL);
+        } else if (scoreText != null) {
+            flags |= FLAG_SCORE_TEXT;
+            size += varLongSize(scoreText.length) + scoreText.length;
+        }
+        if (source != null) {
+            flags |= FLAG_CUSTOM_SOURCE;
+            size += varLongSize(source.length) + source.length;
+        }
+
+        byte[] out = new byte[size];
+        int position = 0;
+        out[position++] = MAGIC;
+        out[position++] = VERSION;
+        out[position++] = (byte) flags;
+        position = writeVarLong(out, position, message.timestampMicros());
+        position = writeBytes(out, position, eventId);
+        if (scorePair >= 0) {
+            position = writeVarLong(out, position, scorePair >>> 32);
+            position = writeVarLong(out, position, scorePair & 0xFFFFFFFFL);
+        } else if (scoreText != null) {
+            position = writeBytes(out, position, scoreText);
+        }
+        if (source != null) {
+            writeBytes(out, position, source);
+        }
+        return out;
+    }
+
+    /**
+     * Reference decoder for consumers of binary topics
+     *
+     * @param value Record value
+     * @return Decoded message
+     * @throws IllegalArgumentException if the value is not a supported binary score update
+     */
+    public static ScoreUpdateMessage decode(byte[] value) {
+        return decode(ByteBuffer.wrap(value));
+    }
+
+    /**
+     * Decodes a message from the buffer's position, which is advanced past it
+     *
+     * @throws IllegalArgumentException if the value is not a supported binary score update
+     */
+    public static ScoreUpdateMessage decode(ByteBuffer buffer) {
+        try {
+            if (buffer.get() != MAGIC) {
+                throw new IllegalArgumentException("Not a binary score update");
+            }
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported score update version " + version);
+            }
+
+            int flags = buffer.get();
+            long timestampMicros = readVarLong(buffer);
+            String eventId = readString(buffer);
+
+            String currentScore = null;
+            if ((flags & FLAG_SCORE_PAIR) != 0) {
+                currentScore = readVarLong(buffer) + ":" + readVarLong(buffer);
+            } else if ((flags & FLAG_SCORE_TEXT) != 0) {
+                currentScore = readString(buffer);
+            }
+
+            String source = (flags & FLAG_CUSTOM_SOURCE) != 0 ? readString(buffer) : ScoreUpdateMessage.SOURCE;
+            return new ScoreUpdateMessage(eventId, currentScore, timestampMicros, source);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated score update", e);
+        }
+    }
+
+    /**
+     * Parses a canonical "home:away" score, the only form encoded as two varints
+     * Leading zeros or signs would not survive the round trip and are left as text
+     *
+     * @return home in the high and away in the low 32 bits, -1 if the score is not a pair
+     */
+    static long parseScorePair(String score) {
+        if (score == null) {
+            return -1;
+        }
+        int separator = score.indexOf(':');
+        if (separator < 0) {
+            return -1;
+        }
+
+        long home = parseCount(score, 0, separator);
+        long away = parseCount(score, separator + 1, score.length());
+        if (home < 0 || away < 0) {
+            return -1;
+        }
+        return home << 32 | away;
+    }
+
+    private static long parseCount(String text, int from, int to) {
+        int length = to - from;
+        if (length == 0 || length > 9 || (length > 1 && text.charAt(from) == '0')) {
+            return -1;
+        }
+
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static int writeVarLong(byte[] out, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[position++] = (byte) value;
+        return position;
+    }
+
+    private static int writeBytes(byte[] out, int position, byte[] bytes) {
+        position = writeVarLong(out, position, bytes.length);
+        System.arraycopy(bytes, 0, out, position, bytes.length);
+        return position + bytes.length;
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        long length = readVarLong(buffer);
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("Truncated score update");
+        }
+
+        byte[] bytes = new byte[(int) length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
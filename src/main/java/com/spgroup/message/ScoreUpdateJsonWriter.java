@@ -0,0 +1,212 @@
+package com.spgroup.message;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Writes {@link ScoreUpdateMessage}s as UTF-8 JSON without Jackson, a Map or an intermediate String
+ * <p>
+ * Field names and punctuation are precomputed bytes, strings are escaped and UTF-8 encoded
+ * char by char, and the timestamp is printed as ISO-8601 straight from the epoch micros, the
+ * same text as {@link Instant#toString()}. Records are written into a per-thread
+ * buffer that is reused across calls; the only allocation per record is the exact-size array
+ * handed to the producer, which keeps it until the send completes or is retried.
+ * <p>
+ * A virtual thread usually serializes a single record in its lifetime, so a thread-local buffer
+ * would be garbage right away: virtual threads write into a buffer sized for the record instead.
+ */
+public final class ScoreUpdateJsonWriter {
+
+    private static final byte[] EVENT_ID = ascii("{\"eventId\":");
+    private static final byte[] CURRENT_SCORE = ascii(",\"currentScore\":");
+    private static final byte[] TIMESTAMP = ascii(",\"timestamp\":\"");
+    private static final byte[] SOURCE = ascii("\",\"source\":");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+
+    private static final int INITIAL_CAPACITY = 256;
+    // Larger buffers are not kept, a rare huge record should not pin memory on every thread
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+    // {"eventId":,"currentScore":,"timestamp":"","source":} and a 30 char timestamp
+    private static final int FIXED_SIZE = 96;
+
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[INITIAL_CAPACITY]);
+
+    private ScoreUpdateJsonWriter() {
+    }
+
+    /**
+     * @return UTF-8 JSON of the message
+     */
+    public static byte[] toBytes(ScoreUpdateMessage message) {
+        int bound = maxSize(message);
+
+        if (Thread.currentThread().isVirtual()) {
+            byte[] buffer = new byte[bound];
+            int length = write(message, buffer);
+            return length == bound ? buffer : Arrays.copyOf(buffer, length);
+        }
+
+        byte[] buffer = BUFFER.get();
+        if (buffer.length < bound) {
+            buffer = new byte[Math.max(bound, buffer.length * 2)];
+            if (buffer.length <= MAX_RETAINED_CAPACITY) {
+                BUFFER.set(buffer);
+            }
+        }
+        return Arrays.copyOf(buffer, write(message, buffer));
+    }
+
+    /**
+     * Writes the message at the start of the buffer
+     *
+     * @param buffer Buffer of at least {@link #maxSize(ScoreUpdateMessage)} bytes
+     * @return Number of bytes written
+     */
+    static int write(ScoreUpdateMessage message, byte[] buffer) {
+        int position = put(buffer, 0, EVENT_ID);
+        position = writeString(buffer, position, message.eventId());
+        position = put(buffer, position, CURRENT_SCORE);
+        position = writeString(buffer, position, message.currentScore());
+        position = put(buffer, position, TIMESTAMP);
+        position = writeTimestamp(buffer, position, message.timestampMicros());
+        position = put(buffer, position, SOURCE);
+        position = writeString(buffer, position, message.source());
+        buffer[position++] = '}';
+        return position;
+    }
+
+    /**
+     * @return Upper bound of the JSON size, each char takes at most 6 bytes ("\u001f")
+     */
+    static int maxSize(ScoreUpdateMessage message) {
+        return FIXED_SIZE + 6 * (length(message.eventId()) + length(message.currentScore()) + length(message.source()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static int writeString(byte[] buffer, int position, String value) {
+        if (value == null) {
+            return put(buffer, position, NULL);
+        }
+
+        buffer[position++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    buffer[position++] = '\\';
+                }
+                buffer[position++] = (byte) c;
+            } else if (c < 0x20) {
+                position = writeControl(buffer, position, c);
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, replaced like String.getBytes(UTF_8) does
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        buffer[position++] = '"';
+        return position;
+    }
+
+    private static int writeControl(byte[] buffer, int position, char c) {
+        buffer[position++] = '\\';
+        switch (c) {
+            case '\n' -> buffer[position++] = 'n';
+            case '\r' -> buffer[position++] = 'r';
+            case '\t' -> buffer[position++] = 't';
+            case '\b' -> buffer[position++] = 'b';
+            case '\f' -> buffer[position++] = 'f';
+            default -> {
+                buffer[position++] = 'u';
+                buffer[position++] = '0';
+                buffer[position++] = '0';
+                buffer[position++] = HEX[c >> 4];
+                buffer[position++] = HEX[c & 0xF];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Prints the time like {@link Instant#toString()}: no fraction for whole seconds,
+     * otherwise milliseconds or microseconds, whichever is exact
+     */
+    private static int writeTimestamp(byte[] buffer, int position, long micros) {
+        long seconds = Math.floorDiv(micros, 1_000_000L);
+        int fraction = (int) Math.floorMod(micros, 1_000_000L);
+        long days = Math.floorDiv(seconds, 86_400L);
+        int secondOfDay = (int) Math.floorMod(seconds, 86_400L);
+
+        // Civil date from days since 1970-01-01 (proleptic Gregorian, eras of 400 years)
+        long z = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        if (year < 0 || year > 9999) {
+            // Instant.toString() signs and widens these years, not worth a fast path
+            return put(buffer, position, ascii(Instant.ofEpochSecond(seconds, fraction * 1_000L).toString()));
+        }
+
+        position = writeDigits(buffer, position, (int) year, 4);
+        buffer[position++] = '-';
+        position = writeDigits(buffer, position, month, 2);
+        buffer[position++] = '-';
+        position = writeDigits(buffer, position, day, 2);
+        buffer[position++] = 'T';
+        position = writeDigits(buffer, position, secondOfDay / 3_600, 2);
+        buffer[position++] = ':';
+        position = writeDigits(buffer, position, secondOfDay / 60 % 60, 2);
+        buffer[position++] = ':';
+        position = writeDigits(buffer, position, secondOfDay % 60, 2);
+
+        if (fraction != 0) {
+            buffer[position++] = '.';
+            position = fraction % 1_000 == 0
+                    ? writeDigits(buffer, position, fraction / 1_000, 3)
+                    : writeDigits(buffer, position, fraction, 6);
+        }
+        buffer[position++] = 'Z';
+        return position;
+    }
+
+    private static int writeDigits(byte[] buffer, int position, int value, int digits) {
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return position + digits;
+    }
+
+    private static int put(byte[] buffer, int position, byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        return position + bytes.length;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,46 @@
+package com.spgroup.message;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Score update published to Kafka for a live event
+ * Serialized as JSON or with {@link ScoreUpdateCodec}, depending on the topic's {@link MessageFormat}
+ *
+ * @param eventId         Event ID
+ * @param currentScore    Current score, "home:away" for the scores of the external API
+ * @param timestampMicros Time of the update in microseconds since the epoch
+ * @param source          Publisher of the update
+ */
+public record ScoreUpdateMessage(
+        String eventId,
+        String currentScore,
+        @JsonIgnore long timestampMicros,
+        String source) {
+
+    public static final String SOURCE = "sports-tracker";
+
+    /**
+     * @return Update published by this tracker at the given time
+     */
+    public static ScoreUpdateMessage of(String eventId, String currentScore, Instant timestamp) {
+        long micros = TimeUnit.SECONDS.toMicros(timestamp.getEpochSecond()) + timestamp.getNano() / 1_000;
+        return new ScoreUpdateMessage(eventId, currentScore, micros, SOURCE);
+    }
+
+    /**
+     * @return ISO-8601 timestamp, the "timestamp" field of the JSON format
+     */
+    @JsonProperty("timestamp")
+    public String timestamp() {
+        return toInstant().toString();
+    }
+
+    public Instant toInstant() {
+        return Instant.ofEpochSecond(Math.floorDiv(timestampMicros, 1_000_000L),
+                Math.floorMod(timestampMicros, 1_000_000L) * 1_000L);
+    }
+}
@@ -1,5 +1,6 @@
 package com.spgroup.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,4 +18,21 @@ public class ExternalApiResponse {
 
     @JsonProperty("currentScore")
     private String currentScore;
+
+    // Set when the API answered 304 Not Modified, the score is then unknown
+    @JsonIgnore
+    private boolean notModified;
+
+    // ETag / Last-Modified of the response, kept for the next request once the score is published
+    @JsonIgnore
+    private String etag;
+    @JsonIgnore
+    private String lastModified;
+
+    public static ExternalApiResponse notModified(String eventId) {
+        return ExternalApiResponse.builder()
+                .eventId(eventId)
+                .notModified(true)
+                .build();
+    }
 }
@@ -1,13 +1,13 @@
 package com.spgroup.model;
 
 
+import com.spgroup.scheduler.PollHandle;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
-import java.util.concurrent.ScheduledFuture;
 
 /**
  * Represents a live event with its scheduled task
@@ -25,8 +25,18 @@ public class LiveEvent {
     private Instant lastPolled;
     private String externalApiUrl;
 
-    // Reference to the scheduled task
-    private transient ScheduledFuture<?> scheduledTask;
+    // Last score acknowledged by Kafka, used for change-only publishing
+    private volatile String lastPublishedScore;
+    private volatile Instant lastPublishedAt;
+
+    // Last score returned by the upstream, whether published or not, used for the poll interval
+    private volatile String lastFetchedScore;
+
+    // Current poll interval, adapted to the score activity
+    private volatile long pollIntervalMs;
+
+    // Handle of the periodic poll in the poll scheduler
+    private transient PollHandle scheduledTask;
 
     public void markAsLive() {
         this.isLive = true;
@@ -38,12 +48,17 @@ public class LiveEvent {
         this.lastUpdated = Instant.now();
 
         // Cancel scheduled task if exists
-        if (scheduledTask != null && !scheduledTask.isCancelled()) {
-            scheduledTask.cancel(false);
+        if (scheduledTask != null) {
+            scheduledTask.cancel();
         }
     }
 
     public void updateLastPolled() {
         this.lastPolled = Instant.now();
     }
+
+    public void recordPublished(String score) {
+        this.lastPublishedScore = score;
+        this.lastPublishedAt = Instant.now();
+    }
 }
@@ -0,0 +1,85 @@
+package com.spgroup.scheduler;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the polls handed to a thread pool whose own queue is unbounded
+ * <p>
+ * The TaskScheduler pool queues every task it is given. Behind a slow upstream the wheel
+ * keeps firing and that queue grows without limit, so polls queued or running are capped
+ * here: over the capacity a poll is rejected and counted, the event is polled again on its
+ * next interval.
+ */
+@Slf4j
+public class BoundedPollExecutor implements Executor, MeterBinder {
+
+    private final Executor delegate;
+    private final Semaphore permits;
+    private final int capacity;
+    private final LongAdder rejected = new LongAdder();
+
+    public BoundedPollExecutor(Executor delegate, int capacity) {
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.permits = new Semaphore(capacity);
+    }
+
+    /**
+     * Hands the poll to the pool
+     *
+     * @throws RejectedExecutionException if the capacity is reached or the pool rejected the poll
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            throw new RejectedExecutionException("Poll executor capacity of " + capacity + " reached");
+        }
+
+        try {
+            delegate.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Polls queued or running
+     */
+    public int getPendingCount() {
+        return capacity - permits.availablePermits();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("polling.executor.pending", this, BoundedPollExecutor::getPendingCount)
+                .description("Polls queued or running on the TaskScheduler pool")
+                .register(registry);
+        FunctionCounter.builder("polling.executor.rejected", rejected, LongAdder::sum)
+                .description("Polls rejected because the executor capacity was reached")
+                .register(registry);
+        Gauge.builder("polling.executor.capacity", this, executor -> executor.capacity)
+                .register(registry);
+    }
+}
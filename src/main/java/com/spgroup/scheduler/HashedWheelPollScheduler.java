@@ -0,0 +1,525 @@
+package com.spgroup.scheduler;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Poll scheduler built on a hashed timing wheel
+ * <p>
+ * Time is split into ticks of {@code tickDurationMs}; every handle is linked into the
+ * bucket {@code deadlineTick % wheelSize}. A single worker thread advances one bucket per
+ * tick and hands all handles that are due in that bucket to the listener at once, then
+ * re-links them for their next period. Schedule and cancel are O(1) and only cost a queue
+ * offer; the worker does the actual linking/unlinking on its own thread.
+ * <p>
+ * The listener is called on the worker thread and must only dispatch work, never poll itself.
+ * <p>
+ * {@link #scheduleSpread(String, long, long)} spreads the first polls of events registered
+ * together across their interval according to the {@link PhaseStrategy}, so they don't fire
+ * in lockstep. With {@link PhaseStrategy#EVEN} the worker also rebalances phases once per
+ * rotation after events joined or left, by moving polls out of crowded slots into earlier,
+ * emptier ones (never later, so no poll is delayed). The variance of the number of polls
+ * fired per tick over the last rotation is exposed as {@code polling.wheel.tick-load.variance}.
+ * <p>
+ * Every fired poll records its schedule drift, the time between the planned start of its tick
+ * and the moment the worker hands it to the listener, as {@code polling.schedule.drift}.
+ */
+@Slf4j
+public class HashedWheelPollScheduler implements MeterBinder {
+
+    private final long startTime = System.nanoTime();
+    private final long tickNanos;
+    private final long tickDurationMs;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final PhaseStrategy phaseStrategy;
+
+    // Polls fired per tick over the last rotation, only written by the worker thread
+    private final int[] tickLoads;
+    private volatile double tickLoadVariance;
+    private volatile int tickLoadMax;
+    private boolean membershipChanged;
+    private volatile Timer driftTimer;
+
+    private final Queue<PollHandle> pendingSchedules = new ConcurrentLinkedQueue<>();
+    private final Queue<PollHandle> pendingCancellations = new ConcurrentLinkedQueue<>();
+    private final Queue<PollHandle> pendingIntervalChanges = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger scheduledCount = new AtomicInteger();
+
+    private volatile Thread worker;
+    private volatile boolean running;
+    private Consumer<List<PollHandle>> listener;
+
+    public HashedWheelPollScheduler(long tickDurationMs, int wheelSize) {
+        this(tickDurationMs, wheelSize, PhaseStrategy.NONE);
+    }
+
+    public HashedWheelPollScheduler(long tickDurationMs, int wheelSize, PhaseStrategy phaseStrategy) {
+        if (tickDurationMs <= 0) {
+            throw new IllegalArgumentException("tickDurationMs must be positive: " + tickDurationMs);
+        }
+        if (wheelSize <= 0) {
+            throw new IllegalArgumentException("wheelSize must be positive: " + wheelSize);
+        }
+
+        int normalizedSize = Integer.highestOneBit(wheelSize - 1) << 1;
+        if (normalizedSize <= 0) {
+            normalizedSize = 1;
+        }
+
+        this.tickDurationMs = tickDurationMs;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickDurationMs);
+        this.wheel = new Bucket[normalizedSize];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheel.length - 1;
+        this.phaseStrategy = phaseStrategy;
+        this.tickLoads = new int[wheel.length];
+    }
+
+    /**
+     * Starts the worker thread
+     *
+     * @param listener Receives all handles that came due in the same tick
+     */
+    public synchronized void start(Consumer<List<PollHandle>> listener) {
+        if (running) {
+            throw new IllegalStateException("Poll scheduler already started");
+        }
+
+        this.listener = listener;
+        this.running = true;
+
+        Thread thread = new Thread(this::runWorker, "poll-wheel");
+        thread.setDaemon(true);
+        this.worker = thread;
+        thread.start();
+
+        log.info("Poll scheduler started: tick={}ms, wheelSize={}, phaseStrategy={}",
+                tickDurationMs, wheel.length, phaseStrategy);
+    }
+
+    /**
+     * Stops the worker thread, pending handles are discarded
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        log.info("Poll scheduler stopped");
+    }
+
+    /**
+     * Schedules a periodic poll
+     *
+     * @param eventId        Event ID passed back to the listener
+     * @param initialDelayMs Delay before the first poll
+     * @param intervalMs     Interval between polls
+     * @return Handle used to cancel the poll
+     */
+    public PollHandle schedule(String eventId, long initialDelayMs, long intervalMs) {
+        return schedule(eventId, initialDelayMs, intervalMs, 0);
+    }
+
+    /**
+     * Schedules a periodic poll whose first run the worker may move up to {@code spreadTicks} later
+     * The handle is fully initialized before it is published to the worker through the queue
+     */
+    PollHandle schedule(String eventId, long initialDelayMs, long intervalMs, long spreadTicks) {
+        if (intervalMs <= 0) {
+            throw new IllegalArgumentException("intervalMs must be positive: " + intervalMs);
+        }
+
+        PollHandle handle = new PollHandle(this, eventId, intervalMs);
+        long elapsed = System.nanoTime() - startTime + TimeUnit.MILLISECONDS.toNanos(Math.max(0, initialDelayMs));
+        handle.deadlineTick = Math.ceilDiv(elapsed, tickNanos);
+        handle.spreadTicks = spreadTicks;
+
+        scheduledCount.incrementAndGet();
+        pendingSchedules.add(handle);
+        return handle;
+    }
+
+    /**
+     * Schedules a periodic poll whose first run is spread across one interval after the
+     * minimum delay according to the phase strategy
+     *
+     * @param eventId    Event ID passed back to the listener
+     * @param minDelayMs Earliest delay before the first poll
+     * @param intervalMs Interval between polls
+     * @return Handle used to cancel the poll
+     */
+    public PollHandle scheduleSpread(String eventId, long minDelayMs, long intervalMs) {
+        return switch (phaseStrategy) {
+            case NONE -> schedule(eventId, minDelayMs, intervalMs);
+            case HASH -> {
+                int hash = eventId.hashCode();
+                long offsetMs = Math.floorMod(hash ^ (hash >>> 16), intervalMs);
+                yield schedule(eventId, minDelayMs + offsetMs, intervalMs);
+            }
+            // The slot is picked by the worker, which owns the bucket loads
+            case EVEN -> schedule(eventId, minDelayMs, intervalMs, Math.ceilDiv(intervalMs, tickDurationMs));
+        };
+    }
+
+    /**
+     * @return Number of handles currently scheduled (not cancelled)
+     */
+    public int getScheduledCount() {
+        return scheduledCount.get();
+    }
+
+    public long getTickDurationMs() {
+        return tickDurationMs;
+    }
+
+    public PhaseStrategy getPhaseStrategy() {
+        return phaseStrategy;
+    }
+
+    /**
+     * @return Variance of the number of polls fired per tick over the last wheel rotation
+     */
+    public double getTickLoadVariance() {
+        return tickLoadVariance;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("polling.wheel.tick-load.variance", this, HashedWheelPollScheduler::getTickLoadVariance)
+                .description("Variance of the polls fired per tick over the last wheel rotation")
+                .register(registry);
+        Gauge.builder("polling.wheel.tick-load.max", this, scheduler -> scheduler.tickLoadMax)
+                .description("Most polls fired in a single tick over the last wheel rotation")
+                .register(registry);
+        Gauge.builder("polling.wheel.scheduled", this, HashedWheelPollScheduler::getScheduledCount)
+                .description("Polls currently scheduled")
+                .register(registry);
+        driftTimer = Timer.builder("polling.schedule.drift")
+                .description("Actual fire time minus planned fire time of each poll")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    void onCancelled(PollHandle handle) {
+        scheduledCount.decrementAndGet();
+        pendingCancellations.add(handle);
+    }
+
+    void onIntervalShortened(PollHandle handle) {
+        pendingIntervalChanges.add(handle);
+    }
+
+    private void runWorker() {
+        long tick = 0;
+
+        while (running) {
+            if (!waitForTick(tick)) {
+                break;
+            }
+
+            processCancellations();
+            transferPendingSchedules(tick);
+            processIntervalChanges(tick);
+
+            if ((tick & mask) == 0) {
+                rebalance(tick);
+            }
+
+            List<PollHandle> due = wheel[(int) (tick & mask)].expire(tick);
+            if (!due.isEmpty()) {
+                recordDrift(tick, due.size());
+                fire(due);
+                reschedule(due, tick);
+            }
+
+            recordTickLoad(tick, due.size());
+            tick++;
+        }
+    }
+
+    private boolean waitForTick(long tick) {
+        long deadline = startTime + tick * tickNanos;
+
+        while (running) {
+            long sleepNanos = deadline - System.nanoTime();
+            if (sleepNanos <= 0) {
+                return true;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void processCancellations() {
+        PollHandle handle;
+        while ((handle = pendingCancellations.poll()) != null) {
+            if (handle.bucket != null) {
+                handle.bucket.remove(handle);
+                membershipChanged = true;
+            }
+        }
+    }
+
+    private void transferPendingSchedules(long tick) {
+        PollHandle handle;
+        while ((handle = pendingSchedules.poll()) != null) {
+            if (handle.isCancelled()) {
+                continue;
+            }
+            // A handle whose deadline already passed fires on the current tick
+            handle.deadlineTick = Math.max(handle.deadlineTick, tick);
+            if (handle.spreadTicks > 0) {
+                handle.deadlineTick = leastLoadedTick(handle.deadlineTick, handle.deadlineTick + handle.spreadTicks);
+            }
+            wheel[(int) (handle.deadlineTick & mask)].add(handle);
+            membershipChanged = true;
+        }
+    }
+
+    /**
+     * Moves polls out of crowded slots of the coming rotation into earlier, emptier slots
+     * A poll is only moved within its own interval, so it never fires later than planned
+     * and never twice within less than a tick
+     */
+    private void rebalance(long tick) {
+        if (phaseStrategy != PhaseStrategy.EVEN || !membershipChanged) {
+            return;
+        }
+        membershipChanged = false;
+
+        int moved = 0;
+        for (long slotTick = tick + 1; slotTick < tick + wheel.length; slotTick++) {
+            Bucket bucket = wheel[(int) (slotTick & mask)];
+            PollHandle handle = bucket.head;
+
+            while (handle != null) {
+                PollHandle next = handle.next;
+                // Handles of later rounds stay where they are
+                long earliest = Math.max(tick + 1,
+                        Math.max(handle.lastFiredTick + 1, slotTick - intervalTicks(handle) + 1));
+                if (handle.deadlineTick == slotTick && earliest < slotTick) {
+                    long target = leastLoadedTick(earliest, slotTick);
+                    if (wheel[(int) (target & mask)].size + 1 < bucket.size) {
+                        bucket.remove(handle);
+                        handle.deadlineTick = target;
+                        wheel[(int) (target & mask)].add(handle);
+                        moved++;
+                    }
+                }
+                handle = next;
+            }
+        }
+
+        if (moved > 0) {
+            log.debug("Rebalanced poll phases: moved={}", moved);
+        }
+    }
+
+    /**
+     * @return Tick in [from, to) whose slot holds the fewest handles, from if the range is empty
+     */
+    private long leastLoadedTick(long from, long to) {
+        long end = Math.min(to, from + wheel.length);
+        long best = from;
+        int bestSize = Integer.MAX_VALUE;
+
+        for (long candidate = from; candidate < end; candidate++) {
+            int size = wheel[(int) (candidate & mask)].size;
+            if (size < bestSize) {
+                best = candidate;
+                bestSize = size;
+                if (size == 0) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Records the polls fired in a tick and publishes the load statistics once per rotation
+     */
+    private void recordTickLoad(long tick, int fired) {
+        int slot = (int) (tick & mask);
+        tickLoads[slot] = fired;
+
+        if (slot != mask) {
+            return;
+        }
+
+        long sum = 0;
+        int max = 0;
+        for (int load : tickLoads) {
+            sum += load;
+            max = Math.max(max, load);
+        }
+        double mean = (double) sum / tickLoads.length;
+        double squares = 0;
+        for (int load : tickLoads) {
+            squares += (load - mean) * (load - mean);
+        }
+
+        tickLoadVariance = squares / tickLoads.length;
+        tickLoadMax = max;
+    }
+
+    /**
+     * Pulls forward handles whose interval was shortened after they were rescheduled
+     */
+    private void processIntervalChanges(long tick) {
+        PollHandle handle;
+        while ((handle = pendingIntervalChanges.poll()) != null) {
+            // Not linked yet (or any more): the new interval is picked up when it is linked
+            if (handle.isCancelled() || handle.bucket == null || handle.lastFiredTick < 0) {
+                continue;
+            }
+
+            long deadlineTick = Math.max(tick, handle.lastFiredTick + intervalTicks(handle));
+            if (deadlineTick < handle.deadlineTick) {
+                handle.bucket.remove(handle);
+                handle.deadlineTick = deadlineTick;
+                wheel[(int) (deadlineTick & mask)].add(handle);
+            }
+        }
+    }
+
+    /**
+     * Every due handle was planned for the start of this tick, the worker can only be late
+     */
+    private void recordDrift(long tick, int polls) {
+        Timer timer = driftTimer;
+        if (timer == null) {
+            return;
+        }
+
+        long driftNanos = Math.max(0, System.nanoTime() - (startTime + tick * tickNanos));
+        for (int i = 0; i < polls; i++) {
+            timer.record(driftNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void fire(List<PollHandle> due) {
+        try {
+            listener.accept(due);
+        } catch (Throwable t) {
+            log.error("Poll scheduler listener failed for {} due events", due.size(), t);
+        }
+    }
+
+    private void reschedule(List<PollHandle> due, long tick) {
+        for (PollHandle handle : due) {
+            if (handle.isCancelled()) {
+                continue;
+            }
+            handle.lastFiredTick = tick;
+            handle.deadlineTick = tick + intervalTicks(handle);
+            wheel[(int) (handle.deadlineTick & mask)].add(handle);
+        }
+    }
+
+    private long intervalTicks(PollHandle handle) {
+        return Math.max(1, Math.ceilDiv(handle.getIntervalMs(), tickDurationMs));
+    }
+
+    /**
+     * Doubly linked list of handles hashed into the same wheel slot
+     * Only accessed by the worker thread
+     */
+    static final class Bucket {
+
+        private PollHandle head;
+        private PollHandle tail;
+        private int size;
+
+        void add(PollHandle handle) {
+            handle.bucket = this;
+            size++;
+            if (head == null) {
+                head = tail = handle;
+            } else {
+                tail.next = handle;
+                handle.prev = tail;
+                tail = handle;
+            }
+        }
+
+        void remove(PollHandle handle) {
+            PollHandle next = handle.next;
+            if (handle.prev != null) {
+                handle.prev.next = next;
+            }
+            if (handle.next != null) {
+                handle.next.prev = handle.prev;
+            }
+
+            if (handle == head) {
+                if (handle == tail) {
+                    tail = null;
+                    head = null;
+                } else {
+                    head = next;
+                }
+            } else if (handle == tail) {
+                tail = handle.prev;
+            }
+
+            handle.prev = null;
+            handle.next = null;
+            handle.bucket = null;
+            size--;
+        }
+
+        /**
+         * Unlinks and returns all handles whose deadline is at or before the given tick
+         * Handles belonging to later rounds of the wheel stay linked
+         */
+        List<PollHandle> expire(long tick) {
+            List<PollHandle> due = null;
+            PollHandle handle = head;
+
+            while (handle != null) {
+                PollHandle next = handle.next;
+                if (handle.isCancelled()) {
+                    remove(handle);
+                } else if (handle.deadlineTick <= tick) {
+                    remove(handle);
+                    if (due == null) {
+                        due = new ArrayList<>();
+                    }
+                    due.add(handle);
+                }
+                handle = next;
+            }
+
+            return due == null ? List.of() : due;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.spgroup.scheduler;
+
+/**
+ * How {@link HashedWheelPollScheduler#scheduleSpread(String, long, long)} picks the first
+ * poll of an event within its interval
+ */
+public enum PhaseStrategy {
+
+    /**
+     * First poll right after the minimum delay, events registered together poll in lockstep
+     */
+    NONE,
+
+    /**
+     * Offset derived from the event ID hash, stable across restarts
+     */
+    HASH,
+
+    /**
+     * Least loaded wheel slot within the interval, phases are rebalanced as events join and leave
+     */
+    EVEN
+}
@@ -0,0 +1,117 @@
+package com.spgroup.scheduler;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Handle of a periodic poll registered in {@link HashedWheelPollScheduler}
+ * Replaces the per-event ScheduledFuture: a handle is a single small object that
+ * is linked directly into its wheel bucket, so both schedule and cancel are O(1)
+ */
+public final class PollHandle {
+
+    private static final int ST_INIT = 0;
+    private static final int ST_CANCELLED = 1;
+
+    private static final AtomicIntegerFieldUpdater<PollHandle> STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(PollHandle.class, "state");
+    private static final AtomicIntegerFieldUpdater<PollHandle> POLLING_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(PollHandle.class, "polling");
+
+    private final HashedWheelPollScheduler scheduler;
+    private final String eventId;
+    private volatile long intervalMs;
+    private volatile int state = ST_INIT;
+    // 1 while a poll of the event is queued or running
+    private volatile int polling;
+
+    // Wheel bookkeeping, only touched by the scheduler worker thread
+    long deadlineTick;
+    long lastFiredTick = -1;
+    long spreadTicks;
+    PollHandle next;
+    PollHandle prev;
+    HashedWheelPollScheduler.Bucket bucket;
+
+    PollHandle(HashedWheelPollScheduler scheduler, String eventId, long intervalMs) {
+        this.scheduler = scheduler;
+        this.eventId = eventId;
+        this.intervalMs = intervalMs;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    /**
+     * @return Interval used to schedule the next poll after this one fires
+     */
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+
+    /**
+     * Changes the interval between polls
+     * A longer interval applies from the next reschedule; a shorter one also pulls the
+     * already scheduled poll forward, so a speed-up is not delayed by a long backoff
+     *
+     * @param intervalMs New interval between polls
+     */
+    public void setIntervalMs(long intervalMs) {
+        if (intervalMs <= 0) {
+            throw new IllegalArgumentException("intervalMs must be positive: " + intervalMs);
+        }
+
+        long previous = this.intervalMs;
+        this.intervalMs = intervalMs;
+
+        if (intervalMs < previous && !isCancelled()) {
+            scheduler.onIntervalShortened(this);
+        }
+    }
+
+    /**
+     * Cancels the periodic poll
+     * The handle is unlinked from its bucket by the worker thread on the next tick
+     *
+     * @return true if this call cancelled the handle, false if it was already cancelled
+     */
+    public boolean cancel() {
+        if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+            return false;
+        }
+        scheduler.onCancelled(this);
+        return true;
+    }
+
+    /**
+     * Marks a poll of the event as started
+     * A poll that fires while the previous one is still queued or running is skipped,
+     * so polls of one event never overlap
+     *
+     * @return false if a poll of the event is already in flight
+     */
+    public boolean tryStartPoll() {
+        return POLLING_UPDATER.compareAndSet(this, 0, 1);
+    }
+
+    /**
+     * Marks the poll started by {@link #tryStartPoll()} as finished
+     */
+    public void pollFinished() {
+        polling = 0;
+    }
+
+    public boolean isPolling() {
+        return polling == 1;
+    }
+
+    public boolean isCancelled() {
+        return state == ST_CANCELLED;
+    }
+
+    @Override
+    public String toString() {
+        return "PollHandle[eventId=" + eventId + ", intervalMs=" + intervalMs
+                + (isCancelled() ? ", cancelled" : "") + "]";
+    }
+}
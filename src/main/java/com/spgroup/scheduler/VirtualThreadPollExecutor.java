@@ -0,0 +1,161 @@
+package com.spgroup.scheduler;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordingStream;
+import jdk.management.VirtualThreadSchedulerMXBean;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs every poll on its own virtual thread
+ * <p>
+ * The poll scheduler only triggers polls; blocking calls inside a poll (upstream fetch,
+ * Kafka ack) park the virtual thread instead of holding a platform thread. The number of
+ * polls running at the same time is capped by a semaphore, taken without waiting by the
+ * scheduler when the poll is triggered: at the limit the trigger is rejected and counted, the
+ * event is polled again on its next interval. No backlog of parked threads builds up behind
+ * a slow upstream, so polls of one event can't pile up and run out of order.
+ * <p>
+ * Pinning is tracked through the JFR {@code jdk.VirtualThreadPinned} event and carrier
+ * usage through {@link VirtualThreadSchedulerMXBean}.
+ */
+@Slf4j
+public class VirtualThreadPollExecutor implements Executor, MeterBinder, AutoCloseable {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder pinnedCount = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private final VirtualThreadSchedulerMXBean schedulerBean;
+    private final RecordingStream pinnedEventStream;
+
+    public VirtualThreadPollExecutor(int maxConcurrency, Duration pinnedThreshold) {
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("poll-vt-", 0).factory());
+        this.schedulerBean = ManagementFactory.getPlatformMXBean(VirtualThreadSchedulerMXBean.class);
+        this.pinnedEventStream = startPinnedEventStream(pinnedThreshold);
+
+        log.info("Virtual thread poll executor started: maxConcurrency={}", maxConcurrency);
+    }
+
+    /**
+     * Starts the poll on a new virtual thread
+     *
+     * @throws RejectedExecutionException if the concurrency limit is reached, the poll is skipped
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (!permits.tryAcquire()) {
+            skipped.increment();
+            throw new RejectedExecutionException("Virtual poll limit of " + maxConcurrency + " reached");
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    long getSkippedCount() {
+        return skipped.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("polling.virtual.active", this, VirtualThreadPollExecutor::getActiveCount)
+                .description("Polls currently running on virtual threads")
+                .register(registry);
+        FunctionCounter.builder("polling.virtual.skipped", skipped, LongAdder::sum)
+                .description("Polls skipped because the concurrency limit was reached")
+                .register(registry);
+        Gauge.builder("polling.virtual.max-concurrency", this, pool -> pool.maxConcurrency)
+                .register(registry);
+
+        FunctionCounter.builder("polling.virtual.pinned", pinnedCount, LongAdder::sum)
+                .description("Virtual threads pinned to their carrier longer than the threshold")
+                .register(registry);
+        FunctionCounter.builder("polling.virtual.pinned.duration", pinnedNanos, adder -> adder.sum() / 1e9)
+                .baseUnit("seconds")
+                .register(registry);
+
+        if (schedulerBean != null) {
+            Gauge.builder("polling.virtual.carrier.parallelism", schedulerBean, VirtualThreadSchedulerMXBean::getParallelism)
+                    .description("Target number of carrier threads")
+                    .register(registry);
+            Gauge.builder("polling.virtual.carrier.pool-size", schedulerBean, VirtualThreadSchedulerMXBean::getPoolSize)
+                    .description("Carrier threads started")
+                    .register(registry);
+            Gauge.builder("polling.virtual.carrier.mounted", schedulerBean, VirtualThreadSchedulerMXBean::getMountedVirtualThreadCount)
+                    .description("Virtual threads currently mounted on a carrier")
+                    .register(registry);
+            Gauge.builder("polling.virtual.carrier.queued", schedulerBean, VirtualThreadSchedulerMXBean::getQueuedVirtualThreadCount)
+                    .description("Virtual threads queued waiting for a carrier")
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (pinnedEventStream != null) {
+            pinnedEventStream.close();
+        }
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        log.info("Virtual thread poll executor stopped");
+    }
+
+    private RecordingStream startPinnedEventStream(Duration threshold) {
+        try {
+            RecordingStream stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(threshold);
+            stream.onEvent(PINNED_EVENT, event -> {
+                pinnedCount.increment();
+                pinnedNanos.add(event.getDuration().toNanos());
+                log.debug("Virtual thread pinned for {}ms", event.getDuration().toMillis());
+            });
+            stream.startAsync();
+            return stream;
+        } catch (Exception e) {
+            log.warn("JFR not available, virtual thread pinning will not be tracked: {}", e.getMessage());
+            return null;
+        }
+    }
+}
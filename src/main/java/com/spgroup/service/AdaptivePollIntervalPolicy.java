@@ -0,0 +1,62 @@
+package com.spgroup.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes the poll interval of an event from its score activity
+ * While the score stays the same the interval backs off exponentially up to the maximum,
+ * as soon as the score changes it snaps back to the minimum
+ */
+@Component
+public class AdaptivePollIntervalPolicy {
+
+    private final boolean enabled;
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final double backoffMultiplier;
+
+    public AdaptivePollIntervalPolicy(@Value("${app.polling.adaptive.enabled:false}") boolean enabled,
+                                      @Value("${app.polling.adaptive.min-interval:${app.polling.interval:10000}}") long minIntervalMs,
+                                      @Value("${app.polling.adaptive.max-interval:60000}") long maxIntervalMs,
+                                      @Value("${app.polling.adaptive.backoff-multiplier:2.0}") double backoffMultiplier) {
+        if (minIntervalMs <= 0 || maxIntervalMs < minIntervalMs) {
+            throw new IllegalArgumentException("Invalid adaptive poll interval range: "
+                    + minIntervalMs + ".." + maxIntervalMs);
+        }
+        if (backoffMultiplier < 1.0) {
+            throw new IllegalArgumentException("backoffMultiplier must be at least 1: " + backoffMultiplier);
+        }
+
+        this.enabled = enabled;
+        this.minIntervalMs = minIntervalMs;
+        this.maxIntervalMs = maxIntervalMs;
+        this.backoffMultiplier = backoffMultiplier;
+    }
+
+    /**
+     * @param currentIntervalMs Interval the event is polled with now
+     * @param scoreChanged      Whether the last poll returned a new score
+     * @return Interval for the next polls
+     */
+    public long nextInterval(long currentIntervalMs, boolean scoreChanged) {
+        if (scoreChanged) {
+            return minIntervalMs;
+        }
+
+        long backedOff = (long) Math.ceil(currentIntervalMs * backoffMultiplier);
+        return Math.clamp(backedOff, minIntervalMs, maxIntervalMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getMinIntervalMs() {
+        return minIntervalMs;
+    }
+
+    public long getMaxIntervalMs() {
+        return maxIntervalMs;
+    }
+}
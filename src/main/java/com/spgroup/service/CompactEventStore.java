@@ -0,0 +1,261 @@
+package com.spgroup.service;
+
+import com.spgroup.model.LiveEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays store of the events that are not live, without an object per event
+ * <p>
+ * Row i of the arrays is one event: its UTF-8 ID in a shared byte arena, the last update and
+ * last poll as epoch millis and a state bitfield. IDs are found through an open-addressing
+ * table of row numbers with linear probing. Primitive arrays hold no references, so the
+ * garbage collector never walks them, and an event takes about 40 bytes plus its ID where a
+ * {@link LiveEvent} in a ConcurrentHashMap takes several hundred.
+ * <p>
+ * Lookups rebuild a detached, not live LiveEvent; times are kept to the millisecond. All
+ * methods are synchronized, the store is only used on transitions and on lookups of ended
+ * events, never on the poll path.
+ */
+final class CompactEventStore {
+
+    // State bitfield
+    private static final byte USED = 1;
+    private static final byte POLLED = 1 << 1;
+
+    private static final int INITIAL_ROWS = 1024;
+    private static final int INITIAL_ARENA = 16 * 1024;
+
+    private long[] lastUpdated;
+    private long[] lastPolled;
+    private byte[] flags;
+    private int[] hashes;
+    // Arena offset << 32 | ID length
+    private long[] idRefs;
+    private int[] freeRows;
+    private int freeCount;
+    private int rowCount;
+    private int size;
+
+    private byte[] arena;
+    private int arenaUsed;
+    private int arenaGarbage;
+
+    // Row + 1 of each slot, 0 for an empty slot
+    private int[] table;
+    private int mask;
+
+    CompactEventStore() {
+        clear();
+    }
+
+    /**
+     * Stores the event, replacing a previous row with the same ID
+     */
+    synchronized void put(LiveEvent event) {
+        String eventId = event.getEventId();
+        byte[] id = eventId.getBytes(StandardCharsets.UTF_8);
+        int hash = eventId.hashCode();
+
+        int slot = find(id, hash);
+        boolean added = slot < 0;
+        int row;
+        if (added) {
+            row = allocateRow();
+            hashes[row] = hash;
+            idRefs[row] = appendId(id);
+            table[~slot] = row + 1;
+        } else {
+            row = table[slot] - 1;
+        }
+
+        Instant updated = event.getLastUpdated();
+        Instant polled = event.getLastPolled();
+        lastUpdated[row] = updated != null ? updated.toEpochMilli() : 0L;
+        lastPolled[row] = polled != null ? polled.toEpochMilli() : 0L;
+        flags[row] = (byte) (USED | (polled != null ? POLLED : 0));
+
+        if (added && ++size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+    }
+
+    /**
+     * @return Detached copy of the stored event, null if not stored
+     */
+    synchronized LiveEvent get(String eventId) {
+        int slot = find(eventId.getBytes(StandardCharsets.UTF_8), eventId.hashCode());
+        if (slot < 0) {
+            return null;
+        }
+
+        int row = table[slot] - 1;
+        return LiveEvent.builder()
+                .eventId(eventId)
+                .isLive(false)
+                .lastUpdated(Instant.ofEpochMilli(lastUpdated[row]))
+                .lastPolled((flags[row] & POLLED) != 0 ? Instant.ofEpochMilli(lastPolled[row]) : null)
+                .build();
+    }
+
+    /**
+     * @return true if the event was stored
+     */
+    synchronized boolean remove(String eventId) {
+        int slot = find(eventId.getBytes(StandardCharsets.UTF_8), eventId.hashCode());
+        if (slot < 0) {
+            return false;
+        }
+
+        int row = table[slot] - 1;
+        deleteSlot(slot);
+        flags[row] = 0;
+        arenaGarbage += (int) idRefs[row];
+        freeRows[freeCount++] = row;
+        size--;
+        return true;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return Bytes held by the arrays of the store
+     */
+    synchronized long getFootprintBytes() {
+        long perRow = Long.BYTES * 3 + Integer.BYTES * 2 + 1;
+        return perRow * flags.length + arena.length + (long) Integer.BYTES * table.length;
+    }
+
+    synchronized void clear() {
+        lastUpdated = new long[INITIAL_ROWS];
+        lastPolled = new long[INITIAL_ROWS];
+        flags = new byte[INITIAL_ROWS];
+        hashes = new int[INITIAL_ROWS];
+        idRefs = new long[INITIAL_ROWS];
+        freeRows = new int[INITIAL_ROWS];
+        freeCount = 0;
+        rowCount = 0;
+        size = 0;
+        arena = new byte[INITIAL_ARENA];
+        arenaUsed = 0;
+        arenaGarbage = 0;
+        table = new int[INITIAL_ROWS * 2];
+        mask = table.length - 1;
+    }
+
+    /**
+     * @return Slot of the ID, or the complement of the empty slot where it would go
+     */
+    private int find(byte[] id, int hash) {
+        int slot = home(hash);
+        while (true) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return ~slot;
+            }
+            int row = entry - 1;
+            if (hashes[row] == hash && idEquals(row, id)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int home(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return (mixed ^ mixed >>> 16) & mask;
+    }
+
+    private boolean idEquals(int row, byte[] id) {
+        int offset = (int) (idRefs[row] >>> 32);
+        int length = (int) idRefs[row];
+        return Arrays.equals(arena, offset, offset + length, id, 0, id.length);
+    }
+
+    /**
+     * Linear probing deletion: moves back the entries of the probe run so no lookup
+     * stops early at the freed slot
+     */
+    private void deleteSlot(int slot) {
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (table[next] != 0) {
+            int home = home(hashes[table[next] - 1]);
+            // The entry may fill the hole if the hole lies between its home slot and where it sits
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[hole] = 0;
+    }
+
+    private void rehash(int length) {
+        table = new int[length];
+        mask = length - 1;
+        for (int row = 0; row < rowCount; row++) {
+            if ((flags[row] & USED) != 0) {
+                int slot = home(hashes[row]);
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = row + 1;
+            }
+        }
+    }
+
+    private int allocateRow() {
+        if (freeCount > 0) {
+            return freeRows[--freeCount];
+        }
+        if (rowCount == flags.length) {
+            int rows = flags.length * 2;
+            lastUpdated = Arrays.copyOf(lastUpdated, rows);
+            lastPolled = Arrays.copyOf(lastPolled, rows);
+            flags = Arrays.copyOf(flags, rows);
+            hashes = Arrays.copyOf(hashes, rows);
+            idRefs = Arrays.copyOf(idRefs, rows);
+            freeRows = Arrays.copyOf(freeRows, rows);
+        }
+        return rowCount++;
+    }
+
+    private long appendId(byte[] id) {
+        if (arenaUsed + id.length > arena.length) {
+            compactArena(id.length);
+        }
+        long ref = (long) arenaUsed << 32 | id.length;
+        System.arraycopy(id, 0, arena, arenaUsed, id.length);
+        arenaUsed += id.length;
+        return ref;
+    }
+
+    /**
+     * Copies the IDs of the stored events into a new arena, dropping the removed ones,
+     * doubled when it would be more than half full
+     */
+    private void compactArena(int needed) {
+        int live = arenaUsed - arenaGarbage;
+        int length = live + needed > arena.length / 2 ? Math.max(arena.length * 2, live + needed) : arena.length;
+
+        byte[] compacted = new byte[length];
+        int used = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if ((flags[row] & USED) != 0) {
+                int offset = (int) (idRefs[row] >>> 32);
+                int idLength = (int) idRefs[row];
+                System.arraycopy(arena, offset, compacted, used, idLength);
+                idRefs[row] = (long) used << 32 | idLength;
+                used += idLength;
+            }
+        }
+        arena = compacted;
+        arenaUsed = used;
+        arenaGarbage = 0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.spgroup.service;
+
+/**
+ * Receives the live / not live transitions of {@link EventStateManager}
+ * Called inside the per-event update, so the transitions of one event arrive in order;
+ * implementations must be fast and must not update the EventStateManager
+ */
+@FunctionalInterface
+public interface EventStateListener {
+
+    /**
+     * @param eventId Event ID
+     * @param live    true if the event became live, false if it stopped being live or was removed
+     */
+    void onTransition(String eventId, boolean live);
+}
@@ -3,17 +3,32 @@ package com.spgroup.service;
 
 import com.spgroup.model.LiveEvent;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Manages in-memory state of live events
  * Thread-safe implementation using ConcurrentHashMap
+ * <p>
+ * Events marked as not live are kept, so next to the map of all events a live-set index
+ * and a live counter are maintained. Both are updated inside the map's per-key compute,
+ * which serializes the transitions of one event, so counting live events is O(1) and
+ * listing them is O(live events) however much history builds up.
+ * <p>
+ * With {@code app.events.compact-history.enabled} an event that stops being live leaves the map
+ * for a {@link CompactEventStore}, a few primitive arrays instead of a LiveEvent per event,
+ * and comes back as a LiveEvent when it goes live again. Lookups of ended events then return
+ * a detached copy, without the last published score (the first score after going live again
+ * is always published). Moves keep the event in both places for a moment, never in neither.
  */
 @Slf4j
 @Service
@@ -21,6 +36,33 @@ public class EventStateManager {
 
     private final Map<String, LiveEvent> liveEvents = new ConcurrentHashMap<>();
 
+    // Index of the events currently live, kept in step with LiveEvent.isLive
+    private final Map<String, LiveEvent> liveIndex = new ConcurrentHashMap<>();
+    private final LongAdder liveCount = new LongAdder();
+
+    private final List<EventStateListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Events that are not live, null when they stay in the map
+    private final CompactEventStore history;
+
+    public EventStateManager() {
+        this(false);
+    }
+
+    @Autowired
+    public EventStateManager(@Value("${app.events.compact-history.enabled:false}") boolean compactHistory) {
+        this.history = compactHistory ? new CompactEventStore() : null;
+    }
+
+    /**
+     * Registers a listener notified of every live / not live transition
+     *
+     * @param listener Listener to add
+     */
+    public void addListener(EventStateListener listener) {
+        listeners.add(listener);
+    }
+
     /**
      * Marks event as live
      *
@@ -28,18 +70,102 @@ public class EventStateManager {
      * @return Updated LiveEvent
      */
     public LiveEvent markEventAsLive(String eventId) {
-        LiveEvent event = liveEvents.computeIfAbsent(eventId, id ->
-                LiveEvent.builder()
+        LiveEvent event = transitionToLive(eventId);
+
+        log.info("Event [{}] marked as LIVE", eventId);
+        return event;
+    }
+
+    /**
+     * Marks several events as live with a single summary log line
+     *
+     * @param eventIds Event IDs
+     * @return Updated LiveEvents, in the order of the IDs
+     */
+    public List<LiveEvent> markEventsAsLive(List<String> eventIds) {
+        List<LiveEvent> events = new ArrayList<>(eventIds.size());
+        for (String eventId : eventIds) {
+            events.add(transitionToLive(eventId));
+        }
+
+        log.info("{} events marked as LIVE", eventIds.size());
+        return events;
+    }
+
+    /**
+     * Marks several events as not live with a single summary log line
+     * Unknown events are skipped
+     *
+     * @param eventIds Event IDs
+     * @return Number of events found and marked as not live
+     */
+    public int markEventsAsNotLive(List<String> eventIds) {
+        int updated = 0;
+        for (String eventId : eventIds) {
+            if (transitionToNotLive(eventId) != null) {
+                updated++;
+            }
+        }
+
+        log.info("{} events marked as NOT LIVE ({} unknown)", updated, eventIds.size() - updated);
+        return updated;
+    }
+
+    private LiveEvent transitionToLive(String eventId) {
+        boolean[] restored = new boolean[1];
+        LiveEvent event = liveEvents.compute(eventId, (id, current) -> {
+            LiveEvent target = current;
+            if (target == null && history != null) {
+                target = history.get(id);
+                restored[0] = target != null;
+            }
+            if (target == null) {
+                target = LiveEvent.builder()
                         .eventId(id)
                         .lastUpdated(Instant.now())
-                        .build()
-        );
+                        .build();
+            }
 
-        event.markAsLive();
-        log.info("Event [{}] marked as LIVE", eventId);
+            if (!target.isLive()) {
+                liveIndex.put(id, target);
+                liveCount.increment();
+                notifyListeners(id, true);
+            }
+            target.markAsLive();
+            return target;
+        });
+
+        if (restored[0]) {
+            // Once the event is back in the map, skipped if it stopped being live meanwhile
+            liveEvents.computeIfPresent(eventId, (id, current) -> {
+                history.remove(id);
+                return current;
+            });
+        }
         return event;
     }
 
+    private LiveEvent transitionToNotLive(String eventId) {
+        LiveEvent[] found = new LiveEvent[1];
+        liveEvents.computeIfPresent(eventId, (id, current) -> {
+            unindex(current);
+            current.markAsNotLive();
+            found[0] = current;
+
+            if (history != null) {
+                history.put(current);
+                return null;
+            }
+            return current;
+        });
+
+        if (found[0] == null && history != null) {
+            // Already ended, still a known event
+            return history.get(eventId);
+        }
+        return found[0];
+    }
+
     /**
      * Marks event as not live and cancels scheduled task
      *
@@ -47,10 +173,9 @@ public class EventStateManager {
      * @return Updated LiveEvent or null if not found
      */
     public LiveEvent markEventAsNotLive(String eventId) {
-        LiveEvent event = liveEvents.get(eventId);
+        LiveEvent event = transitionToNotLive(eventId);
 
         if (event != null) {
-            event.markAsNotLive();
             log.info("Event [{}] marked as NOT LIVE", eventId);
             return event;
         }
@@ -66,7 +191,14 @@ public class EventStateManager {
      * @return LiveEvent or null if not found
      */
     public LiveEvent getEvent(String eventId) {
-        return liveEvents.get(eventId);
+        LiveEvent event = liveEvents.get(eventId);
+        if (event != null || history == null) {
+            return event;
+        }
+
+        LiveEvent ended = history.get(eventId);
+        // Missed both while it was going live: it is in the map by now
+        return ended != null ? ended : liveEvents.get(eventId);
     }
 
     /**
@@ -75,9 +207,7 @@ public class EventStateManager {
      * @return List of live events
      */
     public List<LiveEvent> getAllLiveEvents() {
-        return liveEvents.values().stream()
-                .filter(LiveEvent::isLive)
-                .collect(Collectors.toList());
+        return new ArrayList<>(liveIndex.values());
     }
 
     /**
@@ -109,9 +239,20 @@ public class EventStateManager {
      * @param eventId Event ID
      */
     public void removeEvent(String eventId) {
-        LiveEvent removed = liveEvents.remove(eventId);
-        if (removed != null) {
-            removed.markAsNotLive(); // Cancel scheduled task
+        boolean[] removed = new boolean[1];
+        liveEvents.compute(eventId, (id, current) -> {
+            if (current != null) {
+                unindex(current);
+                current.markAsNotLive(); // Cancel scheduled task
+                removed[0] = true;
+            }
+            if (history != null && history.remove(id)) {
+                removed[0] = true;
+            }
+            return null;
+        });
+
+        if (removed[0]) {
             log.info("Event [{}] removed from state", eventId);
         }
     }
@@ -122,7 +263,14 @@ public class EventStateManager {
      * @return Total number of events
      */
     public int getTotalEventsCount() {
-        return liveEvents.size();
+        return liveEvents.size() + (history != null ? history.size() : 0);
+    }
+
+    /**
+     * @return Bytes held by the compact store of ended events, 0 without it
+     */
+    public long getHistoryFootprintBytes() {
+        return history != null ? history.getFootprintBytes() : 0;
     }
 
     /**
@@ -131,17 +279,43 @@ public class EventStateManager {
      * @return Number of live events
      */
     public int getLiveEventsCount() {
-        return (int) liveEvents.values().stream()
-                .filter(LiveEvent::isLive)
-                .count();
+        return (int) liveCount.sum();
     }
 
     /**
      * Clears all events (useful for testing)
      */
     public void clearAll() {
-        liveEvents.values().forEach(LiveEvent::markAsNotLive);
-        liveEvents.clear();
+        liveEvents.keySet().forEach(eventId ->
+                liveEvents.computeIfPresent(eventId, (id, current) -> {
+                    unindex(current);
+                    current.markAsNotLive();
+                    return null;
+                }));
+        if (history != null) {
+            history.clear();
+        }
         log.info("All events cleared from state");
     }
+
+    /**
+     * Drops a live event from the live index, must be called inside the compute of the event
+     */
+    private void unindex(LiveEvent event) {
+        if (event.isLive()) {
+            liveIndex.remove(event.getEventId());
+            liveCount.decrement();
+            notifyListeners(event.getEventId(), false);
+        }
+    }
+
+    private void notifyListeners(String eventId, boolean live) {
+        for (EventStateListener listener : listeners) {
+            try {
+                listener.onTransition(eventId, live);
+            } catch (Exception e) {
+                log.error("Event state listener failed for event [{}]", eventId, e);
+            }
+        }
+    }
 }
@@ -0,0 +1,193 @@
+package com.spgroup.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.spgroup.cluster.ClusterCoordinator;
+import com.spgroup.dto.EventStatusBatchResponse;
+import com.spgroup.dto.EventStatusBatchResponse.ItemResult;
+import com.spgroup.dto.EventStatusRequest;
+import com.spgroup.model.LiveEvent;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies event status changes received in bulk
+ * <p>
+ * The body is either a JSON array of status requests or an NDJSON stream (one request per
+ * line). It is parsed incrementally, so only one chunk of {@code app.events.batch.chunk-size}
+ * requests is held at a time. Each chunk is validated and applied against
+ * {@link EventStateManager} and the poll scheduler in one go, and every item gets its own result.
+ * In cluster mode events owned by other nodes are sent to their owner.
+ */
+@Slf4j
+@Service
+public class EventStatusBatchService {
+
+    private final EventStateManager eventStateManager;
+    private final SportsTrackerService sportsTrackerService;
+    private final ObjectProvider<ClusterCoordinator> clusterCoordinator;
+    private final Validator validator;
+    private final ObjectReader requestReader;
+    private final int chunkSize;
+
+    public EventStatusBatchService(EventStateManager eventStateManager,
+                                   SportsTrackerService sportsTrackerService,
+                                   ObjectProvider<ClusterCoordinator> clusterCoordinator,
+                                   Validator validator,
+                                   ObjectMapper objectMapper,
+                                   @Value("${app.events.batch.chunk-size:500}") int chunkSize) {
+        this.eventStateManager = eventStateManager;
+        this.sportsTrackerService = sportsTrackerService;
+        this.clusterCoordinator = clusterCoordinator;
+        this.validator = validator;
+        this.requestReader = objectMapper.readerFor(EventStatusRequest.class);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Parses and applies the status changes of a bulk request
+     * Invalid items are reported and skipped; malformed JSON stops processing, items read
+     * before it are still applied. Items are applied in request order
+     *
+     * @param body      JSON array or NDJSON stream of status requests
+     * @param forwarded true if another cluster node sent the request, it is then applied locally
+     * @return Result for each item
+     */
+    public EventStatusBatchResponse applyAll(InputStream body, boolean forwarded) throws IOException {
+        ClusterCoordinator cluster = forwarded ? null : clusterCoordinator.getIfAvailable();
+        List<ItemResult> results = new ArrayList<>();
+        List<Indexed> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+
+        // readValues iterates the elements of a top-level array as well as root-level values
+        try (MappingIterator<EventStatusRequest> requests = requestReader.readValues(body)) {
+            while (requests.hasNextValue()) {
+                int itemIndex = index++;
+                try {
+                    chunk.add(new Indexed(itemIndex, requests.nextValue(), null));
+                } catch (JsonMappingException e) {
+                    // Well-formed item that doesn't map to a request, the iterator skips it
+                    chunk.add(new Indexed(itemIndex, null, "Invalid item: " + e.getOriginalMessage()));
+                }
+                if (chunk.size() == chunkSize) {
+                    applyChunk(chunk, cluster, results);
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Malformed bulk status input after {} items: {}", index, e.getOriginalMessage());
+            results.add(ItemResult.error(index, null, "Malformed input: " + e.getOriginalMessage()));
+        }
+
+        applyChunk(chunk, cluster, results);
+        // Invalid items are reported as soon as they are seen, runs of valid ones once applied
+        results.sort(Comparator.comparingInt(ItemResult::getIndex));
+
+        int failed = (int) results.stream().filter(ItemResult::isError).count();
+        log.info("Applied bulk status update: total={}, failed={}", results.size(), failed);
+
+        return EventStatusBatchResponse.builder()
+                .total(results.size())
+                .succeeded(results.size() - failed)
+                .failed(failed)
+                .results(results)
+                .timestamp(Instant.now().toString())
+                .build();
+    }
+
+    private void applyChunk(List<Indexed> chunk, ClusterCoordinator cluster, List<ItemResult> results) {
+        // Consecutive items with the same status are applied together, order between runs is kept
+        List<Indexed> run = new ArrayList<>();
+        boolean runLive = false;
+
+        for (Indexed item : chunk) {
+            String error = item.error() != null ? item.error() : validate(item.request());
+
+            if (error != null) {
+                results.add(ItemResult.error(item.index(),
+                        item.request() != null ? item.request().getEventId() : null, error));
+                continue;
+            }
+
+            boolean live = item.request().getStatus().isLive();
+            if (!run.isEmpty() && live != runLive) {
+                applyRun(run, runLive, cluster, results);
+                run.clear();
+            }
+            run.add(item);
+            runLive = live;
+        }
+
+        applyRun(run, runLive, cluster, results);
+    }
+
+    private void applyRun(List<Indexed> run, boolean live, ClusterCoordinator cluster, List<ItemResult> results) {
+        if (run.isEmpty()) {
+            return;
+        }
+
+        List<String> eventIds = new ArrayList<>(run.size());
+        for (Indexed item : run) {
+            eventIds.add(item.request().getEventId());
+        }
+
+        String status = live ? "LIVE" : "NOT_LIVE";
+        String error = null;
+
+        try {
+            if (cluster != null) {
+                cluster.route(eventIds, live);
+            } else if (live) {
+                List<LiveEvent> events = eventStateManager.markEventsAsLive(eventIds);
+                sportsTrackerService.startPollingForEvents(events);
+            } else {
+                sportsTrackerService.stopPollingForEvents(eventIds);
+                eventStateManager.markEventsAsNotLive(eventIds);
+            }
+        } catch (Exception e) {
+            log.error("Error applying bulk status {} to {} events", status, eventIds.size(), e);
+            error = "Internal server error: " + e.getMessage();
+        }
+
+        for (Indexed item : run) {
+            String eventId = item.request().getEventId();
+            results.add(error == null
+                    ? ItemResult.success(item.index(), eventId, status)
+                    : ItemResult.error(item.index(), eventId, error));
+        }
+    }
+
+    private String validate(EventStatusRequest request) {
+        Set<ConstraintViolation<EventStatusRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .reduce((first, second) -> first + ", " + second)
+                .orElse(null);
+    }
+
+    /**
+     * Request with its position in the bulk body, or the error that prevented reading it
+     */
+    private record Indexed(int index, EventStatusRequest request, String error) {
+    }
+}
@@ -2,30 +2,60 @@ package com.spgroup.service;
 
 
 import com.spgroup.externalapi.ExternalApiClientConfiguration;
+import com.spgroup.externalapi.UpstreamClientRegistry;
+import com.spgroup.externalapi.UpstreamRejectedException;
+import com.spgroup.externalapi.UpstreamResilience;
 import com.spgroup.model.ExternalApiResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import reactor.core.publisher.Mono;
-import reactor.util.retry.Retry;
 
-import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service for calling external REST API
- * Implements retry logic for transient failures
+ * Retries, circuit breaking and bulkheading of every call are done by {@link UpstreamResilience}
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ExternalApiService {
 
-    private final WebClient.Builder webClientBuilder;
+    private final UpstreamClientRegistry upstreamClients;
+    private final UpstreamResilience resilience;
     private final ExternalApiClientConfiguration config;
+    private final MeterRegistry meterRegistry;
+
+    // ETag / Last-Modified of the last response whose score reached Kafka, per event
+    private final Map<String, Validators> validators = new ConcurrentHashMap<>();
+
+    // Upstream calls subscribed and not yet completed
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private Counter notModifiedCounter;
+    private Timer fetchTimer;
+
+    @PostConstruct
+    public void initMetrics() {
+        notModifiedCounter = meterRegistry.counter("external-api.not-modified");
+        fetchTimer = PollStage.FETCH.timer(meterRegistry);
+        Gauge.builder("external-api.in-flight", inFlight, AtomicInteger::get)
+                .description("Upstream calls in flight")
+                .register(meterRegistry);
+    }
 
     /**
      * Fetches event data from external API with retry logic
@@ -34,39 +64,11 @@ public class ExternalApiService {
      * @param eventId Event ID to fetch
      * @return ExternalApiResponse or null if failed
      */
-    @Retryable(
-            retryFor = {WebClientResponseException.class, Exception.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 1000, multiplier = 2)
-    )
     public ExternalApiResponse fetchEventData(String eventId) {
         try {
-            log.debug("Fetching data for event [{}] from: {}", eventId, config.getUrl());
-
-            ExternalApiResponse response = webClientBuilder.build()
-                    .get()
-                    .uri(config.getUrl(), uriBuilder -> uriBuilder
-                            .queryParam("eventId", eventId)
-                            .build())
-                    .retrieve()
-                    .bodyToMono(ExternalApiResponse.class)
-                    .timeout(config.getTimeout())
-                    .retryWhen(Retry.backoff(config.getRetryAttempts(), Duration.ofSeconds(1))
-                            .maxBackoff(Duration.ofSeconds(5))
-                            .doBeforeRetry(retrySignal ->
-                                    log.warn("Retrying API call for event [{}], attempt: {}",
-                                            eventId, retrySignal.totalRetries() + 1)))
-                    .onErrorResume(error -> {
-                        log.error("Failed to fetch data for event [{}]: {}",
-                                eventId, error.getMessage());
-                        return Mono.empty();
-                    })
-                    .block();
-
-            if (response != null) {
-                log.info("Successfully fetched data for event [{}]: score={}",
-                        eventId, response.getCurrentScore());
-            } else {
+            ExternalApiResponse response = fetchEventDataAsync(eventId).block();
+
+            if (response == null) {
                 log.warn("Received null response for event [{}]", eventId);
             }
 
@@ -77,4 +79,190 @@ public class ExternalApiService {
             return null;
         }
     }
+
+    /**
+     * Non-blocking variant of {@link #fetchEventData(String)}
+     * Failures are logged and completed as an empty Mono
+     * <p>
+     * With conditional requests enabled, the ETag / Last-Modified validators of the previous
+     * response are sent back as If-None-Match / If-Modified-Since. A 304 answer is not parsed
+     * and completes with {@link ExternalApiResponse#notModified(String)}.
+     *
+     * @param eventId Event ID to fetch
+     * @return Mono with the response, empty if failed
+     */
+    public Mono<ExternalApiResponse> fetchEventDataAsync(String eventId) {
+        log.debug("Fetching data for event [{}] from: {}", eventId, config.getUrl());
+
+        Mono<ExternalApiResponse> call = upstreamClients.forUrl(config.getUrl())
+                .get()
+                .uri(config.getUrl(), uriBuilder -> uriBuilder
+                        .queryParam("eventId", eventId)
+                        .build())
+                .headers(headers -> addValidators(eventId, headers))
+                .exchangeToMono(clientResponse -> handleResponse(eventId, clientResponse));
+
+        return instrument(resilience.protect(config.getUrl(), call)
+                .doOnNext(response -> {
+                    if (response.isNotModified()) {
+                        log.debug("Data for event [{}] not modified", eventId);
+                    } else {
+                        log.info("Successfully fetched data for event [{}]: score={}",
+                                eventId, response.getCurrentScore());
+                    }
+                })
+                .onErrorResume(error -> {
+                    if (error instanceof UpstreamRejectedException) {
+                        log.debug("Skipped fetch for event [{}]: {}", eventId, error.getMessage());
+                    } else {
+                        log.error("Failed to fetch data for event [{}]: {}",
+                                eventId, error.getMessage());
+                    }
+                    return Mono.empty();
+                }));
+    }
+
+    /**
+     * Keeps the validators of a response once its score is known to be in Kafka, otherwise drops them
+     * Validators saved before the publish would get a 304 on the next poll and the score that
+     * failed to publish would be lost until the upstream changes again; without validators the
+     * next poll fetches the full response
+     *
+     * @param eventId     Event ID
+     * @param apiResponse Fetched response, a 304 answer changes nothing
+     * @param published   true if the score was published or is the last published one
+     */
+    public void onScoreHandled(String eventId, ExternalApiResponse apiResponse, boolean published) {
+        if (!config.getConditionalRequests() || apiResponse.isNotModified()) {
+            return;
+        }
+
+        if (published && (apiResponse.getEtag() != null || apiResponse.getLastModified() != null)) {
+            validators.put(eventId, new Validators(apiResponse.getEtag(), apiResponse.getLastModified()));
+        } else {
+            validators.remove(eventId);
+        }
+    }
+
+    /**
+     * Drops the cached validators of an event that is no longer polled
+     *
+     * @param eventId Event ID
+     */
+    public void forgetEvent(String eventId) {
+        validators.remove(eventId);
+    }
+
+    private void addValidators(String eventId, HttpHeaders headers) {
+        if (!config.getConditionalRequests()) {
+            return;
+        }
+
+        Validators cached = validators.get(eventId);
+        if (cached == null) {
+            return;
+        }
+
+        if (cached.etag() != null) {
+            headers.setIfNoneMatch(cached.etag());
+        }
+        if (cached.lastModified() != null) {
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+        }
+    }
+
+    private Mono<ExternalApiResponse> handleResponse(String eventId, ClientResponse clientResponse) {
+        if (clientResponse.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            notModifiedCounter.increment();
+            return clientResponse.releaseBody()
+                    .thenReturn(ExternalApiResponse.notModified(eventId));
+        }
+
+        if (!clientResponse.statusCode().is2xxSuccessful()) {
+            return clientResponse.createError();
+        }
+
+        // Only handed over with the response, saved by onScoreHandled once the score is published
+        HttpHeaders headers = clientResponse.headers().asHttpHeaders();
+        String etag = headers.getETag();
+        String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+
+        return clientResponse.bodyToMono(ExternalApiResponse.class)
+                .doOnNext(response -> {
+                    response.setEtag(etag);
+                    response.setLastModified(lastModified);
+                });
+    }
+
+    /**
+     * Fetches data for several events with a single call to the batch endpoint
+     * Expected response format: [{ "eventId": "1234", "currentScore": "0:0" }, ...]
+     *
+     * @param eventIds Event IDs to fetch
+     * @return Responses returned by the API (events missing upstream are omitted), empty list if failed
+     */
+    public List<ExternalApiResponse> fetchEventDataBatch(List<String> eventIds) {
+        try {
+            List<ExternalApiResponse> responses = fetchEventDataBatchAsync(eventIds).block();
+            return responses != null ? responses : List.of();
+
+        } catch (Exception e) {
+            log.error("Error fetching batch event data for {} events", eventIds.size(), e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #fetchEventDataBatch(List)}
+     * Failures are logged and completed with an empty list
+     *
+     * @param eventIds Event IDs to fetch
+     * @return Mono with the responses returned by the API
+     */
+    public Mono<List<ExternalApiResponse>> fetchEventDataBatchAsync(List<String> eventIds) {
+        log.debug("Fetching batch data for {} events from: {}", eventIds.size(), config.getBatchUrl());
+
+        Mono<List<ExternalApiResponse>> call = upstreamClients.forUrl(config.getBatchUrl())
+                .get()
+                .uri(config.getBatchUrl(), uriBuilder -> uriBuilder
+                        .queryParam("eventId", eventIds)
+                        .build())
+                .retrieve()
+                .bodyToFlux(ExternalApiResponse.class)
+                .collectList();
+
+        return instrument(resilience.protect(config.getBatchUrl(), call)
+                .doOnNext(responses ->
+                        log.info("Successfully fetched batch data: requested={}, received={}",
+                                eventIds.size(), responses.size()))
+                .onErrorResume(error -> {
+                    if (error instanceof UpstreamRejectedException) {
+                        log.debug("Skipped batch fetch for {} events: {}", eventIds.size(), error.getMessage());
+                    } else {
+                        log.error("Failed to fetch batch data for {} events: {}",
+                                eventIds.size(), error.getMessage());
+                    }
+                    return Mono.just(List.of());
+                }));
+    }
+
+    /**
+     * Counts the call as in flight and times it as the fetch stage, from subscription to completion
+     */
+    private <T> Mono<T> instrument(Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            inFlight.incrementAndGet();
+            return call.doFinally(signal -> {
+                inFlight.decrementAndGet();
+                fetchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            });
+        });
+    }
+
+    /**
+     * Cache validators returned by the API for one event
+     */
+    private record Validators(String etag, String lastModified) {
+    }
 }
@@ -4,32 +4,166 @@ package com.spgroup.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.spgroup.config.KafkaClientConfiguration;
+import com.spgroup.message.MessageFormat;
+import com.spgroup.message.ScoreUpdateCodec;
+import com.spgroup.message.ScoreUpdateJsonWriter;
+import com.spgroup.message.ScoreUpdateMessage;
+import com.spgroup.spill.SpillQueue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 /**
  * Service for publishing messages to Kafka
  * Implements retry logic for transient failures
+ * <p>
+ * In async mode ({@code kafka.producer.async.enabled}) publishing never waits for the broker:
+ * records are handed to the producer, which batches them per partition, and results are
+ * handled in the send callback. The number of records awaiting an acknowledgement is capped
+ * by {@code kafka.producer.async.max-in-flight}, records over the cap are dropped and counted.
+ * <p>
+ * Records are JSON text by default; topics configured with the binary {@link MessageFormat}
+ * receive {@link ScoreUpdateMessage}s encoded by {@link ScoreUpdateCodec} through a byte[] template.
+ * Score updates for JSON topics are also sent as bytes, streamed by {@link ScoreUpdateJsonWriter}
+ * without going through Jackson or a String.
+ * <p>
+ * Every send attempt is timed as {@code kafka.send{outcome}}. The publish stage
+ * ({@code polling.stage{stage=publish}}) spans a record from hand-off to its outcome: one attempt
+ * in blocking mode, where retries are new calls, and the producer's own retries in async mode,
+ * counted by the client as {@code kafka.producer.record.retry.total}.
+ * <p>
+ * With {@code kafka.spill.enabled} no publish waits for the broker. Records are handed to the
+ * producer, and those it can't take or fails to deliver are appended to the {@link SpillQueue}.
+ * From the first spilled record until the spill is empty again, new records go straight to it,
+ * and a background drainer replays them in append order once the broker accepts them again.
+ * A record is only sent or spilled once the previous record of its key has been acknowledged
+ * or spilled, so every key keeps its order. The blocking {@link #sendMessage(String, Object)}
+ * reports a record as published once it is acknowledged or spilled. Spilled records deleted by
+ * the drop policy before their replay are reported to the spill drop listener.
+ * Replay is at-least-once: a batch is resent from its first unacknowledged record, and within
+ * a batch a key is replayed one record at a time.
  */
 @Slf4j
 @Service
 public class KafkaProducerService {
 
+    private static final long SEND_TIMEOUT_SECONDS = 10;
+
     private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaTemplate<String, byte[]> binaryKafkaTemplate;
     private final ObjectMapper objectMapper;
     private final String topic;
+    private final MessageFormat messageFormat;
+    private final boolean asyncEnabled;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    // null when spilling is disabled
+    private final SpillQueue spillQueue;
+    private final int drainBatchSize;
+    private final ScheduledExecutorService spillDrainer;
+    // Spill ordering state, guarded by spillLock: set from the first spilled record until the
+    // drainer has replayed them all, and the last record of each key not completed yet
+    private final Object spillLock = new Object();
+    private boolean spilling;
+    private final Map<String, CompletableFuture<Boolean>> pendingByKey = new HashMap<>();
+
+    private final Counter successCounter;
+    private final Counter failureCounter;
+    private final Counter rejectedCounter;
+    private final DistributionSummary recordSize;
+    private final Timer serializeTimer;
+    private final Timer publishTimer;
+    private final Timer sendSuccessTimer;
+    private final Timer sendFailureTimer;
 
-    public KafkaProducerService(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper, KafkaClientConfiguration config) {
+    public KafkaProducerService(KafkaTemplate<String, String> kafkaTemplate,
+                                KafkaTemplate<String, byte[]> binaryKafkaTemplate, ObjectMapper objectMapper,
+                                KafkaClientConfiguration config, MeterRegistry meterRegistry,
+                                ObjectProvider<SpillQueue> spillQueue) {
         this.kafkaTemplate = kafkaTemplate;
+        this.binaryKafkaTemplate = binaryKafkaTemplate;
         this.objectMapper = objectMapper;
         this.topic = config.getTopic();
+        this.messageFormat = config.messageFormatFor(topic);
+        this.asyncEnabled = config.getProducerAsyncEnabled();
+        this.maxInFlight = config.getProducerMaxInFlight();
+        this.inFlight = new Semaphore(maxInFlight);
+        this.spillQueue = spillQueue.getIfAvailable();
+        this.drainBatchSize = config.getSpillDrainBatchSize();
+
+        this.successCounter = meterRegistry.counter("kafka.publish", "outcome", "success");
+        this.failureCounter = meterRegistry.counter("kafka.publish", "outcome", "failure");
+        this.rejectedCounter = meterRegistry.counter("kafka.publish", "outcome", "rejected");
+        this.recordSize = DistributionSummary.builder("kafka.publish.record-size")
+                .description("Size of the serialized record values")
+                .baseUnit("bytes")
+                .tag("format", messageFormat.name().toLowerCase())
+                .register(meterRegistry);
+        this.serializeTimer = PollStage.SERIALIZE.timer(meterRegistry);
+        this.publishTimer = PollStage.PUBLISH.timer(meterRegistry);
+        this.sendSuccessTimer = sendTimer(meterRegistry, "success");
+        this.sendFailureTimer = sendTimer(meterRegistry, "failure");
+        Gauge.builder("kafka.publish.in-flight", this, service -> service.maxInFlight - service.inFlight.availablePermits())
+                .description("Records handed to the producer and not yet acknowledged")
+                .register(meterRegistry);
+
+        if (this.spillQueue != null) {
+            this.spilling = !this.spillQueue.isEmpty();
+            this.spillDrainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "kafka-spill-drainer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMs = config.getSpillDrainInterval().toMillis();
+            spillDrainer.scheduleWithFixedDelay(this::drainSpill, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+            log.info("Kafka spill enabled, {} records pending replay", this.spillQueue.getPendingRecords());
+        } else {
+            this.spillDrainer = null;
+        }
+    }
+
+    @PreDestroy
+    public void stopSpillDrainer() {
+        if (spillDrainer != null) {
+            spillDrainer.shutdownNow();
+        }
+    }
+
+    /**
+     * @return true if messages should be published with {@link #sendMessageAsync(String, Object)}
+     */
+    public boolean isAsyncEnabled() {
+        return asyncEnabled;
+    }
+
+    public MessageFormat getMessageFormat() {
+        return messageFormat;
     }
 
     /**
@@ -46,13 +180,25 @@ public class KafkaProducerService {
     )
     public boolean sendMessage(String key, Object message) {
         try {
-            String jsonMessage = objectMapper.writeValueAsString(message);
+            Object payload = serialize(message);
 
-            CompletableFuture<SendResult<String, String>> future =
-                    kafkaTemplate.send(this.topic, key, jsonMessage);
+            if (spillQueue != null) {
+                // Waits for the record to be acknowledged or spilled, never for a broker that is down
+                return awaitSpillOutcome(key, sendOrSpill(key, payload));
+            }
 
-            // Wait for result with timeout
-            SendResult<String, String> result = future.get(10, TimeUnit.SECONDS);
+            long start = System.nanoTime();
+            SendResult<String, ?> result;
+            try {
+                // Wait for result with timeout
+                result = send(key, payload).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                sendSuccessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } catch (Exception e) {
+                sendFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            } finally {
+                publishTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
 
             log.info("Successfully sent message to Kafka: key=[{}], topic=[{}], partition=[{}], offset=[{}]",
                     key,
@@ -60,15 +206,342 @@ public class KafkaProducerService {
                     result.getRecordMetadata().partition(),
                     result.getRecordMetadata().offset());
 
+            successCounter.increment();
             return true;
 
-        } catch (JsonProcessingException e) {
-            log.error("Error serializing message to JSON for key=[{}]", key, e);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.error("Error serializing message to {} for key=[{}]", messageFormat, key, e);
+            failureCounter.increment();
             return false;
         } catch (Exception e) {
             log.error("Error sending message to Kafka for key=[{}]", key, e);
+            failureCounter.increment();
             throw new RuntimeException("Failed to send message to Kafka", e);
         }
     }
 
+    /**
+     * Sends message to Kafka without waiting for the broker acknowledgement
+     * The returned future completes from the producer callback. Retriable errors are retried
+     * by the producer itself, within {@code delivery.timeout.ms}, and never re-sent here: a new
+     * send would get a new sequence number and could land after newer records of the key
+     *
+     * @param key     Message key (eventId)
+     * @param message Message payload
+     * @return Future completed with true if the broker acknowledged the message (or it was spilled), false otherwise
+     */
+    public CompletableFuture<Boolean> sendMessageAsync(String key, Object message) {
+        Object payload;
+        try {
+            payload = serialize(message);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.error("Error serializing message to {} for key=[{}]", messageFormat, key, e);
+            failureCounter.increment();
+            return CompletableFuture.completedFuture(false);
+        }
+
+        if (spillQueue != null) {
+            return sendOrSpill(key, payload);
+        }
+
+        if (!inFlight.tryAcquire()) {
+            log.warn("Too many in-flight Kafka records ({}), dropping message for key=[{}]", maxInFlight, key);
+            rejectedCounter.increment();
+            return CompletableFuture.completedFuture(false);
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        result.whenComplete((success, error) -> {
+            inFlight.release();
+            publishTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        });
+
+        sendAsync(key, payload, result);
+        return result;
+    }
+
+    /**
+     * Registers the listener told about the keys of spilled records that were deleted before their replay
+     * Their publish was reported as successful, the caller has to publish the key again
+     */
+    public void setSpillDropListener(Consumer<String> listener) {
+        if (spillQueue != null) {
+            spillQueue.setDropListener(listener);
+        }
+    }
+
+    /**
+     * @return Number of spilled records waiting to be replayed, 0 when spilling is disabled
+     */
+    public long getSpilledCount() {
+        return spillQueue != null ? spillQueue.getPendingRecords() : 0;
+    }
+
+    /**
+     * Hands the record to the producer without waiting for the broker, or spills it
+     * <p>
+     * A record waits for the outcome of the previous record of its key still in flight, and goes
+     * straight to the spill while it holds a backlog. A failed send is spilled before any later
+     * record of its key is sent or spilled, so records of a key are never reordered.
+     *
+     * @return Future completed with true once acknowledged or spilled, false if the spill dropped it
+     */
+    private CompletableFuture<Boolean> sendOrSpill(String key, Object payload) {
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        CompletableFuture<Boolean> previous;
+        synchronized (spillLock) {
+            previous = pendingByKey.put(key, result);
+        }
+
+        result.whenComplete((success, error) -> {
+            synchronized (spillLock) {
+                pendingByKey.remove(key, result);
+            }
+            publishTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        });
+
+        if (previous == null) {
+            sendOrSpillNow(key, payload, result);
+        } else {
+            // Sent off the producer I/O thread that completes the previous record
+            previous.whenCompleteAsync((success, error) -> sendOrSpillNow(key, payload, result));
+        }
+        return result;
+    }
+
+    /**
+     * Sends the record once no earlier record of its key is in flight
+     * Spills it while spilling, or when the in-flight limit is reached
+     */
+    /**
+     * @return true once the record is acknowledged or spilled, false if it was dropped or is still
+     * waiting for an earlier record of its key after the send timeout; the caller then publishes it again
+     */
+    private boolean awaitSpillOutcome(String key, CompletableFuture<Boolean> outcome) {
+        try {
+            return outcome.get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Kafka record for key=[{}] still pending after {}s, reporting it as not published",
+                    key, SEND_TIMEOUT_SECONDS);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            log.error("Error sending message to Kafka for key=[{}]", key, e.getCause());
+            return false;
+        }
+    }
+
+    private void sendOrSpillNow(String key, Object payload, CompletableFuture<Boolean> result) {
+        Boolean spilled = null;
+        synchronized (spillLock) {
+            if (spilling || !inFlight.tryAcquire()) {
+                spilling = true;
+                spilled = spill(key, payload);
+            }
+        }
+        if (spilled != null) {
+            // Completed outside the lock, the next record of the key continues from here
+            result.complete(spilled);
+            return;
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<? extends SendResult<String, ?>> future;
+        try {
+            future = send(key, payload);
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((sendResult, error) -> {
+            inFlight.release();
+            (error == null ? sendSuccessTimer : sendFailureTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (error == null) {
+                successCounter.increment();
+                result.complete(true);
+                return;
+            }
+
+            log.warn("Kafka send failed for key=[{}], spilling the message: {}", key, unwrap(error).getMessage());
+            boolean spilledAfterFailure;
+            synchronized (spillLock) {
+                spilling = true;
+                spilledAfterFailure = spill(key, payload);
+            }
+            result.complete(spilledAfterFailure);
+        });
+    }
+
+    private boolean spill(String key, Object payload) {
+        boolean text = payload instanceof String;
+        byte[] value = text ? ((String) payload).getBytes(StandardCharsets.UTF_8) : (byte[]) payload;
+
+        if (spillQueue.append(key, value, text)) {
+            return true;
+        }
+        log.error("Spill queue full, dropping message for key=[{}]", key);
+        failureCounter.increment();
+        return false;
+    }
+
+    /**
+     * Replays the spilled records in order, one batch at a time, until the spill is empty or a send fails
+     * Runs on the drainer thread, the only one waiting for the broker
+     */
+    private void drainSpill() {
+        try {
+            List<SpillQueue.Entry> batch;
+            while (!(batch = spillQueue.peek(drainBatchSize)).isEmpty()) {
+                List<CompletableFuture<Void>> futures = new ArrayList<>(batch.size());
+                Map<String, CompletableFuture<Void>> lastByKey = new HashMap<>();
+                for (SpillQueue.Entry entry : batch) {
+                    CompletableFuture<Void> previous = lastByKey.get(entry.key());
+                    // A record is only sent once the previous one of its key is acknowledged, so a key
+                    // stops at its first failure and no later record of it overtakes the failed one
+                    CompletableFuture<Void> future = previous == null
+                            ? replay(entry)
+                            : previous.thenComposeAsync(ignored -> replay(entry));
+                    futures.add(future);
+                    lastByKey.put(entry.key(), future);
+                    if (future.isCompletedExceptionally()) {
+                        break;
+                    }
+                }
+
+                SpillQueue.Entry acknowledged = null;
+                for (int i = 0; i < futures.size(); i++) {
+                    try {
+                        futures.get(i).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    } catch (Exception e) {
+                        log.warn("Kafka unavailable, {} spilled records pending: {}",
+                                spillQueue.getPendingRecords(), unwrap(e).getMessage());
+                        break;
+                    }
+                    acknowledged = batch.get(i);
+                    successCounter.increment();
+                }
+
+                if (acknowledged != null) {
+                    spillQueue.acknowledge(acknowledged);
+                }
+                if (acknowledged != batch.getLast()) {
+                    return;
+                }
+            }
+
+            synchronized (spillLock) {
+                // Appends happen under the lock too, so no record can slip in behind the check
+                if (spillQueue.isEmpty()) {
+                    spilling = false;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to drain the Kafka spill queue", e);
+        }
+    }
+
+    private CompletableFuture<Void> replay(SpillQueue.Entry entry) {
+        Object payload = entry.text() ? new String(entry.value(), StandardCharsets.UTF_8) : entry.value();
+        try {
+            return send(entry.key(), payload).thenApply(sendResult -> null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Serializes the message in the topic's format
+     *
+     * @return byte[] for score updates, String for other JSON messages
+     * @throws IllegalArgumentException if a binary topic receives something other than a score update
+     */
+    private Object serialize(Object message) throws JsonProcessingException {
+        long start = System.nanoTime();
+        try {
+            return serializeUntimed(message);
+        } finally {
+            serializeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Object serializeUntimed(Object message) throws JsonProcessingException {
+        if (message instanceof ScoreUpdateMessage scoreUpdate) {
+            byte[] bytes = messageFormat == MessageFormat.BINARY
+                    ? ScoreUpdateCodec.encode(scoreUpdate)
+                    : ScoreUpdateJsonWriter.toBytes(scoreUpdate);
+            recordSize.record(bytes.length);
+            return bytes;
+        }
+
+        if (messageFormat == MessageFormat.BINARY) {
+            throw new IllegalArgumentException("Binary topics only accept ScoreUpdateMessage, got "
+                    + message.getClass().getSimpleName());
+        }
+
+        String json = objectMapper.writeValueAsString(message);
+        recordSize.record(json.length());
+        return json;
+    }
+
+    private CompletableFuture<? extends SendResult<String, ?>> send(String key, Object payload) {
+        if (payload instanceof byte[] bytes) {
+            return binaryKafkaTemplate.send(this.topic, key, bytes);
+        }
+        return kafkaTemplate.send(this.topic, key, (String) payload);
+    }
+
+    private void sendAsync(String key, Object payload, CompletableFuture<Boolean> result) {
+        long start = System.nanoTime();
+        CompletableFuture<? extends SendResult<String, ?>> future;
+        try {
+            future = send(key, payload);
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((sendResult, error) -> {
+            (error == null ? sendSuccessTimer : sendFailureTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (error == null) {
+                log.info("Successfully sent message to Kafka: key=[{}], topic=[{}], partition=[{}], offset=[{}]",
+                        key,
+                        this.topic,
+                        sendResult.getRecordMetadata().partition(),
+                        sendResult.getRecordMetadata().offset());
+                successCounter.increment();
+                result.complete(true);
+                return;
+            }
+
+            // The producer already retried until delivery.timeout.ms ran out
+            log.error("Error sending message to Kafka for key=[{}]", key, unwrap(error));
+            failureCounter.increment();
+            result.complete(false);
+        });
+    }
+
+    private static Timer sendTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("kafka.send")
+                .description("Latency of a single Kafka send attempt, until acknowledged or failed")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException
+                || cause instanceof KafkaException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
 }
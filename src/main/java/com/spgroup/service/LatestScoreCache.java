@@ -0,0 +1,128 @@
+package com.spgroup.service;
+
+import com.spgroup.message.ScoreUpdateJsonWriter;
+import com.spgroup.message.ScoreUpdateMessage;
+import com.spgroup.model.ExternalApiResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest fetched score of each event, for reads that should not reach the external API or Kafka
+ * <p>
+ * Every poll replaces the immutable entry of its event, with the score and fetch time already
+ * serialized as the JSON published to Kafka ({@code timestamp} is the fetch time). Readers get
+ * the entry from a ConcurrentHashMap and write its bytes, no lock and no serialization per read.
+ * A 304 Not Modified answer keeps the score and refreshes the fetch time.
+ * <p>
+ * Scores stay readable after the event stops being live, until they are older than
+ * {@code app.scores.retention}.
+ */
+@Slf4j
+@Component
+public class LatestScoreCache {
+
+    private static final byte[] EMPTY_ARRAY = {'[', ']'};
+
+    /**
+     * Latest score of an event
+     *
+     * @param json UTF-8 JSON of the score, shared by all readers, must not be modified
+     */
+    public record Entry(String eventId, String score, long fetchedAtMillis, byte[] json) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Duration retention;
+
+    public LatestScoreCache(@Value("${app.scores.retention:6h}") Duration retention, MeterRegistry meterRegistry) {
+        this.retention = retention;
+        Gauge.builder("scores.cached", entries, Map::size)
+                .description("Events with a cached latest score")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a fetched score
+     *
+     * @param eventId     Event ID
+     * @param apiResponse External API response, a 304 answer only refreshes the fetch time of a known score
+     */
+    public void record(String eventId, ExternalApiResponse apiResponse) {
+        Instant fetchedAt = Instant.now();
+
+        if (apiResponse.isNotModified()) {
+            entries.computeIfPresent(eventId, (id, current) -> entry(id, current.score(), fetchedAt));
+            return;
+        }
+        entries.put(eventId, entry(eventId, apiResponse.getCurrentScore(), fetchedAt));
+    }
+
+    /**
+     * @return Latest score of the event, null if none was fetched
+     */
+    public Entry get(String eventId) {
+        return entries.get(eventId);
+    }
+
+    /**
+     * @param eventIds Event IDs, unknown ones are skipped
+     * @return JSON array of the latest scores of the events, in the given order
+     */
+    public byte[] toJsonArray(Collection<String> eventIds) {
+        ByteArrayOutputStream out = null;
+        for (String eventId : eventIds) {
+            Entry entry = entries.get(eventId);
+            if (entry == null) {
+                continue;
+            }
+            if (out == null) {
+                out = new ByteArrayOutputStream(eventIds.size() * (entry.json().length + 1) + 1);
+                out.write('[');
+            } else {
+                out.write(',');
+            }
+            out.writeBytes(entry.json());
+        }
+
+        if (out == null) {
+            return EMPTY_ARRAY.clone();
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drops the scores fetched longer than the retention ago
+     */
+    @Scheduled(fixedDelayString = "${app.scores.sweep-interval:1m}")
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - retention.toMillis();
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.fetchedAtMillis() < cutoff);
+
+        int evicted = before - entries.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} latest scores older than {}", evicted, retention);
+        }
+    }
+
+    private static Entry entry(String eventId, String score, Instant fetchedAt) {
+        byte[] json = ScoreUpdateJsonWriter.toBytes(ScoreUpdateMessage.of(eventId, score, fetchedAt));
+        return new Entry(eventId, score, fetchedAt.toEpochMilli(), json);
+    }
+}
@@ -0,0 +1,41 @@
+package com.spgroup.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Stages of a poll, each timed as {@code polling.stage{stage=...}}
+ */
+public enum PollStage {
+
+    /**
+     * Upstream call, from request to parsed response, retries included
+     */
+    FETCH,
+
+    /**
+     * External API response to Kafka message
+     */
+    TRANSFORM,
+
+    /**
+     * Kafka message to record value
+     */
+    SERIALIZE,
+
+    /**
+     * Record handed to Kafka until acknowledged or finally failed, retries included
+     */
+    PUBLISH;
+
+    /**
+     * @return Timer of the stage, registered with a percentile histogram
+     */
+    public Timer timer(MeterRegistry registry) {
+        return Timer.builder("polling.stage")
+                .description("Time spent in one stage of a poll")
+                .tag("stage", name().toLowerCase())
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
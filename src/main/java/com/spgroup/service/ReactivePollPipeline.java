@@ -0,0 +1,109 @@
+package com.spgroup.service;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Non-blocking poll pipeline
+ * <p>
+ * Due event IDs are emitted into a bounded sink and flow through
+ * fetch → transform → publish as one reactive chain. At most {@code maxConcurrency}
+ * groups are in flight; fetch and transform run on the WebClient event loop, the Kafka
+ * hand-off on the bounded elastic scheduler (it may block on producer metadata) and the
+ * completion on the producer callback threads, no thread waits for the broker ack.
+ * <p>
+ * When the buffer in front of the pipeline is full, new groups are rejected and the
+ * events are simply polled again on their next interval.
+ */
+@Slf4j
+class ReactivePollPipeline {
+
+    private final Sinks.Many<Group> dueEvents;
+    private final Function<List<String>, Mono<Void>> pollGroup;
+    private final int maxConcurrency;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private Disposable subscription;
+
+    ReactivePollPipeline(Function<List<String>, Mono<Void>> pollGroup, int maxConcurrency, int bufferSize) {
+        this.pollGroup = pollGroup;
+        this.maxConcurrency = maxConcurrency;
+        this.dueEvents = Sinks.many().unicast()
+                .onBackpressureBuffer(Queues.<Group>get(bufferSize).get());
+    }
+
+    void start() {
+        subscription = dueEvents.asFlux()
+                .flatMap(this::poll, maxConcurrency)
+                .subscribe();
+
+        log.info("Reactive poll pipeline started: maxConcurrency={}", maxConcurrency);
+    }
+
+    /**
+     * Emits a group of due events into the pipeline, without completion callback
+     */
+    boolean submit(List<String> eventIds) {
+        return submit(eventIds, () -> {
+        });
+    }
+
+    /**
+     * Emits a group of due events into the pipeline
+     * Must be called from a single thread (the poll scheduler worker)
+     *
+     * @param eventIds   Events that came due together, polled with one upstream call in batch mode
+     * @param onComplete Run once the poll of the group completed, failed or was cancelled;
+     *                   not run when the group is rejected
+     * @return false if the pipeline buffer was full and the group was dropped
+     */
+    boolean submit(List<String> eventIds, Runnable onComplete) {
+        Sinks.EmitResult result = dueEvents.tryEmitNext(new Group(eventIds, onComplete));
+
+        if (result.isFailure()) {
+            rejected.add(eventIds.size());
+            log.warn("Poll pipeline rejected {} due events: {}", eventIds.size(), result);
+            return false;
+        }
+        return true;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    void stop() {
+        dueEvents.tryEmitComplete();
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Mono<Void> poll(Group group) {
+        return Mono.defer(() -> pollGroup.apply(group.eventIds()))
+                .doOnSubscribe(ignored -> inFlight.incrementAndGet())
+                .doFinally(ignored -> {
+                    inFlight.decrementAndGet();
+                    group.onComplete().run();
+                })
+                .onErrorResume(error -> {
+                    log.error("Error polling {} events in pipeline", group.eventIds().size(), error);
+                    return Mono.empty();
+                });
+    }
+
+    private record Group(List<String> eventIds, Runnable onComplete) {
+    }
+}
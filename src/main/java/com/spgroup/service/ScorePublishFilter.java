@@ -0,0 +1,130 @@
+package com.spgroup.service;
+
+import com.spgroup.model.LiveEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides whether a polled score has to be published to Kafka
+ * With change-only publishing, a score is published when it differs from the last
+ * published score of the event, or when the heartbeat interval has elapsed since the
+ * last publish, so consumers still see the event is tracked
+ */
+@Slf4j
+@Component
+public class ScorePublishFilter {
+
+    private final boolean changeOnly;
+    private final Duration heartbeatInterval;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+    private final Counter heartbeats;
+
+    public ScorePublishFilter(@Value("${app.publishing.change-only.enabled:false}") boolean changeOnly,
+                              @Value("${app.publishing.change-only.heartbeat-interval:60s}") Duration heartbeatInterval,
+                              MeterRegistry meterRegistry) {
+        this.changeOnly = changeOnly;
+        this.heartbeatInterval = heartbeatInterval;
+
+        FunctionCounter.builder("publishing.scores", published, LongAdder::sum)
+                .tag("result", "published")
+                .register(meterRegistry);
+        FunctionCounter.builder("publishing.scores", suppressed, LongAdder::sum)
+                .tag("result", "suppressed")
+                .register(meterRegistry);
+        Gauge.builder("publishing.suppression.ratio", this, ScorePublishFilter::getSuppressionRatio)
+                .description("Share of polled scores not published because they did not change")
+                .register(meterRegistry);
+        this.heartbeats = meterRegistry.counter("publishing.heartbeats");
+    }
+
+    /**
+     * Checks whether the polled score has to be published
+     *
+     * @param event Event the score belongs to, may be null if it was removed meanwhile
+     * @param score Polled score
+     * @return true if the score changed or a heartbeat is due
+     */
+    public boolean shouldPublish(LiveEvent event, String score) {
+        if (!changeOnly || event == null) {
+            published.increment();
+            return true;
+        }
+
+        Instant lastPublishedAt = event.getLastPublishedAt();
+        boolean changed = !Objects.equals(score, event.getLastPublishedScore());
+        boolean heartbeatDue = lastPublishedAt == null
+                || !lastPublishedAt.plus(heartbeatInterval).isAfter(Instant.now());
+
+        if (changed || heartbeatDue) {
+            if (!changed) {
+                heartbeats.increment();
+            }
+            published.increment();
+            return true;
+        }
+
+        suppressed.increment();
+        log.debug("Score of event [{}] unchanged ({}), skipping publish", event.getEventId(), score);
+        return false;
+    }
+
+    /**
+     * Checks whether a heartbeat has to be published for an event whose score is known to be
+     * unchanged (the upstream answered 304 Not Modified)
+     *
+     * @param event Event that was polled, may be null if it was removed meanwhile
+     * @return true if the last published score has to be published again as a heartbeat
+     */
+    public boolean shouldPublishUnchanged(LiveEvent event) {
+        boolean heartbeatDue = changeOnly
+                && event != null
+                && event.getLastPublishedScore() != null
+                && !event.getLastPublishedAt().plus(heartbeatInterval).isAfter(Instant.now());
+
+        if (heartbeatDue) {
+            heartbeats.increment();
+            published.increment();
+            return true;
+        }
+
+        if (changeOnly) {
+            // Without change-only publishing a 304 has nothing to publish, it is not a suppression
+            suppressed.increment();
+        }
+        return false;
+    }
+
+    /**
+     * Remembers the score once Kafka acknowledged it
+     *
+     * @param event Event the score belongs to
+     * @param score Published score
+     */
+    public void onPublished(LiveEvent event, String score) {
+        if (event != null) {
+            event.recordPublished(score);
+        }
+    }
+
+    public boolean isChangeOnly() {
+        return changeOnly;
+    }
+
+    public double getSuppressionRatio() {
+        long suppressedCount = suppressed.sum();
+        long total = suppressedCount + published.sum();
+        return total == 0 ? 0.0 : (double) suppressedCount / total;
+    }
+}
@@ -1,19 +1,39 @@
 package com.spgroup.service;
 
+import com.spgroup.message.ScoreUpdateMessage;
 import com.spgroup.model.ExternalApiResponse;
 import com.spgroup.model.LiveEvent;
+import com.spgroup.scheduler.BoundedPollExecutor;
+import com.spgroup.scheduler.HashedWheelPollScheduler;
+import com.spgroup.scheduler.PollHandle;
+import com.spgroup.scheduler.VirtualThreadPollExecutor;
+import com.spgroup.stream.ScoreFanOut;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ScheduledFuture;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Main service for tracking live sports events
@@ -28,13 +48,85 @@ public class SportsTrackerService {
     private final ExternalApiService externalApiService;
     private final KafkaProducerService kafkaProducerService;
     private final TaskScheduler taskScheduler;
+    private final HashedWheelPollScheduler pollScheduler;
+    private final ObjectProvider<VirtualThreadPollExecutor> virtualThreadPollExecutor;
+    private final ScorePublishFilter scorePublishFilter;
+    private final AdaptivePollIntervalPolicy adaptivePollInterval;
+    private final ScoreFanOut scoreFanOut;
+    private final LatestScoreCache latestScores;
+    private final MeterRegistry meterRegistry;
 
     @Value("${app.polling.interval:10000}")
     private long pollingIntervalMs;
 
+    @Value("${app.polling.batch.enabled:false}")
+    private boolean batchEnabled;
+
+    @Value("${app.polling.batch.max-size:100}")
+    private int batchMaxSize;
+
+    @Value("${app.polling.execution-mode:platform}")
+    private String executionMode;
+
+    @Value("${app.polling.reactive.max-concurrency:256}")
+    private int reactiveMaxConcurrency;
+
+    @Value("${app.polling.reactive.buffer-size:1024}")
+    private int reactiveBufferSize;
+
+    @Value("${app.polling.platform.queue-capacity:1000}")
+    private int platformQueueCapacity;
+
+    // Where blocking polls are executed: the TaskScheduler pool or one virtual thread per poll
+    private Executor pollExecutor;
+
+    // Non-blocking pipeline used instead of the poll executor in reactive mode
+    private ReactivePollPipeline reactivePipeline;
+
+    private Timer transformTimer;
+    private Counter overlapSkippedCounter;
+
+    /**
+     * Starts the poll scheduler
+     * Every tick, all events that came due together are dispatched to the poll executor
+     */
+    @PostConstruct
+    public void startPollScheduler() {
+        VirtualThreadPollExecutor virtualExecutor = virtualThreadPollExecutor.getIfAvailable();
+        if (virtualExecutor != null) {
+            pollExecutor = virtualExecutor;
+        } else {
+            Executor executor = taskScheduler instanceof Executor taskExecutor
+                    ? taskExecutor
+                    : task -> taskScheduler.schedule(task, Instant.now());
+            BoundedPollExecutor boundedExecutor = new BoundedPollExecutor(executor, platformQueueCapacity);
+            boundedExecutor.bindTo(meterRegistry);
+            pollExecutor = boundedExecutor;
+        }
+        transformTimer = PollStage.TRANSFORM.timer(meterRegistry);
+        overlapSkippedCounter = Counter.builder("polling.overlap.skipped")
+                .description("Polls skipped because the previous poll of the event was still in flight")
+                .register(meterRegistry);
+
+        if ("reactive".equals(executionMode)) {
+            reactivePipeline = new ReactivePollPipeline(this::pollEventsReactive,
+                    reactiveMaxConcurrency, reactiveBufferSize);
+            reactivePipeline.start();
+        }
+
+        kafkaProducerService.setSpillDropListener(this::onPublishLost);
+        pollScheduler.start(this::dispatchDueEvents);
+        log.info("Poll scheduler started with execution mode [{}]", executionMode);
+
+        if (batchEnabled) {
+            log.info("Batch fetch mode enabled: maxSize={}", batchMaxSize);
+        }
+    }
+
     /**
      * Starts polling for a live event
-     * Creates a scheduled task that runs every 10 seconds
+     * Registers the event in the poll scheduler, polled every 10 seconds
+     * With adaptive polling the event starts at the minimum interval
      *
      * @param eventId Event ID to start polling
      */
@@ -52,20 +144,54 @@ public class SportsTrackerService {
         }
 
         // Cancel existing task if any
-        if (event.getScheduledTask() != null && !event.getScheduledTask().isCancelled()) {
-            event.getScheduledTask().cancel(false);
+        if (event.getScheduledTask() != null && event.getScheduledTask().cancel()) {
             log.info("Cancelled existing polling task for event [{}]", eventId);
         }
 
-        // Create new scheduled task
-        ScheduledFuture<?> scheduledTask = taskScheduler.scheduleAtFixedRate(
-                () -> pollEventData(eventId),
-                Instant.now().plusMillis(1000), // Start after 1 second
-                Duration.ofMillis(pollingIntervalMs)
-        );
+        long intervalMs = schedulePolling(event);
+        log.info("Started polling for event [{}] with interval {}ms", eventId, intervalMs);
+    }
+
+    /**
+     * Starts polling for several live events with a single summary log line
+     * Events that don't exist or are not live are skipped
+     *
+     * @param events Events to start polling
+     * @return Number of events registered in the poll scheduler
+     */
+    public int startPollingForEvents(List<LiveEvent> events) {
+        int started = 0;
+        for (LiveEvent event : events) {
+            if (event == null || !event.isLive()) {
+                continue;
+            }
+            if (event.getScheduledTask() != null) {
+                event.getScheduledTask().cancel();
+            }
+            schedulePolling(event);
+            started++;
+        }
+
+        log.info("Started polling for {} events", started);
+        return started;
+    }
+
+    /**
+     * Registers the event in the poll scheduler
+     *
+     * @return Interval the event is polled with
+     */
+    private long schedulePolling(LiveEvent event) {
+        long intervalMs = adaptivePollInterval.isEnabled()
+                ? adaptivePollInterval.getMinIntervalMs()
+                : pollingIntervalMs;
 
+        // Register the event in the poll scheduler, first poll spread over the interval after 1 second
+        PollHandle scheduledTask = pollScheduler.scheduleSpread(event.getEventId(), 1000, intervalMs);
+
+        event.setPollIntervalMs(intervalMs);
         event.setScheduledTask(scheduledTask);
-        log.info("Started polling for event [{}] with interval {}ms", eventId, pollingIntervalMs);
+        return intervalMs;
     }
 
     /**
@@ -81,11 +207,34 @@ public class SportsTrackerService {
             return;
         }
 
-        if (event.getScheduledTask() != null && !event.getScheduledTask().isCancelled()) {
-            event.getScheduledTask().cancel(false);
+        if (event.getScheduledTask() != null && event.getScheduledTask().cancel()) {
             event.setScheduledTask(null);
             log.info("Stopped polling for event [{}]", eventId);
         }
+
+        externalApiService.forgetEvent(eventId);
+    }
+
+    /**
+     * Stops polling for several events with a single summary log line
+     *
+     * @param eventIds Event IDs to stop polling
+     */
+    public void stopPollingForEvents(List<String> eventIds) {
+        int stopped = 0;
+        for (String eventId : eventIds) {
+            LiveEvent event = eventStateManager.getEvent(eventId);
+            if (event == null) {
+                continue;
+            }
+            if (event.getScheduledTask() != null && event.getScheduledTask().cancel()) {
+                event.setScheduledTask(null);
+                stopped++;
+            }
+            externalApiService.forgetEvent(eventId);
+        }
+
+        log.info("Stopped polling for {} events", stopped);
     }
 
     /**
@@ -94,7 +243,7 @@ public class SportsTrackerService {
      *
      * @param eventId Event ID to poll
      */
-    private void pollEventData(String eventId) {
+    void pollEventData(String eventId) {
         try {
             log.debug("Polling data for event [{}]", eventId);
 
@@ -113,36 +262,327 @@ public class SportsTrackerService {
                 return;
             }
 
-            // Update last polled timestamp
-            eventStateManager.updateLastPolled(eventId);
+            processResponse(eventId, apiResponse);
 
-            // Transform and publish to Kafka
-            Map<String, Object> kafkaMessage = transformToKafkaMessage(apiResponse);
-            boolean success = kafkaProducerService.sendMessage(eventId, kafkaMessage);
+        } catch (Exception e) {
+            log.error("Error polling data for event [{}]", eventId, e);
+        }
+    }
 
-            if (success) {
-                log.info("Successfully processed and published data for event [{}]", eventId);
+    /**
+     * Dispatches the events that came due in the same scheduler tick to the poll executor
+     * In batch mode they are fetched in groups of at most {@code app.polling.batch.max-size}
+     * events per upstream call, otherwise each event is polled on its own
+     * An event whose previous poll is still queued or running is skipped until its next interval
+     *
+     * @param due Handles of the events that came due
+     */
+    void dispatchDueEvents(List<PollHandle> due) {
+        List<PollHandle> startable = new ArrayList<>(due.size());
+        for (PollHandle handle : due) {
+            if (handle.tryStartPoll()) {
+                startable.add(handle);
             } else {
-                log.error("Failed to publish data for event [{}]", eventId);
+                overlapSkippedCounter.increment();
+                log.debug("Previous poll of event [{}] still in flight, skipping", handle.getEventId());
+            }
+        }
+
+        int groupSize = batchEnabled ? batchMaxSize : 1;
+
+        for (int from = 0; from < startable.size(); from += groupSize) {
+            List<PollHandle> handles = List.copyOf(startable.subList(from, Math.min(from + groupSize, startable.size())));
+            List<String> group = new ArrayList<>(handles.size());
+            for (PollHandle handle : handles) {
+                group.add(handle.getEventId());
+            }
+            Runnable finished = () -> handles.forEach(PollHandle::pollFinished);
+
+            if (reactivePipeline != null) {
+                if (!reactivePipeline.submit(group, finished)) {
+                    finished.run();
+                }
+                continue;
+            }
+
+            Runnable poll = batchEnabled ? () -> pollEventBatch(group) : () -> pollEventData(group.get(0));
+            try {
+                pollExecutor.execute(() -> {
+                    try {
+                        poll.run();
+                    } finally {
+                        finished.run();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                finished.run();
+                log.debug("Poll of {} events rejected: {}", group.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Polls data for a group of events with a single upstream call
+     *
+     * @param eventIds Event IDs that came due in the same tick
+     */
+    void pollEventBatch(List<String> eventIds) {
+        try {
+            List<String> liveEventIds = filterLiveEvents(eventIds);
+
+            if (liveEventIds.isEmpty()) {
+                return;
+            }
+
+            log.debug("Polling batch data for {} events", liveEventIds.size());
+
+            Map<String, ExternalApiResponse> responses =
+                    indexByEventId(externalApiService.fetchEventDataBatch(liveEventIds));
+
+            for (String eventId : liveEventIds) {
+                ExternalApiResponse apiResponse = responses.get(eventId);
+
+                if (apiResponse == null) {
+                    log.warn("Received null response for event [{}]", eventId);
+                    continue;
+                }
+
+                try {
+                    processResponse(eventId, apiResponse);
+                } catch (Exception e) {
+                    log.error("Error processing data for event [{}]", eventId, e);
+                }
             }
 
         } catch (Exception e) {
-            log.error("Error polling data for event [{}]", eventId, e);
+            log.error("Error polling batch data for {} events", eventIds.size(), e);
+        }
+    }
+
+    /**
+     * Non-blocking poll of a group of events, used by the reactive pipeline
+     * A single event is fetched from the regular endpoint, larger groups from the batch endpoint
+     *
+     * @param eventIds Event IDs that came due together
+     * @return Mono completing once every response has been published
+     */
+    Mono<Void> pollEventsReactive(List<String> eventIds) {
+        List<String> liveEventIds = filterLiveEvents(eventIds);
+
+        if (liveEventIds.isEmpty()) {
+            return Mono.empty();
+        }
+
+        if (!batchEnabled) {
+            String eventId = liveEventIds.get(0);
+            return externalApiService.fetchEventDataAsync(eventId)
+                    .switchIfEmpty(Mono.fromRunnable(() ->
+                            log.warn("Received null response for event [{}]", eventId)))
+                    .flatMap(apiResponse -> publishResponseAsync(eventId, apiResponse));
+        }
+
+        return externalApiService.fetchEventDataBatchAsync(liveEventIds)
+                .flatMapMany(apiResponses -> {
+                    Map<String, ExternalApiResponse> responses = indexByEventId(apiResponses);
+                    return Flux.fromIterable(liveEventIds)
+                            .flatMap(eventId -> {
+                                ExternalApiResponse apiResponse = responses.get(eventId);
+                                if (apiResponse == null) {
+                                    log.warn("Received null response for event [{}]", eventId);
+                                    return Mono.empty();
+                                }
+                                return publishResponseAsync(eventId, apiResponse);
+                            });
+                })
+                .then();
+    }
+
+    /**
+     * Keeps the events that are still live and stops polling for the others
+     */
+    private List<String> filterLiveEvents(List<String> eventIds) {
+        List<String> liveEventIds = new ArrayList<>(eventIds.size());
+        for (String eventId : eventIds) {
+            if (eventStateManager.isEventLive(eventId)) {
+                liveEventIds.add(eventId);
+            } else {
+                log.info("Event [{}] is no longer live, stopping polling", eventId);
+                stopPollingForEvent(eventId);
+            }
+        }
+        return liveEventIds;
+    }
+
+    private Map<String, ExternalApiResponse> indexByEventId(List<ExternalApiResponse> apiResponses) {
+        return apiResponses.stream()
+                .filter(response -> response.getEventId() != null)
+                .collect(Collectors.toMap(ExternalApiResponse::getEventId, Function.identity(),
+                        (first, second) -> second));
+    }
+
+    /**
+     * Records the poll and the latest score, and publishes the transformed response to Kafka
+     * Unchanged scores are skipped in change-only mode
+     *
+     * @param eventId     Event ID
+     * @param apiResponse External API response for the event
+     */
+    private void processResponse(String eventId, ExternalApiResponse apiResponse) {
+        LiveEvent event = recordPoll(eventId);
+        latestScores.record(eventId, apiResponse);
+        adaptPollInterval(event, apiResponse);
+        ExternalApiResponse publishable = resolvePublishable(event, eventId, apiResponse);
+
+        if (publishable == null) {
+            // Same score as the last published one
+            externalApiService.onScoreHandled(eventId, apiResponse, true);
+            return;
+        }
+
+        ScoreUpdateMessage kafkaMessage = transformToKafkaMessage(publishable);
+        scoreFanOut.publish(kafkaMessage);
+
+        if (kafkaProducerService.isAsyncEnabled()) {
+            // Don't hold the poll thread for the broker ack
+            kafkaProducerService.sendMessageAsync(eventId, kafkaMessage)
+                    .thenAccept(success -> onPublishResult(event, eventId, apiResponse, publishable, success));
+            return;
         }
+
+        boolean success = kafkaProducerService.sendMessage(eventId, kafkaMessage);
+        onPublishResult(event, eventId, apiResponse, publishable, success);
+    }
+
+    /**
+     * Non-blocking variant of {@link #processResponse(String, ExternalApiResponse)}
+     * Completes from the Kafka producer callback
+     * <p>
+     * The hand-off to the producer runs on the bounded elastic scheduler: KafkaProducer.send
+     * blocks up to max.block.ms while it waits for metadata or buffer space, which must not
+     * happen on the WebClient event loop the response arrives on.
+     */
+    private Mono<Void> publishResponseAsync(String eventId, ExternalApiResponse apiResponse) {
+        LiveEvent event = recordPoll(eventId);
+        latestScores.record(eventId, apiResponse);
+        adaptPollInterval(event, apiResponse);
+        ExternalApiResponse publishable = resolvePublishable(event, eventId, apiResponse);
+
+        if (publishable == null) {
+            externalApiService.onScoreHandled(eventId, apiResponse, true);
+            return Mono.empty();
+        }
+
+        return Mono.fromFuture(() -> {
+                    ScoreUpdateMessage kafkaMessage = transformToKafkaMessage(publishable);
+                    scoreFanOut.publish(kafkaMessage);
+                    return kafkaProducerService.sendMessageAsync(eventId, kafkaMessage);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(success -> onPublishResult(event, eventId, apiResponse, publishable, success))
+                .then();
+    }
+
+    /**
+     * Backs the poll interval of the event off while its score stays the same and
+     * resets it to the minimum as soon as the score changes
+     * Compares with the last fetched score, a publish failure must not look like activity
+     */
+    private void adaptPollInterval(LiveEvent event, ExternalApiResponse apiResponse) {
+        if (!adaptivePollInterval.isEnabled() || event == null) {
+            return;
+        }
+
+        boolean scoreChanged = !apiResponse.isNotModified()
+                && !Objects.equals(apiResponse.getCurrentScore(), event.getLastFetchedScore());
+        if (!apiResponse.isNotModified()) {
+            event.setLastFetchedScore(apiResponse.getCurrentScore());
+        }
+        long intervalMs = adaptivePollInterval.nextInterval(event.getPollIntervalMs(), scoreChanged);
+
+        if (intervalMs == event.getPollIntervalMs()) {
+            return;
+        }
+
+        event.setPollIntervalMs(intervalMs);
+        PollHandle scheduledTask = event.getScheduledTask();
+        if (scheduledTask != null) {
+            scheduledTask.setIntervalMs(intervalMs);
+        }
+        log.debug("Poll interval of event [{}] set to {}ms (scoreChanged={})", event.getEventId(), intervalMs, scoreChanged);
+    }
+
+    /**
+     * Decides what has to be published for a poll
+     * A 304 Not Modified answer is neither transformed nor published, except for a due
+     * heartbeat which re-publishes the last published score
+     *
+     * @return Response to publish, null if nothing has to be published
+     */
+    private ExternalApiResponse resolvePublishable(LiveEvent event, String eventId, ExternalApiResponse apiResponse) {
+        if (apiResponse.isNotModified()) {
+            if (!scorePublishFilter.shouldPublishUnchanged(event)) {
+                return null;
+            }
+            return ExternalApiResponse.builder()
+                    .eventId(eventId)
+                    .currentScore(event.getLastPublishedScore())
+                    .build();
+        }
+
+        return scorePublishFilter.shouldPublish(event, apiResponse.getCurrentScore()) ? apiResponse : null;
+    }
+
+    /**
+     * Updates the last polled timestamp of the event
+     *
+     * @return The polled event, null if it was removed meanwhile
+     */
+    private LiveEvent recordPoll(String eventId) {
+        eventStateManager.updateLastPolled(eventId);
+        return eventStateManager.getEvent(eventId);
+    }
+
+    /**
+     * @param apiResponse Fetched response
+     * @param publishable Published response, the fetched one or a heartbeat of the last published score
+     */
+    private void onPublishResult(LiveEvent event, String eventId, ExternalApiResponse apiResponse,
+                                 ExternalApiResponse publishable, boolean success) {
+        externalApiService.onScoreHandled(eventId, apiResponse, success);
+        if (success) {
+            scorePublishFilter.onPublished(event, publishable.getCurrentScore());
+            log.info("Successfully processed and published data for event [{}]", eventId);
+        } else {
+            log.error("Failed to publish data for event [{}]", eventId);
+        }
+    }
+
+    /**
+     * Forgets that the last score of the event was published, once its spilled record was deleted
+     * before the replay: the next poll fetches the full response and publishes it again
+     *
+     * @param eventId Event ID, the key of the lost record
+     */
+    void onPublishLost(String eventId) {
+        externalApiService.forgetEvent(eventId);
+        LiveEvent event = eventStateManager.getEvent(eventId);
+        if (event != null) {
+            event.setLastPublishedScore(null);
+        }
+        log.warn("Spilled score of event [{}] was dropped, it will be fetched and published again", eventId);
     }
 
     /**
      * Transforms external API response into Kafka message format
      *
      * @param apiResponse External API response
-     * @return Kafka message as Map
+     * @return Kafka message, serialized in the topic's format by the producer
      */
-    private Map<String, Object> transformToKafkaMessage(ExternalApiResponse apiResponse) {
-        Map<String, Object> message = new HashMap<>();
-        message.put("eventId", apiResponse.getEventId());
-        message.put("currentScore", apiResponse.getCurrentScore());
-        message.put("timestamp", Instant.now().toString());
-        message.put("source", "sports-tracker");
+    private ScoreUpdateMessage transformToKafkaMessage(ExternalApiResponse apiResponse) {
+        long start = System.nanoTime();
+        ScoreUpdateMessage message = ScoreUpdateMessage.of(apiResponse.getEventId(), apiResponse.getCurrentScore(),
+                Instant.now());
+        transformTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
         log.debug("Transformed message: {}", message);
         return message;
@@ -158,6 +598,22 @@ public class SportsTrackerService {
         stats.put("totalEvents", eventStateManager.getTotalEventsCount());
         stats.put("liveEvents", eventStateManager.getLiveEventsCount());
         stats.put("pollingIntervalMs", pollingIntervalMs);
+        stats.put("adaptivePolling", adaptivePollInterval.isEnabled());
+        stats.put("batchEnabled", batchEnabled);
+        stats.put("executionMode", executionMode);
+        stats.put("messageFormat", kafkaProducerService.getMessageFormat());
+        stats.put("spilledRecords", kafkaProducerService.getSpilledCount());
+        stats.put("streamSubscribers", scoreFanOut.getSubscriberCount());
+        stats.put("cachedScores", latestScores.size());
+        stats.put("changeOnlyPublishing", scorePublishFilter.isChangeOnly());
+        stats.put("suppressionRatio", scorePublishFilter.getSuppressionRatio());
+        stats.put("scheduledPolls", pollScheduler.getScheduledCount());
+        stats.put("phaseStrategy", pollScheduler.getPhaseStrategy());
+        stats.put("tickLoadVariance", pollScheduler.getTickLoadVariance());
+        if (reactivePipeline != null) {
+            stats.put("pipelineInFlight", reactivePipeline.getInFlight());
+            stats.put("pipelineRejected", reactivePipeline.getRejectedCount());
+        }
         stats.put("timestamp", Instant.now().toString());
 
         return stats;
@@ -171,12 +627,15 @@ public class SportsTrackerService {
         log.info("Shutting down SportsTrackerService, stopping all polling tasks...");
 
         eventStateManager.getAllLiveEvents().forEach(event -> {
-            if (event.getScheduledTask() != null && !event.getScheduledTask().isCancelled()) {
-                event.getScheduledTask().cancel(false);
+            if (event.getScheduledTask() != null && event.getScheduledTask().cancel()) {
                 log.info("Cancelled polling task for event [{}]", event.getEventId());
             }
         });
 
+        if (reactivePipeline != null) {
+            reactivePipeline.stop();
+        }
+
         log.info("All polling tasks stopped");
     }
 }
@@ -0,0 +1,448 @@
+package com.spgroup.spill;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Local append-only queue of Kafka records that could not be handed to the producer
+ * <p>
+ * Records are appended to memory-mapped segment files ({@code spill-<id>.log}) in the spill
+ * directory; appending is a few writes into the mapping and never waits for the disk or the
+ * broker. A single consumer reads them back in append order with {@link #peek(int)} and
+ * removes them with {@link #acknowledge(Entry)}. Drained segments are deleted, the active one is
+ * rewound, so the files only hold the backlog. The read offset of every segment is kept in its
+ * header: after a restart the backlog is drained from where it stopped.
+ * <p>
+ * The queue holds at most {@code maxSize} bytes of segments. When it is full, the
+ * {@link DropPolicy} either rejects the new record or deletes the oldest segment.
+ * <p>
+ * Record: int length of the rest (0 marks the end), long append time in epoch millis,
+ * type byte (1 text, 2 bytes), unsigned short key length (0xFFFF for a null key), UTF-8 key,
+ * value. As in the state journal the end marker is written first and the length last, so a
+ * torn append is never read back.
+ */
+@Slf4j
+public class SpillQueue implements AutoCloseable {
+
+    public enum DropPolicy {
+        /**
+         * Reject the new record, the backlog is kept as it is
+         */
+        DROP_NEWEST,
+
+        /**
+         * Delete the oldest segment to make room, the most recent records are kept
+         */
+        DROP_OLDEST
+    }
+
+    /**
+     * Spilled record and its position in the queue
+     *
+     * @param text true if the value is UTF-8 text (String records), false for raw bytes
+     */
+    public record Entry(String key, byte[] value, boolean text, long appendedAtMillis,
+                        long segmentId, int nextOffset) {
+    }
+
+    private static final int MAGIC = 0x53504C51;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int READ_OFFSET = 8;
+    // length, append time, type, key length
+    private static final int RECORD_OVERHEAD = 4 + 8 + 1 + 2;
+
+    private static final byte TYPE_TEXT = 1;
+    private static final byte TYPE_BYTES = 2;
+    private static final int NULL_KEY = 0xFFFF;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final DropPolicy dropPolicy;
+
+    // Oldest first, the last one is appended to
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private long nextSegmentId;
+    private volatile long pendingRecords;
+    private long pendingBytes;
+
+    private Counter appendedCounter;
+    private Counter drainedCounter;
+    private Counter droppedCounter;
+    private volatile Consumer<String> dropListener = key -> {
+    };
+
+    public SpillQueue(Path directory, long segmentSize, long maxSize, DropPolicy dropPolicy) throws IOException {
+        if (segmentSize <= HEADER_SIZE + RECORD_OVERHEAD || segmentSize > Integer.MAX_VALUE || maxSize < segmentSize) {
+            throw new IllegalArgumentException("Spill segment size must be in (" + (HEADER_SIZE + RECORD_OVERHEAD)
+                    + ", 2GB) and max size at least one segment");
+        }
+        this.directory = directory;
+        this.segmentSize = (int) segmentSize;
+        this.maxSegments = (int) (maxSize / segmentSize);
+        this.dropPolicy = dropPolicy;
+
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * Registers the backlog and lag metrics, records are counted from then on
+     */
+    public void bindTo(MeterRegistry registry) {
+        appendedCounter = registry.counter("kafka.spill.records", "outcome", "appended");
+        drainedCounter = registry.counter("kafka.spill.records", "outcome", "drained");
+        droppedCounter = registry.counter("kafka.spill.records", "outcome", "dropped");
+        Gauge.builder("kafka.spill.pending", this, SpillQueue::getPendingRecords)
+                .description("Spilled records waiting to be replayed")
+                .register(registry);
+        Gauge.builder("kafka.spill.pending.bytes", this, SpillQueue::getPendingBytes)
+                .description("Size of the spilled records waiting to be replayed")
+                .baseUnit("bytes")
+                .register(registry);
+        TimeGauge.builder("kafka.spill.lag", this, TimeUnit.MILLISECONDS, SpillQueue::getLagMillis)
+                .description("Age of the oldest spilled record")
+                .register(registry);
+    }
+
+    /**
+     * Registers the listener told about the keys of the records deleted by {@link DropPolicy#DROP_OLDEST}
+     * Such records were appended successfully before, their loss is only known here. Called once
+     * per key of the deleted segment, under the queue lock, so the listener must not block
+     */
+    public void setDropListener(Consumer<String> listener) {
+        this.dropListener = listener;
+    }
+
+    /**
+     * Appends a record, never blocks on I/O
+     *
+     * @return false if the record was dropped, because the queue is full or the record is larger than a segment
+     */
+    public synchronized boolean append(String key, byte[] value, boolean text) {
+        byte[] keyBytes = key != null ? key.getBytes(StandardCharsets.UTF_8) : null;
+        if (keyBytes != null && keyBytes.length >= NULL_KEY) {
+            throw new IllegalArgumentException("Key too long to spill: " + keyBytes.length + " bytes");
+        }
+
+        int recordSize = RECORD_OVERHEAD + (keyBytes != null ? keyBytes.length : 0) + value.length;
+        if (HEADER_SIZE + recordSize + 4 > segmentSize) {
+            log.error("Record of {} bytes does not fit a spill segment, dropping it", recordSize);
+            increment(droppedCounter, 1);
+            return false;
+        }
+
+        Segment active = segments.peekLast();
+        if (active == null || active.writeOffset + recordSize + 4 > active.buffer.limit()) {
+            if (segments.size() >= maxSegments) {
+                if (dropPolicy == DropPolicy.DROP_NEWEST) {
+                    increment(droppedCounter, 1);
+                    return false;
+                }
+                dropOldestSegment();
+            }
+            try {
+                active = createSegment(nextSegmentId++);
+            } catch (IOException e) {
+                log.error("Failed to create spill segment, dropping record", e);
+                increment(droppedCounter, 1);
+                return false;
+            }
+        }
+
+        MappedByteBuffer buffer = active.buffer;
+        int position = active.writeOffset;
+        buffer.putInt(position + recordSize, 0);
+        buffer.putLong(position + 4, System.currentTimeMillis());
+        buffer.put(position + 12, text ? TYPE_TEXT : TYPE_BYTES);
+        if (keyBytes != null) {
+            buffer.putShort(position + 13, (short) keyBytes.length);
+            buffer.put(position + 15, keyBytes);
+        } else {
+            buffer.putShort(position + 13, (short) NULL_KEY);
+        }
+        buffer.put(position + 15 + (keyBytes != null ? keyBytes.length : 0), value);
+        buffer.putInt(position, recordSize - 4);
+
+        active.writeOffset = position + recordSize;
+        active.records++;
+        pendingRecords++;
+        pendingBytes += recordSize;
+        increment(appendedCounter, 1);
+        return true;
+    }
+
+    /**
+     * @return Up to {@code max} of the oldest records, in append order, without removing them
+     */
+    public synchronized List<Entry> peek(int max) {
+        List<Entry> entries = new ArrayList<>();
+        for (Segment segment : segments) {
+            int position = segment.readOffset;
+            while (entries.size() < max && position < segment.writeOffset) {
+                Entry entry = read(segment, position);
+                entries.add(entry);
+                position = entry.nextOffset();
+            }
+            if (entries.size() >= max) {
+                break;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Removes the entry and every record before it
+     * Records already dropped by {@link DropPolicy#DROP_OLDEST} are skipped
+     */
+    public synchronized void acknowledge(Entry entry) {
+        long drained = 0;
+        while (!segments.isEmpty() && segments.peekFirst().id < entry.segmentId()) {
+            Segment segment = segments.peekFirst();
+            drained += segment.records;
+            removeFirstSegment();
+        }
+
+        Segment segment = segments.peekFirst();
+        if (segment == null || segment.id != entry.segmentId()) {
+            increment(drainedCounter, drained);
+            return;
+        }
+
+        int position = segment.readOffset;
+        while (position < entry.nextOffset() && position < segment.writeOffset) {
+            int recordSize = 4 + segment.buffer.getInt(position);
+            position += recordSize;
+            segment.records--;
+            pendingRecords--;
+            pendingBytes -= recordSize;
+            drained++;
+        }
+        segment.readOffset = position;
+        segment.buffer.putInt(READ_OFFSET, position);
+
+        if (segment.readOffset == segment.writeOffset) {
+            if (segments.size() > 1) {
+                removeFirstSegment();
+            } else {
+                rewind(segment);
+            }
+        }
+        increment(drainedCounter, drained);
+    }
+
+    public boolean isEmpty() {
+        return pendingRecords == 0;
+    }
+
+    public long getPendingRecords() {
+        return pendingRecords;
+    }
+
+    public synchronized long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * @return Milliseconds since the oldest pending record was appended, 0 if there is none
+     */
+    public synchronized long getLagMillis() {
+        for (Segment segment : segments) {
+            if (segment.readOffset < segment.writeOffset) {
+                return Math.max(0, System.currentTimeMillis() - segment.buffer.getLong(segment.readOffset + 4));
+            }
+        }
+        return 0;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+        segments.clear();
+    }
+
+    private Entry read(Segment segment, int position) {
+        MappedByteBuffer buffer = segment.buffer;
+        int recordSize = 4 + buffer.getInt(position);
+        long appendedAt = buffer.getLong(position + 4);
+        boolean text = buffer.get(position + 12) == TYPE_TEXT;
+        int keyLength = Short.toUnsignedInt(buffer.getShort(position + 13));
+
+        String key = null;
+        int valueOffset = position + 15;
+        if (keyLength != NULL_KEY) {
+            byte[] keyBytes = new byte[keyLength];
+            buffer.get(valueOffset, keyBytes);
+            key = new String(keyBytes, StandardCharsets.UTF_8);
+            valueOffset += keyLength;
+        }
+        byte[] value = new byte[position + recordSize - valueOffset];
+        buffer.get(valueOffset, value);
+
+        return new Entry(key, value, text, appendedAt, segment.id, position + recordSize);
+    }
+
+    private void dropOldestSegment() {
+        Segment oldest = segments.peekFirst();
+        log.warn("Spill queue full, dropping {} records of the oldest segment", oldest.records);
+        increment(droppedCounter, oldest.records);
+
+        Set<String> keys = new HashSet<>();
+        for (int position = oldest.readOffset; position < oldest.writeOffset; ) {
+            Entry entry = read(oldest, position);
+            if (entry.key() != null && keys.add(entry.key())) {
+                dropListener.accept(entry.key());
+            }
+            position = entry.nextOffset();
+        }
+        removeFirstSegment();
+    }
+
+    private void removeFirstSegment() {
+        Segment segment = segments.removeFirst();
+        pendingRecords -= segment.records;
+        pendingBytes -= segment.writeOffset - segment.readOffset;
+        try {
+            segment.channel.close();
+            Files.deleteIfExists(segment.file);
+        } catch (IOException e) {
+            log.warn("Failed to delete spill segment {}", segment.file, e);
+        }
+    }
+
+    private void rewind(Segment segment) {
+        segment.readOffset = HEADER_SIZE;
+        segment.writeOffset = HEADER_SIZE;
+        segment.buffer.putInt(HEADER_SIZE, 0);
+        segment.buffer.putInt(READ_OFFSET, HEADER_SIZE);
+    }
+
+    private Segment createSegment(long id) throws IOException {
+        Path file = directory.resolve(String.format("spill-%020d.log", id));
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+
+        Segment segment = new Segment(id, file, channel, buffer);
+        rewind(segment);
+        segments.addLast(segment);
+        return segment;
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                    .filter(file -> file.getFileName().toString().matches("spill-\\d{20}\\.log"))
+                    .sorted()
+                    .toList();
+        }
+
+        for (Path file : files) {
+            long id = Long.parseLong(file.getFileName().toString().substring(6, 26));
+            nextSegmentId = id + 1;
+
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() < HEADER_SIZE) {
+                channel.close();
+                Files.delete(file);
+                continue;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int readOffset = buffer.getInt(READ_OFFSET);
+            if (buffer.getInt(0) != MAGIC || readOffset < HEADER_SIZE || readOffset > buffer.limit()) {
+                log.warn("Ignoring spill segment {} with an invalid header", file);
+                channel.close();
+                continue;
+            }
+
+            Segment segment = new Segment(id, file, channel, buffer);
+            segment.readOffset = readOffset;
+            segment.writeOffset = scan(segment);
+            if (segment.records == 0) {
+                channel.close();
+                Files.delete(file);
+                continue;
+            }
+            segments.addLast(segment);
+            pendingRecords += segment.records;
+            pendingBytes += segment.writeOffset - segment.readOffset;
+        }
+
+        if (pendingRecords > 0) {
+            log.info("Recovered {} spilled records in {} segments", pendingRecords, segments.size());
+        }
+    }
+
+    /**
+     * Counts the records after the read offset
+     *
+     * @return Offset after the last complete record
+     */
+    private static int scan(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = segment.readOffset;
+        while (position + 4 <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            if (length < RECORD_OVERHEAD - 4 || position + 4L + length > buffer.limit()) {
+                break;
+            }
+            position += 4 + length;
+            segment.records++;
+        }
+        return position;
+    }
+
+    private static void increment(Counter counter, long amount) {
+        if (counter != null && amount > 0) {
+            counter.increment(amount);
+        }
+    }
+
+    private static final class Segment {
+        final long id;
+        final Path file;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        int readOffset;
+        int writeOffset;
+        long records;
+
+        Segment(long id, Path file, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.spgroup.stream;
+
+import com.spgroup.message.ScoreUpdateJsonWriter;
+import com.spgroup.message.ScoreUpdateMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared fan-out of published score updates to stream subscribers
+ * <p>
+ * Subscribers are indexed by event ID, so a publish only touches the subscribers of its event
+ * and those of all events. The update is serialized to JSON once and the same bytes are handed
+ * to every subscriber. Each subscriber drains a bounded buffer of {@code app.stream.buffer-size}
+ * updates; when a slow client lets it fill up, its oldest updates are dropped, the others are
+ * not affected.
+ */
+@Component
+public class ScoreFanOut {
+
+    /**
+     * Score update as delivered to subscribers
+     *
+     * @param json UTF-8 JSON of the {@link ScoreUpdateMessage}, shared by all subscribers, must not be modified
+     */
+    public record ScoreUpdate(String eventId, byte[] json) {
+    }
+
+    private final int bufferSize;
+    private final Map<String, Set<Subscriber>> byEvent = new ConcurrentHashMap<>();
+    private final Set<Subscriber> allEvents = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final Counter publishedCounter;
+    private final Counter droppedCounter;
+
+    public ScoreFanOut(@Value("${app.stream.buffer-size:64}") int bufferSize, MeterRegistry meterRegistry) {
+        this.bufferSize = bufferSize;
+        this.publishedCounter = meterRegistry.counter("stream.updates", "outcome", "published");
+        this.droppedCounter = meterRegistry.counter("stream.updates", "outcome", "dropped");
+        Gauge.builder("stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Connected score stream subscribers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hands the update to every subscriber of its event, never blocks
+     */
+    public void publish(ScoreUpdateMessage message) {
+        Set<Subscriber> subscribers = byEvent.get(message.eventId());
+        boolean noEventSubscribers = subscribers == null || subscribers.isEmpty();
+        if (noEventSubscribers && allEvents.isEmpty()) {
+            return;
+        }
+
+        ScoreUpdate update = new ScoreUpdate(message.eventId(), ScoreUpdateJsonWriter.toBytes(message));
+        if (!noEventSubscribers) {
+            subscribers.forEach(subscriber -> subscriber.emit(update));
+        }
+        allEvents.forEach(subscriber -> subscriber.emit(update));
+        publishedCounter.increment();
+    }
+
+    /**
+     * @param eventIds Events to receive updates for, all events if empty
+     * @return Cold stream of updates, the subscriber is registered on subscription and removed on cancel
+     */
+    public Flux<ScoreUpdate> subscribe(Set<String> eventIds) {
+        return Flux.defer(() -> {
+            Subscriber subscriber = new Subscriber(Set.copyOf(eventIds));
+            register(subscriber);
+            return subscriber.sink.asFlux()
+                    .onBackpressureBuffer(bufferSize, dropped -> droppedCounter.increment(),
+                            BufferOverflowStrategy.DROP_OLDEST)
+                    .doFinally(signal -> unregister(subscriber));
+        });
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void register(Subscriber subscriber) {
+        if (subscriber.eventIds.isEmpty()) {
+            allEvents.add(subscriber);
+        }
+        for (String eventId : subscriber.eventIds) {
+            byEvent.compute(eventId, (id, subscribers) -> {
+                Set<Subscriber> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+                set.add(subscriber);
+                return set;
+            });
+        }
+        subscriberCount.incrementAndGet();
+    }
+
+    private void unregister(Subscriber subscriber) {
+        allEvents.remove(subscriber);
+        for (String eventId : subscriber.eventIds) {
+            byEvent.computeIfPresent(eventId, (id, subscribers) -> {
+                subscribers.remove(subscriber);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+        subscriberCount.decrementAndGet();
+    }
+
+    private static final class Subscriber {
+        final Set<String> eventIds;
+        // Drained right away by the bounded buffer, so it never holds more than a few updates
+        final Sinks.Many<ScoreUpdate> sink = Sinks.many().unicast().onBackpressureBuffer();
+
+        Subscriber(Set<String> eventIds) {
+            this.eventIds = eventIds;
+        }
+
+        // Publishes come from many poll threads, a sink takes one emission at a time
+        synchronized void emit(ScoreUpdate update) {
+            sink.tryEmitNext(update);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.spgroup.stream;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Live score stream on its own Reactor Netty server ({@code app.stream.port})
+ * <p>
+ * {@code GET /events/stream?ids=1,2} streams the score updates of the events as Server-Sent
+ * Events, {@code GET /events/stream/ws?ids=1,2} as WebSocket text frames; without ids every
+ * update is streamed. Each message is the JSON published to Kafka. Connections cost no thread:
+ * updates come from the shared {@link ScoreFanOut}, SSE streams get a shared heartbeat comment
+ * so idle connections survive proxies.
+ * <p>
+ * Only created when {@code app.stream.enabled=true}. In cluster mode a node streams the events it polls.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.stream.enabled", havingValue = "true")
+public class ScoreStreamServer {
+
+    private static final byte[] SSE_DATA = ascii("data: ");
+    private static final byte[] SSE_END = ascii("\n\n");
+    private static final byte[] SSE_HEARTBEAT = ascii(":\n\n");
+
+    private final ScoreFanOut fanOut;
+    private final int port;
+    private final int maxSubscribers;
+    private final int maxIds;
+    private final Flux<Long> heartbeats;
+
+    private DisposableServer server;
+
+    public ScoreStreamServer(ScoreFanOut fanOut,
+                             @Value("${app.stream.port:8081}") int port,
+                             @Value("${app.stream.max-subscribers:50000}") int maxSubscribers,
+                             @Value("${app.stream.max-ids:1000}") int maxIds,
+                             @Value("${app.stream.heartbeat:15s}") Duration heartbeat) {
+        this.fanOut = fanOut;
+        this.port = port;
+        this.maxSubscribers = maxSubscribers;
+        this.maxIds = maxIds;
+        // One timer for all SSE streams
+        this.heartbeats = Flux.interval(heartbeat, heartbeat)
+                .onBackpressureDrop()
+                .share();
+    }
+
+    @PostConstruct
+    public void start() {
+        server = HttpServer.create()
+                .port(port)
+                .route(routes -> routes
+                        .get("/events/stream", this::sse)
+                        .get("/events/stream/ws", this::websocket))
+                .bindNow();
+        log.info("Score stream listening on port {}", server.port());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    /**
+     * @return Port the stream server is bound to
+     */
+    public int getPort() {
+        return server.port();
+    }
+
+    private Mono<Void> sse(HttpServerRequest request, HttpServerResponse response) {
+        Set<String> eventIds = eventIds(request);
+        Mono<Void> rejected = reject(eventIds, response);
+        if (rejected != null) {
+            return rejected;
+        }
+
+        Flux<ByteBuf> updates = fanOut.subscribe(eventIds)
+                .map(update -> Unpooled.wrappedBuffer(SSE_DATA, update.json(), SSE_END));
+        Flux<ByteBuf> keepAlive = heartbeats
+                .onBackpressureDrop()
+                .map(tick -> Unpooled.wrappedBuffer(SSE_HEARTBEAT));
+
+        // Flush every event, a stream is only useful without delay
+        return response.sse()
+                .send(Flux.merge(updates, keepAlive), buffer -> true)
+                .then();
+    }
+
+    private Mono<Void> websocket(HttpServerRequest request, HttpServerResponse response) {
+        Set<String> eventIds = eventIds(request);
+        Mono<Void> rejected = reject(eventIds, response);
+        if (rejected != null) {
+            return rejected;
+        }
+
+        return response.sendWebsocket((inbound, outbound) -> outbound.sendObject(
+                fanOut.subscribe(eventIds)
+                        .map(update -> new TextWebSocketFrame(Unpooled.wrappedBuffer(update.json())))));
+    }
+
+    /**
+     * @return Error response if the request can't be served, null otherwise
+     */
+    private Mono<Void> reject(Set<String> eventIds, HttpServerResponse response) {
+        if (eventIds.size() > maxIds) {
+            return response.status(400).sendString(Mono.just("At most " + maxIds + " ids per stream")).then();
+        }
+        if (fanOut.getSubscriberCount() >= maxSubscribers) {
+            log.warn("Score stream full with {} subscribers, rejecting a new one", maxSubscribers);
+            return response.status(503).send();
+        }
+        return null;
+    }
+
+    /**
+     * Event IDs from {@code ids=1,2} or {@code ids=1&ids=2}
+     */
+    private static Set<String> eventIds(HttpServerRequest request) {
+        Set<String> eventIds = new LinkedHashSet<>();
+        List<String> values = new QueryStringDecoder(request.uri()).parameters().getOrDefault("ids", List.of());
+        for (String value : values) {
+            for (String eventId : value.split(",")) {
+                if (!eventId.isBlank()) {
+                    eventIds.add(eventId.trim());
+                }
+            }
+        }
+        return eventIds;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,241 @@
+package com.spgroup.cluster;
+
+import com.spgroup.service.EventStateManager;
+import com.spgroup.service.SportsTrackerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests of cluster mode with several nodes in one process
+ */
+class ClusterCoordinatorTest {
+
+    private static final int EVENTS = 2_000;
+
+    private InMemoryCluster cluster;
+    private final Map<String, Node> nodes = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        cluster = new InMemoryCluster();
+    }
+
+    @Test
+    void testStatusChangesAreAppliedOnTheOwner() {
+        // Given
+        Node nodeA = startNode("node-a");
+        Node nodeB = startNode("node-b");
+
+        // When - every request arrives at node A
+        nodeA.coordinator().route(eventIds(), true);
+
+        // Then
+        assertEachEventLiveOnItsOwnerOnly();
+        assertTrue(nodeB.state().getLiveEventsCount() > 0);
+    }
+
+    @Test
+    void testOwnershipMovesWhenANodeJoins() {
+        // Given
+        Node nodeA = startNode("node-a");
+        nodeA.coordinator().route(eventIds(), true);
+
+        // When
+        Node nodeB = startNode("node-b");
+
+        // Then
+        assertEachEventLiveOnItsOwnerOnly();
+        assertEquals(EVENTS, nodeA.state().getLiveEventsCount() + nodeB.state().getLiveEventsCount());
+        verify(nodeA.tracker()).stopPollingForEvents(anyList());
+    }
+
+    @Test
+    void testOldOwnerStopsPollingBeforeNewOwnerStarts() {
+        // Given
+        Node nodeA = startNode("node-a");
+        nodeA.coordinator().route(eventIds(), true);
+
+        // When
+        Node nodeB = new Node("node-b");
+        InOrder polling = inOrder(nodeA.tracker(), nodeB.tracker());
+        nodeB.start();
+
+        // Then
+        polling.verify(nodeA.tracker()).stopPollingForEvents(anyList());
+        polling.verify(nodeB.tracker()).startPollingForEvents(anyList());
+    }
+
+    @Test
+    void testEventsAreHandedOffWhenANodeLeaves() {
+        // Given
+        Node nodeA = startNode("node-a");
+        startNode("node-b");
+        Node nodeC = startNode("node-c");
+        nodeA.coordinator().route(eventIds(), true);
+
+        // When
+        nodeC.coordinator().stop();
+        nodes.remove("node-c");
+
+        // Then
+        assertEquals(0, nodeC.state().getLiveEventsCount());
+        assertEachEventLiveOnItsOwnerOnly();
+        assertEquals(EVENTS, nodes.values().stream().mapToInt(node -> node.state().getLiveEventsCount()).sum());
+    }
+
+    @Test
+    void testNotLiveIsAppliedOnTheOwner() {
+        // Given
+        Node nodeA = startNode("node-a");
+        startNode("node-b");
+        nodeA.coordinator().route(eventIds(), true);
+
+        // When
+        nodeA.coordinator().route(eventIds(), false);
+
+        // Then
+        assertEquals(0, nodes.values().stream().mapToInt(node -> node.state().getLiveEventsCount()).sum());
+    }
+
+    @Test
+    void testMembershipChangeHandsOffOnTheSchedulerNotInTheCallback() {
+        // Given - node A runs its scheduled tasks only when the test says so
+        List<Runnable> scheduled = new ArrayList<>();
+        TaskScheduler taskScheduler = mock(TaskScheduler.class);
+        doAnswer(invocation -> {
+            scheduled.add(invocation.getArgument(0));
+            return null;
+        }).when(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+        Node nodeA = new Node("node-a", taskScheduler);
+        nodeA.start();
+        nodeA.coordinator().route(eventIds(), true);
+
+        // When - node B joins, node A's rebalance callback returns at once
+        startNode("node-b");
+
+        // Then - node A swapped its ring but still holds every event
+        assertEquals(EVENTS, nodeA.state().getLiveEventsCount());
+        assertFalse(eventIds().stream().allMatch(nodeA.coordinator()::isLocal));
+        verify(nodeA.tracker(), never()).stopPollingForEvents(anyList());
+
+        // When - the scheduled reconcile runs
+        scheduled.forEach(Runnable::run);
+
+        // Then
+        assertEachEventLiveOnItsOwnerOnly();
+    }
+
+    @Test
+    void testStopCancelsTheReconcileTask() {
+        // Given
+        ScheduledFuture<?> reconcileTask = mock(ScheduledFuture.class);
+        TaskScheduler taskScheduler = immediateScheduler();
+        doReturn(reconcileTask).when(taskScheduler).scheduleAtFixedRate(any(Runnable.class), any(Duration.class));
+        Node nodeA = new Node("node-a", taskScheduler);
+        nodeA.start();
+        nodeA.coordinator().scheduleReconcile(Duration.ofSeconds(30));
+
+        // When
+        nodeA.coordinator().stop();
+        nodes.remove("node-a");
+
+        // Then
+        verify(reconcileTask).cancel(false);
+    }
+
+    private Node startNode(String nodeId) {
+        Node node = new Node(nodeId);
+        node.start();
+        return node;
+    }
+
+    /**
+     * @return Scheduler running one-shot tasks right away, so membership changes are handled synchronously
+     */
+    private static TaskScheduler immediateScheduler() {
+        TaskScheduler taskScheduler = mock(TaskScheduler.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+        return taskScheduler;
+    }
+
+    private static List<String> eventIds() {
+        List<String> eventIds = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            eventIds.add("event" + i);
+        }
+        return eventIds;
+    }
+
+    private void assertEachEventLiveOnItsOwnerOnly() {
+        for (String eventId : eventIds()) {
+            List<Node> liveOn = nodes.values().stream()
+                    .filter(node -> node.state().isEventLive(eventId))
+                    .toList();
+
+            assertEquals(1, liveOn.size(), "event " + eventId + " live on " + liveOn.size() + " nodes");
+            assertTrue(liveOn.get(0).coordinator().isLocal(eventId));
+        }
+    }
+
+    /**
+     * A tracker node: its own state, a mocked poll scheduler side and a coordinator
+     */
+    private final class Node {
+
+        private final EventStateManager state = new EventStateManager();
+        private final SportsTrackerService tracker = mock(SportsTrackerService.class);
+        private final ClusterCoordinator coordinator;
+
+        Node(String nodeId) {
+            this(nodeId, immediateScheduler());
+        }
+
+        Node(String nodeId, TaskScheduler taskScheduler) {
+            coordinator = new ClusterCoordinator(new ClusterNode(nodeId, "http://" + nodeId),
+                    cluster.membership(), cluster, state, tracker, 64, taskScheduler);
+        }
+
+        void start() {
+            nodes.put(coordinator.getSelf().nodeId(), this);
+            cluster.register(coordinator);
+            coordinator.start();
+        }
+
+        EventStateManager state() {
+            return state;
+        }
+
+        SportsTrackerService tracker() {
+            return tracker;
+        }
+
+        ClusterCoordinator coordinator() {
+            return coordinator;
+        }
+    }
+}
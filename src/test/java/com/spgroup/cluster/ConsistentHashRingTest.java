@@ -0,0 +1,61 @@
+package com.spgroup.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for ConsistentHashRing
+ */
+class ConsistentHashRingTest {
+
+    private final ClusterNode nodeA = new ClusterNode("node-a", "http://a:8080");
+    private final ClusterNode nodeB = new ClusterNode("node-b", "http://b:8080");
+    private final ClusterNode nodeC = new ClusterNode("node-c", "http://c:8080");
+
+    @Test
+    void testEventsAreSpreadEvenly() {
+        // Given
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(nodeA, nodeB, nodeC), 128);
+        Map<ClusterNode, Integer> counts = new HashMap<>();
+
+        // When
+        for (int i = 0; i < 30_000; i++) {
+            counts.merge(ring.ownerOf("event" + i), 1, Integer::sum);
+        }
+
+        // Then - every node within 20% of its fair share
+        counts.values().forEach(count -> assertTrue(count > 8_000 && count < 12_000, "count=" + count));
+    }
+
+    @Test
+    void testAddingANodeOnlyMovesEventsToIt() {
+        // Given
+        ConsistentHashRing before = new ConsistentHashRing(List.of(nodeA, nodeB), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of(nodeA, nodeB, nodeC), 128);
+
+        // When & Then
+        for (int i = 0; i < 10_000; i++) {
+            String eventId = "event" + i;
+            ClusterNode owner = after.ownerOf(eventId);
+            assertTrue(owner.equals(nodeC) || owner.equals(before.ownerOf(eventId)));
+        }
+    }
+
+    @Test
+    void testOwnershipDoesNotDependOnNodeOrder() {
+        // Given
+        ConsistentHashRing first = new ConsistentHashRing(List.of(nodeA, nodeB, nodeC), 64);
+        ConsistentHashRing second = new ConsistentHashRing(List.of(nodeC, nodeA, nodeB), 64);
+
+        // When & Then
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(first.ownerOf("event" + i), second.ownerOf("event" + i));
+        }
+    }
+}
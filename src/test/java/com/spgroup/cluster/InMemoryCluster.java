@@ -0,0 +1,52 @@
+package com.spgroup.cluster;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * In-process stand-in for the Kafka membership group and the HTTP transport
+ * Membership changes are delivered synchronously to every member, status changes are
+ * applied directly on the owner's coordinator
+ */
+class InMemoryCluster implements ClusterTransport {
+
+    private final Map<ClusterNode, Consumer<List<ClusterNode>>> listeners = new LinkedHashMap<>();
+    private final Map<ClusterNode, ClusterCoordinator> coordinators = new LinkedHashMap<>();
+
+    void register(ClusterCoordinator coordinator) {
+        coordinators.put(coordinator.getSelf(), coordinator);
+    }
+
+    ClusterMembership membership() {
+        return new ClusterMembership() {
+            private ClusterNode self;
+
+            @Override
+            public void join(ClusterNode self, Consumer<List<ClusterNode>> listener) {
+                this.self = self;
+                listeners.put(self, listener);
+                broadcast();
+            }
+
+            @Override
+            public void leave() {
+                listeners.remove(self);
+                coordinators.remove(self);
+                broadcast();
+            }
+        };
+    }
+
+    @Override
+    public void send(ClusterNode owner, List<String> eventIds, boolean live) {
+        coordinators.get(owner).applyLocal(eventIds, live);
+    }
+
+    private void broadcast() {
+        List<ClusterNode> members = new ArrayList<>(listeners.keySet());
+        new ArrayList<>(listeners.values()).forEach(listener -> listener.accept(members));
+    }
+}
@@ -0,0 +1,140 @@
+package com.spgroup.cluster;
+
+import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
+import org.apache.kafka.clients.consumer.ConsumerPartitionAssignor.Assignment;
+import org.apache.kafka.clients.consumer.ConsumerPartitionAssignor.GroupAssignment;
+import org.apache.kafka.clients.consumer.ConsumerPartitionAssignor.GroupSubscription;
+import org.apache.kafka.clients.consumer.ConsumerPartitionAssignor.Subscription;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the membership assignor of KafkaClusterMembership
+ */
+class KafkaClusterMembershipTest {
+
+    private static final String TOPIC = "sports-tracker-cluster";
+
+    private final ClusterNode nodeA = new ClusterNode("node-a", "http://10.0.0.1:8080");
+    private final ClusterNode nodeB = new ClusterNode("node-b", "http://10.0.0.2:8080/tracker");
+    private final ClusterNode nodeC = new ClusterNode("node-c", "https://node-c.internal");
+
+    private final List<List<ClusterNode>> notified = new CopyOnWriteArrayList<>();
+    private KafkaClusterMembership.MembershipAssignor assignor;
+
+    @BeforeEach
+    void setUp() {
+        assignor = assignorFor(nodeA);
+    }
+
+    @Test
+    void testSubscriptionUserDataCarriesThisNode() {
+        // When
+        ByteBuffer userData = assignor.subscriptionUserData(Set.of(TOPIC));
+
+        // Then
+        assertEquals(List.of(nodeA), KafkaClusterMembership.decode(userData));
+        // Decoding leaves the buffer readable for the consumer
+        assertEquals(List.of(nodeA), KafkaClusterMembership.decode(userData));
+    }
+
+    @Test
+    void testMemberListRoundTrip() {
+        // When
+        List<ClusterNode> decoded = KafkaClusterMembership.decode(
+                KafkaClusterMembership.encode(List.of(nodeA, nodeB, nodeC)));
+
+        // Then
+        assertEquals(List.of(nodeA, nodeB, nodeC), decoded);
+        assertEquals(List.of(), KafkaClusterMembership.decode(null));
+    }
+
+    @Test
+    void testAssignSendsEveryMemberTheFullMemberList() {
+        // Given - three nodes subscribed with their own user data, in no particular order
+        Map<String, Subscription> subscriptions = new HashMap<>();
+        subscriptions.put("member-2", subscription(assignorFor(nodeC)));
+        subscriptions.put("member-0", subscription(assignorFor(nodeB)));
+        subscriptions.put("member-1", subscription(assignor));
+
+        // When
+        GroupAssignment groupAssignment = assignor.assign(cluster(3), new GroupSubscription(subscriptions));
+
+        // Then - same sorted member list for all, each partition assigned to exactly one member
+        Map<String, Assignment> assignments = groupAssignment.groupAssignment();
+        assertEquals(subscriptions.keySet(), assignments.keySet());
+
+        Set<TopicPartition> assigned = new HashSet<>();
+        for (Assignment assignment : assignments.values()) {
+            assertEquals(List.of(nodeA, nodeB, nodeC), KafkaClusterMembership.decode(assignment.userData()));
+            assertEquals(1, assignment.partitions().size());
+            assertTrue(assigned.addAll(assignment.partitions()));
+        }
+        assertEquals(Set.of(new TopicPartition(TOPIC, 0), new TopicPartition(TOPIC, 1), new TopicPartition(TOPIC, 2)),
+                assigned);
+    }
+
+    @Test
+    void testAssignWithMoreMembersThanPartitions() {
+        // Given
+        Map<String, Subscription> subscriptions = new HashMap<>();
+        subscriptions.put("member-0", subscription(assignor));
+        subscriptions.put("member-1", subscription(assignorFor(nodeB)));
+
+        // When
+        GroupAssignment groupAssignment = assignor.assign(cluster(1), new GroupSubscription(subscriptions));
+
+        // Then - the member without a partition still learns the membership
+        Assignment withoutPartition = groupAssignment.groupAssignment().get("member-1");
+        assertEquals(List.of(), withoutPartition.partitions());
+        assertEquals(List.of(nodeA, nodeB), KafkaClusterMembership.decode(withoutPartition.userData()));
+    }
+
+    @Test
+    void testOnAssignmentNotifiesTheMemberList() {
+        // When
+        assignor.onAssignment(new Assignment(List.of(), KafkaClusterMembership.encode(List.of(nodeA, nodeB))),
+                new ConsumerGroupMetadata("tracker"));
+        assignor.onAssignment(new Assignment(List.of(), null), new ConsumerGroupMetadata("tracker"));
+
+        // Then - an assignment without user data is not a membership change
+        assertEquals(List.of(List.of(nodeA, nodeB)), notified);
+    }
+
+    private KafkaClusterMembership.MembershipAssignor assignorFor(ClusterNode self) {
+        KafkaClusterMembership.MembershipAssignor membershipAssignor = new KafkaClusterMembership.MembershipAssignor();
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(KafkaClusterMembership.SELF_CONFIG, self);
+        configs.put(KafkaClusterMembership.LISTENER_CONFIG, (Consumer<List<ClusterNode>>) notified::add);
+        membershipAssignor.configure(configs);
+        return membershipAssignor;
+    }
+
+    private static Subscription subscription(KafkaClusterMembership.MembershipAssignor memberAssignor) {
+        return new Subscription(List.of(TOPIC), memberAssignor.subscriptionUserData(Set.of(TOPIC)));
+    }
+
+    private static Cluster cluster(int partitions) {
+        List<PartitionInfo> infos = new ArrayList<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            infos.add(new PartitionInfo(TOPIC, partition, null, null, null));
+        }
+        return new Cluster("test", List.of(), infos, Set.of(), Set.of());
+    }
+}
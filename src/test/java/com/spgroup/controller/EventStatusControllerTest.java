@@ -3,7 +3,9 @@ package com.spgroup.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.spgroup.dto.EventStatusRequest;
+import com.spgroup.model.ExternalApiResponse;
 import com.spgroup.service.EventStateManager;
+import com.spgroup.service.LatestScoreCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,6 +36,9 @@ class EventStatusControllerTest {
     @Autowired
     private EventStateManager eventStateManager;
 
+    @Autowired
+    private LatestScoreCache latestScores;
+
     @BeforeEach
     void setUp() {
         eventStateManager.clearAll();
@@ -96,6 +101,36 @@ class EventStatusControllerTest {
                 .andExpect(jsonPath("$.found", is(false)));
     }
 
+    @Test
+    void testGetEventScore() throws Exception {
+        // Given
+        latestScores.record("event123", ExternalApiResponse.builder().eventId("event123").currentScore("2:1").build());
+
+        // When & Then
+        mockMvc.perform(get("/events/event123/score"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.eventId", is("event123")))
+                .andExpect(jsonPath("$.currentScore", is("2:1")))
+                .andExpect(jsonPath("$.timestamp", notNullValue()));
+        mockMvc.perform(get("/events/nonexistent/score"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.found", is(false)));
+    }
+
+    @Test
+    void testGetEventScores() throws Exception {
+        // Given
+        latestScores.record("event1", ExternalApiResponse.builder().eventId("event1").currentScore("1:0").build());
+        latestScores.record("event2", ExternalApiResponse.builder().eventId("event2").currentScore("0:0").build());
+
+        // When & Then
+        mockMvc.perform(get("/events/scores").param("ids", "event2,nonexistent,event1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].eventId", is("event2")))
+                .andExpect(jsonPath("$[1].currentScore", is("1:0")));
+    }
+
     @Test
     void testGetAllLiveEvents() throws Exception {
         // Given
@@ -143,4 +178,54 @@ class EventStatusControllerTest {
                         .content(invalidRequest))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void testUpdateEventStatusBatchFromJsonArray() throws Exception {
+        // Given
+        String body = """
+                [
+                  { "eventId": "event1", "status": "live" },
+                  { "eventId": "event2", "status": "live" },
+                  { "status": "live" },
+                  { "eventId": "event1", "status": "not_live" }
+                ]
+                """;
+
+        // When & Then
+        mockMvc.perform(post("/events/status/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(4)))
+                .andExpect(jsonPath("$.succeeded", is(3)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.results[2].status", is("ERROR")))
+                .andExpect(jsonPath("$.results[3].status", is("NOT_LIVE")));
+
+        mockMvc.perform(get("/events/live"))
+                .andExpect(jsonPath("$.count", is(1)));
+    }
+
+    @Test
+    void testUpdateEventStatusBatchFromNdjson() throws Exception {
+        // Given
+        String body = """
+                {"eventId":"event1","status":"live"}
+                {"eventId":"event2","status":"unknown"}
+                {"eventId":"event3","status":"live"}
+                """;
+
+        // When & Then
+        mockMvc.perform(post("/events/status/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(3)))
+                .andExpect(jsonPath("$.results[0].eventId", is("event1")))
+                .andExpect(jsonPath("$.results[1].status", is("ERROR")))
+                .andExpect(jsonPath("$.results[2].status", is("LIVE")));
+
+        mockMvc.perform(get("/events/live"))
+                .andExpect(jsonPath("$.count", is(2)));
+    }
 }
@@ -0,0 +1,121 @@
+package com.spgroup.externalapi;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for CircuitBreaker
+ */
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new CircuitBreaker(4, 0.5, Duration.ofSeconds(10), 2, clock::get);
+    }
+
+    @Test
+    void testOpensOnceTheWindowIsFullAndFailureRateReached() {
+        // Given
+        call(false);
+        call(true);
+        call(false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        // When
+        call(true);
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void testOldOutcomesLeaveTheWindow() {
+        // Given - one failure in each window of 4
+        call(true);
+        call(false);
+        call(false);
+        call(false);
+
+        // When
+        call(true);
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenClosesAfterSuccessfulTrials() {
+        // Given
+        open();
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // When
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        boolean thirdTrial = breaker.tryAcquirePermission();
+        breaker.onSuccess();
+        breaker.onSuccess();
+
+        // Then
+        assertFalse(thirdTrial);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testFailedTrialOpensAgain() {
+        // Given
+        open();
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // When
+        call(true);
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void testCancelledTrialFreesItsSlot() {
+        // Given
+        open();
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+
+        // When
+        breaker.onIgnored();
+
+        // Then
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            call(true);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void call(boolean failure) {
+        assertTrue(breaker.tryAcquirePermission());
+        if (failure) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.spgroup.externalapi;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for HedgePolicy
+ */
+class HedgePolicyTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private SimpleMeterRegistry meterRegistry;
+    private HedgePolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        policy = new HedgePolicy("http://upstream:8080", 0.95, Duration.ofMillis(1), 5, meterRegistry);
+    }
+
+    @Test
+    void testNoHedgeUntilEnoughAnswersWereSeen() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> request = Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(50)).thenReturn("1:0");
+        });
+
+        // When
+        String result = policy.hedge(request).block(TIMEOUT);
+
+        // Then
+        assertEquals("1:0", result);
+        assertEquals(1, calls.get());
+        assertEquals(0, policy.getThresholdNanos());
+    }
+
+    @Test
+    void testSlowRequestIsHedgedAndCancelledWhenTheHedgeWins() {
+        // Given - p95 of the observed answers is 10ms
+        observe(100, Duration.ofMillis(10));
+        AtomicInteger calls = new AtomicInteger();
+        AtomicBoolean primaryCancelled = new AtomicBoolean();
+        Mono<String> request = Mono.defer(() -> calls.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofSeconds(2)).thenReturn("slow").doOnCancel(() -> primaryCancelled.set(true))
+                : Mono.just("fast"));
+
+        // When
+        String result = policy.hedge(request).block(TIMEOUT);
+
+        // Then
+        assertEquals("fast", result);
+        assertEquals(2, calls.get());
+        assertTrue(primaryCancelled.get());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(10), policy.getThresholdNanos());
+        assertEquals(1, counter("external-api.hedge.sent"));
+        assertEquals(1, counter("external-api.hedge.won"));
+    }
+
+    @Test
+    void testFastRequestIsNotHedged() {
+        // Given
+        observe(100, Duration.ofMillis(200));
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> request = Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.just("1:0");
+        });
+
+        // When
+        String result = policy.hedge(request).block(TIMEOUT);
+
+        // Then
+        assertEquals("1:0", result);
+        assertEquals(1, calls.get());
+        assertEquals(0, counter("external-api.hedge.sent"));
+    }
+
+    @Test
+    void testHedgesAreCappedByTheBudget() {
+        // Given - every first request is slow, every hedge fast
+        observe(100, Duration.ofMillis(5));
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> request = Mono.defer(() -> calls.incrementAndGet() % 2 == 1
+                ? Mono.delay(Duration.ofMillis(100)).thenReturn("slow")
+                : Mono.just("fast"));
+
+        // When - the budget holds 10 hedges and earns 0.05 per request
+        for (int i = 0; i < 11; i++) {
+            calls.set(0);
+            policy.hedge(request).block(TIMEOUT);
+        }
+
+        // Then
+        assertEquals(10, counter("external-api.hedge.sent"));
+        assertEquals(1, counter("external-api.hedge.budget-exhausted"));
+        assertEquals(11, counter("external-api.hedge.requests"));
+    }
+
+    private void observe(int answers, Duration latency) {
+        for (int i = 0; i < answers; i++) {
+            policy.recordLatency(latency.toNanos());
+        }
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+}
@@ -0,0 +1,55 @@
+package com.spgroup.externalapi;
+
+import com.spgroup.model.ExternalApiResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for the endpoints of MockApiController
+ */
+class MockApiControllerTest {
+
+    private MockApiController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new MockApiController();
+        // Scores never change, so the responses are deterministic
+        ReflectionTestUtils.setField(controller, "scoreChangeProbability", 0.0);
+    }
+
+    @Test
+    void testBatchReturnsOneResponsePerEventInRequestOrder() {
+        // When
+        ResponseEntity<List<ExternalApiResponse>> response =
+                controller.getMockEventDataBatch(List.of("event3", "event1", "event2"));
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<ExternalApiResponse> body = response.getBody();
+        assertEquals(List.of("event3", "event1", "event2"),
+                body.stream().map(ExternalApiResponse::getEventId).toList());
+        assertEquals(List.of("0:0", "0:0", "0:0"),
+                body.stream().map(ExternalApiResponse::getCurrentScore).toList());
+    }
+
+    @Test
+    void testBatchSharesTheScoresOfTheSingleEventEndpoint() {
+        // Given - event1 already has a score from the single endpoint
+        String etag = controller.getMockEventData("event1", null).getHeaders().getETag();
+
+        // When
+        List<ExternalApiResponse> body = controller.getMockEventDataBatch(List.of("event1")).getBody();
+
+        // Then - the batch did not change it, the single endpoint still answers not modified
+        assertEquals("0:0", body.get(0).getCurrentScore());
+        assertEquals(HttpStatus.NOT_MODIFIED, controller.getMockEventData("event1", etag).getStatusCode());
+    }
+}
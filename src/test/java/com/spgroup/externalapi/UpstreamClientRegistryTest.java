@@ -0,0 +1,62 @@
+package com.spgroup.externalapi;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit tests for UpstreamClientRegistry
+ */
+class UpstreamClientRegistryTest {
+
+    private UpstreamClientRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        ExternalApiClientConfiguration config = ExternalApiClientConfiguration.builder()
+                .timeout(Duration.ofSeconds(5))
+                .poolMaxConnections(10)
+                .poolPendingAcquireMax(20)
+                .poolPendingAcquireTimeout(Duration.ofSeconds(5))
+                .poolMaxIdleTime(Duration.ofSeconds(30))
+                .poolEvictionInterval(Duration.ofSeconds(10))
+                .poolHttp2(false)
+                .build();
+
+        registry = new UpstreamClientRegistry(WebClient.builder(), config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.destroy();
+    }
+
+    @Test
+    void testSameHostSharesClient() {
+        // When
+        WebClient first = registry.forUrl("http://localhost:8080/mock/events/data");
+        WebClient second = registry.forUrl("http://localhost:8080/mock/events/data/batch");
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, registry.getClientCount());
+    }
+
+    @Test
+    void testDifferentHostsGetOwnClient() {
+        // When
+        WebClient first = registry.forUrl("http://localhost:8080/mock/events/data");
+        WebClient second = registry.forUrl("http://localhost:9090/mock/events/data");
+
+        // Then
+        assertNotSame(first, second);
+        assertEquals(2, registry.getClientCount());
+    }
+}
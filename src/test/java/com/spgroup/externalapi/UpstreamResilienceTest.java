@@ -0,0 +1,165 @@
+package com.spgroup.externalapi;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for UpstreamResilience
+ */
+class UpstreamResilienceTest {
+
+    private static final String URL = "http://upstream:8080/data";
+
+    private SimpleMeterRegistry meterRegistry;
+    private UpstreamResilience resilience;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        resilience = new UpstreamResilience(config(2, 1), meterRegistry);
+    }
+
+    @Test
+    void testUpstreamFailuresAreRetriedOnce() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> calls.incrementAndGet() < 3
+                ? Mono.error(serverError())
+                : Mono.just("2:1"));
+
+        // When
+        String result = resilience.protect(URL, call).block();
+
+        // Then - the first attempt and two retries
+        assertEquals("2:1", result);
+        assertEquals(3, calls.get());
+        assertEquals(2, meterRegistry.get("external-api.retries").tag("outcome", "retried").counter().count());
+    }
+
+    @Test
+    void testClientErrorsAreNotRetried() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.error(WebClientResponseException.create(HttpStatus.NOT_FOUND, "Not Found", new HttpHeaders(),
+                    new byte[0], null));
+        });
+
+        // When & Then
+        assertThrows(WebClientResponseException.class, () -> resilience.protect(URL, call).block());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testEmptyRetryBudgetStopsRetries() {
+        // Given - no refill and a single token
+        resilience = new UpstreamResilience(ExternalApiClientConfiguration.builder()
+                .timeout(Duration.ofSeconds(1))
+                .retryAttempts(3)
+                .retryInitialBackoff(Duration.ofMillis(1))
+                .retryMaxBackoff(Duration.ofMillis(1))
+                .retryBudgetRatio(0.0)
+                .retryBudgetMinPerSecond(0.0)
+                .retryBudgetMaxTokens(1)
+                .circuitBreakerWindowSize(100)
+                .circuitBreakerFailureRateThreshold(1.0)
+                .circuitBreakerOpenDuration(Duration.ofSeconds(10))
+                .circuitBreakerHalfOpenCalls(1)
+                .bulkheadMaxConcurrentCalls(10)
+                .hedgeEnabled(false)
+                .build(), meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.error(serverError());
+        });
+
+        // When
+        assertThrows(WebClientResponseException.class, () -> resilience.protect(URL, call).block());
+        assertThrows(WebClientResponseException.class, () -> resilience.protect(URL, call).block());
+
+        // Then - one retry for both polls together
+        assertEquals(3, calls.get());
+        assertEquals(2, meterRegistry.get("external-api.retries").tag("outcome", "budget-exhausted").counter().count());
+    }
+
+    @Test
+    void testOpenCircuitRejectsWithoutCalling() {
+        // Given - every attempt fails, the window of 4 fills after two polls
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> failing = Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.error(serverError());
+        });
+        for (int i = 0; i < 2; i++) {
+            assertThrows(RuntimeException.class, () -> resilience.protect(URL, failing).block());
+        }
+        int callsBeforeOpen = calls.get();
+
+        // When
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> resilience.protect(URL, failing).block());
+
+        // Then
+        assertInstanceOf(UpstreamRejectedException.class, error);
+        assertEquals(callsBeforeOpen, calls.get());
+        assertEquals(CircuitBreaker.State.OPEN, resilience.getState(URL));
+        assertEquals(1, meterRegistry.get("external-api.circuit-breaker.state").tag("host", "http://upstream:8080")
+                .gauge().value());
+        assertEquals(1, meterRegistry.get("external-api.rejected").tag("reason", "circuit-open").counter().count());
+    }
+
+    @Test
+    void testFullBulkheadRejectsFast() {
+        // Given - a call that never completes holds the only permit
+        Sinks.One<String> pending = Sinks.one();
+        resilience.protect(URL, pending.asMono()).subscribe();
+
+        // When
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> resilience.protect(URL, Mono.just("1:0")).block());
+
+        // Then
+        assertInstanceOf(UpstreamRejectedException.class, error);
+        assertEquals("bulkhead-full", ((UpstreamRejectedException) error).getReason());
+        pending.tryEmitValue("1:0");
+        assertEquals("1:0", resilience.protect(URL, Mono.just("1:0")).block());
+    }
+
+    private static ExternalApiClientConfiguration config(int retryAttempts, int maxConcurrentCalls) {
+        return ExternalApiClientConfiguration.builder()
+                .timeout(Duration.ofSeconds(1))
+                .retryAttempts(retryAttempts)
+                .retryInitialBackoff(Duration.ofMillis(1))
+                .retryMaxBackoff(Duration.ofMillis(5))
+                .retryBudgetRatio(0.1)
+                .retryBudgetMinPerSecond(5.0)
+                .retryBudgetMaxTokens(100)
+                .circuitBreakerWindowSize(4)
+                .circuitBreakerFailureRateThreshold(0.5)
+                .circuitBreakerOpenDuration(Duration.ofSeconds(10))
+                .circuitBreakerHalfOpenCalls(1)
+                .bulkheadMaxConcurrentCalls(maxConcurrentCalls)
+                .hedgeEnabled(false)
+                .build();
+    }
+
+    private static WebClientResponseException serverError() {
+        return WebClientResponseException.create(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", new HttpHeaders(),
+                new byte[0], null);
+    }
+}
@@ -0,0 +1,241 @@
+package com.spgroup.journal;
+
+import com.spgroup.model.LiveEvent;
+import com.spgroup.service.EventStateManager;
+import com.spgroup.service.SportsTrackerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for StateJournal
+ */
+class StateJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testLiveEventsAreRestoredAfterCrash() throws Exception {
+        // Given
+        EventStateManager before = new EventStateManager();
+        openJournal(before, DataSize.ofMegabytes(1));
+        before.markEventAsLive("event1");
+        before.markEventAsLive("event2");
+        before.markEventAsLive("event3");
+        before.markEventAsNotLive("event2");
+        before.removeEvent("event3");
+
+        // When - restart without closing the journal
+        EventStateManager after = new EventStateManager();
+        SportsTrackerService sportsTrackerService = openJournal(after, DataSize.ofMegabytes(1));
+
+        // Then
+        assertEquals(Set.of("event1"), liveIds(after));
+        verify(sportsTrackerService).startPollingForEvents(anyList());
+    }
+
+    @Test
+    void testTransitionsAfterSnapshotAreReplayedOnTopOfIt() throws Exception {
+        // Given
+        EventStateManager before = new EventStateManager();
+        StateJournal journal = openJournal(before, DataSize.ofMegabytes(1), mock(SportsTrackerService.class));
+        before.markEventAsLive("event1");
+        before.markEventAsLive("event2");
+        journal.compact();
+        before.markEventAsNotLive("event1");
+        before.markEventAsLive("event3");
+
+        // When
+        EventStateManager after = new EventStateManager();
+        openJournal(after, DataSize.ofMegabytes(1));
+
+        // Then
+        assertEquals(Set.of("event2", "event3"), liveIds(after));
+    }
+
+    @Test
+    void testFullSegmentIsCompacted() throws Exception {
+        // Given - a 4KB segment holds about 300 records
+        EventStateManager before = new EventStateManager();
+        openJournal(before, DataSize.ofKilobytes(4));
+        for (int i = 0; i < 1000; i++) {
+            before.markEventAsLive("event" + i);
+            if (i % 2 == 0) {
+                before.markEventAsNotLive("event" + i);
+            }
+        }
+
+        // When
+        EventStateManager after = new EventStateManager();
+        openJournal(after, DataSize.ofKilobytes(4));
+
+        // Then
+        assertEquals(500, after.getLiveEventsCount());
+        assertEquals(liveIds(before), liveIds(after));
+    }
+
+    @Test
+    void testRestoresManyLiveEvents() throws Exception {
+        // Given
+        EventStateManager before = new EventStateManager();
+        openJournal(before, DataSize.ofMegabytes(8));
+        List<String> eventIds = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            eventIds.add("event-" + i);
+        }
+        before.markEventsAsLive(eventIds);
+
+        // When
+        EventStateManager after = new EventStateManager();
+        SportsTrackerService sportsTrackerService = openJournal(after, DataSize.ofMegabytes(8));
+
+        // Then
+        assertEquals(100_000, after.getLiveEventsCount());
+        verify(sportsTrackerService).startPollingForEvents(argThat(events -> events.size() == 100_000));
+    }
+
+    @Test
+    void testFullSegmentIsCompactedOnTheCompactorNotInTheTransition() throws Exception {
+        // Given - compactions only run when the test runs them
+        List<Runnable> compactions = new ArrayList<>();
+        EventStateManager before = new EventStateManager();
+        openJournal(before, DataSize.ofKilobytes(4), mock(SportsTrackerService.class), capturingCompactor(compactions));
+        long snapshotSize = Files.size(directory.resolve("snapshot.bin"));
+
+        // When - more records than a segment holds
+        for (int i = 0; i < 1000; i++) {
+            before.markEventAsLive("event" + i);
+        }
+
+        // Then - the transitions only handed the compaction over
+        assertEquals(1, compactions.size());
+        assertEquals(snapshotSize, Files.size(directory.resolve("snapshot.bin")));
+
+        // When - the compaction runs, then the process restarts
+        compactions.forEach(Runnable::run);
+        EventStateManager after = new EventStateManager();
+        openJournal(after, DataSize.ofKilobytes(4));
+
+        // Then
+        assertEquals(liveIds(before), liveIds(after));
+    }
+
+    @Test
+    void testTransitionsOverTheOverflowCapAreDroppedAndCounted() throws Exception {
+        // Given - the compaction is held back, two 4KB segments hold about 700 records
+        List<Runnable> compactions = new ArrayList<>();
+        EventStateManager before = new EventStateManager();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StateJournal journal = new StateJournal(before, mock(SportsTrackerService.class), meterRegistry,
+                capturingCompactor(compactions), directory, DataSize.ofKilobytes(4), Duration.ofMinutes(5), 100);
+        journal.recover();
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            before.markEventAsLive("event" + i);
+        }
+
+        // Then
+        long dropped = journal.getDroppedRecords();
+        assertTrue(dropped > 0);
+        assertEquals(dropped, meterRegistry.get("journal.records.dropped").counter().count());
+
+        // When - the compaction catches up, then the process restarts
+        compactions.forEach(Runnable::run);
+        EventStateManager after = new EventStateManager();
+        openJournal(after, DataSize.ofKilobytes(4));
+
+        // Then - everything but the dropped transitions was kept
+        assertEquals(1000 - dropped, after.getLiveEventsCount());
+    }
+
+    @Test
+    void testCloseCancelsTheSnapshotTaskAndStopsTheCompactor() throws Exception {
+        // Given
+        ScheduledFuture<?> snapshotTask = mock(ScheduledFuture.class);
+        ScheduledExecutorService compactor = immediateCompactor();
+        doReturn(snapshotTask).when(compactor)
+                .scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+        StateJournal journal = openJournal(new EventStateManager(), DataSize.ofMegabytes(1),
+                mock(SportsTrackerService.class), compactor);
+
+        // When
+        journal.close();
+
+        // Then
+        verify(snapshotTask).cancel(false);
+        verify(compactor).shutdown();
+    }
+
+    private SportsTrackerService openJournal(EventStateManager eventStateManager, DataSize segmentSize) throws Exception {
+        SportsTrackerService sportsTrackerService = mock(SportsTrackerService.class);
+        openJournal(eventStateManager, segmentSize, sportsTrackerService);
+        return sportsTrackerService;
+    }
+
+    private StateJournal openJournal(EventStateManager eventStateManager, DataSize segmentSize,
+                                     SportsTrackerService sportsTrackerService) throws Exception {
+        return openJournal(eventStateManager, segmentSize, sportsTrackerService, immediateCompactor());
+    }
+
+    private StateJournal openJournal(EventStateManager eventStateManager, DataSize segmentSize,
+                                     SportsTrackerService sportsTrackerService, ScheduledExecutorService compactor)
+            throws Exception {
+        StateJournal journal = new StateJournal(eventStateManager, sportsTrackerService, new SimpleMeterRegistry(),
+                compactor, directory, segmentSize, Duration.ofMinutes(5), 100_000);
+        journal.recover();
+        return journal;
+    }
+
+    /**
+     * @return Compactor running the compactions handed to it right away
+     */
+    private static ScheduledExecutorService immediateCompactor() {
+        ScheduledExecutorService compactor = mock(ScheduledExecutorService.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(compactor).execute(any(Runnable.class));
+        return compactor;
+    }
+
+    /**
+     * @return Compactor holding the compactions handed to it in the list
+     */
+    private static ScheduledExecutorService capturingCompactor(List<Runnable> compactions) {
+        ScheduledExecutorService compactor = mock(ScheduledExecutorService.class);
+        doAnswer(invocation -> compactions.add(invocation.getArgument(0)))
+                .when(compactor).execute(any(Runnable.class));
+        return compactor;
+    }
+
+    private static Set<String> liveIds(EventStateManager eventStateManager) {
+        return eventStateManager.getAllLiveEvents().stream()
+                .map(LiveEvent::getEventId)
+                .collect(Collectors.toSet());
+    }
+}
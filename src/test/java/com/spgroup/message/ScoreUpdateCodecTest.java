@@ -0,0 +1,91 @@
+package com.spgroup.message;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for ScoreUpdateCodec
+ */
+class ScoreUpdateCodecTest {
+
+    private static final Instant TIMESTAMP = Instant.parse("2026-03-14T15:09:26.535897Z");
+
+    @Test
+    void testPairScoreRoundTripsInFewBytes() throws Exception {
+        // Given
+        ScoreUpdateMessage message = ScoreUpdateMessage.of("event123", "2:1", TIMESTAMP);
+
+        // When
+        byte[] encoded = ScoreUpdateCodec.encode(message);
+        ScoreUpdateMessage decoded = ScoreUpdateCodec.decode(encoded);
+
+        // Then
+        assertEquals(message, decoded);
+        assertEquals(TIMESTAMP, decoded.toInstant());
+        assertEquals(22, encoded.length);
+        assertTrue(encoded.length * 4 < new ObjectMapper().writeValueAsBytes(message).length);
+    }
+
+    @Test
+    void testNonCanonicalScoresAreKeptAsText() {
+        for (String score : new String[]{"02:1", "2-1", "1:", "-1:0", "1234567890:0", "", null}) {
+            // Given
+            ScoreUpdateMessage message = new ScoreUpdateMessage("event1", score, 1L, "other-source");
+
+            // When
+            ScoreUpdateMessage decoded = ScoreUpdateCodec.decode(ScoreUpdateCodec.encode(message));
+
+            // Then
+            assertEquals(message, decoded);
+        }
+    }
+
+    @Test
+    void testHeaderCarriesMagicAndVersion() {
+        // Given
+        byte[] encoded = ScoreUpdateCodec.encode(ScoreUpdateMessage.of("event1", "0:0", TIMESTAMP));
+
+        // When
+        encoded[1] = 2;
+
+        // Then
+        assertEquals(ScoreUpdateCodec.MAGIC, encoded[0]);
+        assertFalse(encoded[0] == '{');
+        assertThrows(IllegalArgumentException.class, () -> ScoreUpdateCodec.decode(encoded));
+        assertThrows(IllegalArgumentException.class, () -> ScoreUpdateCodec.decode("{}".getBytes()));
+    }
+
+    @Test
+    void testTruncatedRecordIsRejected() {
+        // Given
+        byte[] encoded = ScoreUpdateCodec.encode(ScoreUpdateMessage.of("event1", "3:2", TIMESTAMP));
+        byte[] truncated = java.util.Arrays.copyOf(encoded, encoded.length - 1);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> ScoreUpdateCodec.decode(truncated));
+    }
+
+    @Test
+    void testJsonFormatKeepsTheExistingFields() throws Exception {
+        // Given
+        ScoreUpdateMessage message = ScoreUpdateMessage.of("event1", "3:2", TIMESTAMP);
+
+        // When
+        JsonNode json = new ObjectMapper().readTree(new ObjectMapper().writeValueAsString(message));
+
+        // Then
+        assertEquals("event1", json.get("eventId").asText());
+        assertEquals("3:2", json.get("currentScore").asText());
+        assertEquals(TIMESTAMP.toString(), json.get("timestamp").asText());
+        assertEquals(ScoreUpdateMessage.SOURCE, json.get("source").asText());
+        assertEquals(4, json.size());
+    }
+}
@@ -0,0 +1,89 @@
+package com.spgroup.message;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for ScoreUpdateJsonWriter
+ */
+class ScoreUpdateJsonWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testWritesTheSameJsonAsJackson() throws Exception {
+        // Given
+        ScoreUpdateMessage message = ScoreUpdateMessage.of("event123", "2:1",
+                Instant.parse("2026-03-14T15:09:26.535897Z"));
+
+        // When
+        byte[] json = ScoreUpdateJsonWriter.toBytes(message);
+
+        // Then
+        assertEquals("{\"eventId\":\"event123\",\"currentScore\":\"2:1\","
+                        + "\"timestamp\":\"2026-03-14T15:09:26.535897Z\",\"source\":\"sports-tracker\"}",
+                new String(json, StandardCharsets.UTF_8));
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(message)), objectMapper.readTree(json));
+    }
+
+    @Test
+    void testEscapesAndEncodesStrings() throws Exception {
+        for (String value : new String[]{"a\"b\\c", "tab\tnl\nctl\u0001\u001f", "héllo €", "emoji 😀", "", null}) {
+            // Given
+            ScoreUpdateMessage message = new ScoreUpdateMessage(value, value, 0L, value);
+
+            // When
+            Map<?, ?> parsed = objectMapper.readValue(ScoreUpdateJsonWriter.toBytes(message), Map.class);
+
+            // Then
+            assertEquals(value, parsed.get("eventId"));
+            assertEquals(value, parsed.get("currentScore"));
+            assertEquals(value, parsed.get("source"));
+        }
+    }
+
+    @Test
+    void testTimestampMatchesInstantToString() throws Exception {
+        for (String timestamp : new String[]{"1970-01-01T00:00:00Z", "2024-02-29T23:59:59.999Z",
+                "2000-03-01T00:00:00.000001Z", "1969-12-31T23:59:59.5Z", "0001-01-01T00:00:00Z",
+                "+10000-01-01T00:00:00Z"}) {
+            // Given
+            Instant instant = Instant.parse(timestamp);
+
+            // When
+            Map<?, ?> parsed = objectMapper.readValue(
+                    ScoreUpdateJsonWriter.toBytes(ScoreUpdateMessage.of("event1", "0:0", instant)), Map.class);
+
+            // Then
+            assertEquals(instant.toString(), parsed.get("timestamp"));
+        }
+    }
+
+    @Test
+    void testLongValuesGrowTheBufferAndVirtualThreadsGetTheirOwn() throws Exception {
+        // Given
+        String longEventId = "event-" + "x".repeat(10_000);
+        AtomicReference<byte[]> fromVirtualThread = new AtomicReference<>();
+
+        // When
+        byte[] large = ScoreUpdateJsonWriter.toBytes(ScoreUpdateMessage.of(longEventId, "1:0", Instant.EPOCH));
+        byte[] small = ScoreUpdateJsonWriter.toBytes(ScoreUpdateMessage.of("event1", "1:0", Instant.EPOCH));
+        Thread.ofVirtual()
+                .start(() -> fromVirtualThread.set(
+                        ScoreUpdateJsonWriter.toBytes(ScoreUpdateMessage.of("event1", "1:0", Instant.EPOCH))))
+                .join();
+
+        // Then
+        assertEquals(longEventId, objectMapper.readValue(large, Map.class).get("eventId"));
+        assertEquals("{\"eventId\":\"event1\",\"currentScore\":\"1:0\",\"timestamp\":\"1970-01-01T00:00:00Z\","
+                + "\"source\":\"sports-tracker\"}", new String(small, StandardCharsets.UTF_8));
+        assertEquals(new String(small, StandardCharsets.UTF_8), new String(fromVirtualThread.get(), StandardCharsets.UTF_8));
+    }
+}
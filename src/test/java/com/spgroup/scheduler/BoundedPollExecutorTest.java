@@ -0,0 +1,87 @@
+package com.spgroup.scheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for BoundedPollExecutor
+ */
+class BoundedPollExecutorTest {
+
+    // Tasks handed to the pool, run by the test
+    private final List<Runnable> queued = new ArrayList<>();
+    private BoundedPollExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new BoundedPollExecutor(queued::add, 2);
+    }
+
+    @Test
+    void testPollsOverTheCapacityAreRejectedNotQueued() {
+        // Given
+        AtomicInteger runs = new AtomicInteger();
+        executor.execute(runs::incrementAndGet);
+        executor.execute(runs::incrementAndGet);
+
+        // When & Then
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(runs::incrementAndGet));
+        assertEquals(2, queued.size());
+        assertEquals(2, executor.getPendingCount());
+        assertEquals(1, executor.getRejectedCount());
+
+        // When - a queued poll runs, its place is free again
+        queued.removeFirst().run();
+        executor.execute(runs::incrementAndGet);
+
+        // Then
+        assertEquals(1, runs.get());
+        assertEquals(2, queued.size());
+    }
+
+    @Test
+    void testCapacityIsFreedWhenAPollFailsOrThePoolRejects() {
+        // Given - a failing poll
+        executor.execute(() -> {
+            throw new IllegalStateException("Poll failed");
+        });
+        assertThrows(IllegalStateException.class, () -> queued.removeFirst().run());
+
+        // When - the pool itself rejects
+        BoundedPollExecutor rejecting = new BoundedPollExecutor(task -> {
+            throw new RejectedExecutionException("Shut down");
+        }, 1);
+        assertThrows(RejectedExecutionException.class, () -> rejecting.execute(() -> {
+        }));
+
+        // Then
+        assertEquals(0, executor.getPendingCount());
+        assertEquals(0, rejecting.getPendingCount());
+        assertEquals(1, rejecting.getRejectedCount());
+    }
+
+    @Test
+    void testMetricsAreRegistered() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        // When
+        executor.bindTo(registry);
+        executor.execute(() -> {
+        });
+
+        // Then
+        assertEquals(1.0, registry.get("polling.executor.pending").gauge().value());
+        assertEquals(2.0, registry.get("polling.executor.capacity").gauge().value());
+        assertEquals(0.0, registry.get("polling.executor.rejected").functionCounter().count());
+    }
+}
@@ -0,0 +1,206 @@
+package com.spgroup.scheduler;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for HashedWheelPollScheduler
+ */
+class HashedWheelPollSchedulerTest {
+
+    private HashedWheelPollScheduler scheduler;
+    private final Map<String, AtomicInteger> fired = new ConcurrentHashMap<>();
+    private final List<Integer> bucketSizes = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new HashedWheelPollScheduler(10, 8);
+        scheduler.start(due -> {
+            bucketSizes.add(due.size());
+            due.forEach(handle -> fired.computeIfAbsent(handle.getEventId(), id -> new AtomicInteger()).incrementAndGet());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void testScheduledEventFiresPeriodically() throws Exception {
+        // When
+        scheduler.schedule("event1", 0, 20);
+        Thread.sleep(300);
+
+        // Then
+        assertTrue(firedCount("event1") >= 5);
+    }
+
+    @Test
+    void testIntervalLongerThanOneRotation() throws Exception {
+        // Given - wheel covers 8 ticks of 10ms, interval needs two rotations
+        scheduler.schedule("event1", 0, 150);
+
+        // When
+        Thread.sleep(220);
+
+        // Then
+        assertEquals(2, firedCount("event1"));
+    }
+
+    @Test
+    void testShortenedIntervalPullsNextPollForward() throws Exception {
+        // Given - next poll would only be a second after the first one
+        PollHandle handle = scheduler.schedule("event1", 0, 1000);
+        Thread.sleep(50);
+        assertEquals(1, firedCount("event1"));
+
+        // When
+        handle.setIntervalMs(20);
+        Thread.sleep(200);
+
+        // Then
+        assertTrue(firedCount("event1") >= 4);
+    }
+
+    @Test
+    void testCancelledEventStopsFiring() throws Exception {
+        // Given
+        PollHandle handle = scheduler.schedule("event1", 0, 20);
+        Thread.sleep(100);
+
+        // When
+        assertTrue(handle.cancel());
+        Thread.sleep(50);
+        int countAfterCancel = firedCount("event1");
+        Thread.sleep(100);
+
+        // Then
+        assertTrue(handle.isCancelled());
+        assertFalse(handle.cancel());
+        assertEquals(countAfterCancel, firedCount("event1"));
+        assertEquals(0, scheduler.getScheduledCount());
+    }
+
+    @Test
+    void testCancelBeforeFirstFire() throws Exception {
+        // Given
+        PollHandle handle = scheduler.schedule("event1", 50, 20);
+
+        // When
+        handle.cancel();
+        Thread.sleep(150);
+
+        // Then
+        assertEquals(0, firedCount("event1"));
+    }
+
+    @Test
+    void testEventsDueInSameTickFireAsOneBucket() throws Exception {
+        // Given
+        for (int i = 0; i < 100; i++) {
+            scheduler.schedule("event" + i, 50, 10_000);
+        }
+
+        // When
+        Thread.sleep(150);
+
+        // Then
+        assertEquals(100, fired.size());
+        assertTrue(bucketSizes.stream().anyMatch(size -> size > 1));
+        assertEquals(100, scheduler.getScheduledCount());
+    }
+
+    private int firedCount(String eventId) {
+        AtomicInteger count = fired.get(eventId);
+        return count == null ? 0 : count.get();
+    }
+
+    @Test
+    void testEvenPhaseStrategySpreadsEventsRegisteredTogether() throws Exception {
+        // Given - 10 ticks per interval, 10 events registered at once
+        HashedWheelPollScheduler spreadScheduler = new HashedWheelPollScheduler(10, 32, PhaseStrategy.EVEN);
+        List<Integer> spreadBucketSizes = new CopyOnWriteArrayList<>();
+        spreadScheduler.start(due -> spreadBucketSizes.add(due.size()));
+
+        try {
+            // When
+            for (int i = 0; i < 10; i++) {
+                spreadScheduler.scheduleSpread("event" + i, 0, 100);
+            }
+            Thread.sleep(350);
+
+            // Then - every tick fired a single event instead of all ten together
+            assertTrue(spreadBucketSizes.size() >= 20);
+            assertTrue(spreadBucketSizes.stream().allMatch(size -> size == 1));
+        } finally {
+            spreadScheduler.stop();
+        }
+    }
+
+    @Test
+    void testHashPhaseStrategyIsStablePerEvent() throws Exception {
+        // Given
+        HashedWheelPollScheduler hashScheduler = new HashedWheelPollScheduler(10, 32, PhaseStrategy.HASH);
+
+        // When
+        PollHandle first = hashScheduler.scheduleSpread("event1", 0, 1000);
+        PollHandle second = hashScheduler.scheduleSpread("event1", 0, 1000);
+
+        // Then
+        assertTrue(Math.abs(first.deadlineTick - second.deadlineTick) <= 1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEvenPhaseStrategyQueuesHandlesWithTheirSpread() {
+        // Given - not started, the handles stay in the pending queue
+        HashedWheelPollScheduler evenScheduler = new HashedWheelPollScheduler(10, 32, PhaseStrategy.EVEN);
+        HashedWheelPollScheduler noneScheduler = new HashedWheelPollScheduler(10, 32, PhaseStrategy.NONE);
+
+        // When
+        evenScheduler.scheduleSpread("event1", 0, 1000);
+        noneScheduler.scheduleSpread("event1", 0, 1000);
+
+        // Then - the spread is part of the handle the worker takes from the queue
+        PollHandle queued = ((Queue<PollHandle>) ReflectionTestUtils.getField(evenScheduler, "pendingSchedules")).peek();
+        assertEquals(100, queued.spreadTicks);
+        queued = ((Queue<PollHandle>) ReflectionTestUtils.getField(noneScheduler, "pendingSchedules")).peek();
+        assertEquals(0, queued.spreadTicks);
+    }
+
+    @Test
+    void testFiredPollsRecordScheduleDrift() throws Exception {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        scheduler.bindTo(registry);
+
+        // When
+        scheduler.schedule("event1", 0, 20);
+        scheduler.schedule("event2", 0, 20);
+        Thread.sleep(200);
+        scheduler.stop();
+
+        // Then - one sample per fired poll
+        Timer drift = registry.get("polling.schedule.drift").timer();
+        assertTrue(firedCount("event1") > 0);
+        assertEquals(firedCount("event1") + firedCount("event2"), drift.count());
+        assertTrue(drift.max(TimeUnit.MILLISECONDS) < 1000);
+    }
+}
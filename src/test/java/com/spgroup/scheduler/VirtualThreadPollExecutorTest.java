@@ -0,0 +1,113 @@
+package com.spgroup.scheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for VirtualThreadPollExecutor
+ */
+class VirtualThreadPollExecutorTest {
+
+    private VirtualThreadPollExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new VirtualThreadPollExecutor(2, Duration.ofMillis(20));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void testPollsBeyondTheLimitAreSkippedNotQueued() throws InterruptedException {
+        // Given - two polls hold the limit
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        Runnable poll = () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            awaitQuietly(release);
+        };
+        executor.execute(poll);
+        executor.execute(poll);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When - the same events come due again while the upstream is slow
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(poll));
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(poll));
+
+        // Then - the triggers were rejected right away, nothing waits for the limit
+        assertEquals(2, executor.getActiveCount());
+        assertEquals(2, executor.getSkippedCount());
+
+        release.countDown();
+        awaitIdle();
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void testLimitIsFreedWhenAPollCompletesOrFails() throws InterruptedException {
+        // Given
+        CountDownLatch done = new CountDownLatch(3);
+        executor.execute(done::countDown);
+        executor.execute(() -> {
+            done.countDown();
+            throw new IllegalStateException("Poll failed");
+        });
+        awaitIdle();
+
+        // When
+        executor.execute(done::countDown);
+
+        // Then
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        awaitIdle();
+        assertEquals(0, executor.getSkippedCount());
+    }
+
+    @Test
+    void testMetricsAreRegistered() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        // When
+        executor.bindTo(registry);
+        executor.execute(() -> {
+        });
+
+        // Then
+        assertEquals(2.0, registry.get("polling.virtual.max-concurrency").gauge().value());
+        assertEquals(0.0, registry.get("polling.virtual.skipped").functionCounter().count());
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.getActiveCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, executor.getActiveCount());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
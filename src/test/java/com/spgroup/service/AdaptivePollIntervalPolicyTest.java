@@ -0,0 +1,34 @@
+package com.spgroup.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for AdaptivePollIntervalPolicy
+ */
+class AdaptivePollIntervalPolicyTest {
+
+    private final AdaptivePollIntervalPolicy policy = new AdaptivePollIntervalPolicy(true, 10000, 60000, 2.0);
+
+    @Test
+    void testUnchangedScoreBacksOffUpToMaximum() {
+        // When & Then
+        assertEquals(20000, policy.nextInterval(10000, false));
+        assertEquals(40000, policy.nextInterval(20000, false));
+        assertEquals(60000, policy.nextInterval(40000, false));
+        assertEquals(60000, policy.nextInterval(60000, false));
+    }
+
+    @Test
+    void testChangedScoreSnapsBackToMinimum() {
+        assertEquals(10000, policy.nextInterval(60000, true));
+    }
+
+    @Test
+    void testInvalidRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptivePollIntervalPolicy(true, 60000, 10000, 2.0));
+    }
+}
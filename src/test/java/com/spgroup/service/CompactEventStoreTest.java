@@ -0,0 +1,93 @@
+package com.spgroup.service;
+
+import com.spgroup.model.LiveEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for CompactEventStore
+ */
+class CompactEventStoreTest {
+
+    private final CompactEventStore store = new CompactEventStore();
+
+    @Test
+    void testStoresEventsAsMillis() {
+        // Given
+        Instant updated = Instant.parse("2026-03-14T15:09:26.535897Z");
+
+        // When
+        store.put(event("event1", updated, null));
+        store.put(event("évènement-😀", updated, updated.plusSeconds(10)));
+
+        // Then
+        LiveEvent event1 = store.get("event1");
+        assertEquals("event1", event1.getEventId());
+        assertFalse(event1.isLive());
+        assertEquals(Instant.parse("2026-03-14T15:09:26.535Z"), event1.getLastUpdated());
+        assertNull(event1.getLastPolled());
+        assertEquals(Instant.parse("2026-03-14T15:09:36.535Z"), store.get("évènement-😀").getLastPolled());
+        assertNull(store.get("event2"));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void testRemoveAndReplace() {
+        // Given
+        store.put(event("event1", Instant.ofEpochMilli(1), null));
+
+        // When
+        store.put(event("event1", Instant.ofEpochMilli(2), null));
+        boolean removed = store.remove("event1");
+
+        // Then
+        assertTrue(removed);
+        assertFalse(store.remove("event1"));
+        assertNull(store.get("event1"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testMatchesAHashMapThroughGrowthAndReuse() {
+        // Given - random puts and removes over 20000 IDs, enough to grow and compact every array
+        Map<String, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // When
+        for (int i = 0; i < 200_000; i++) {
+            String eventId = "event" + random.nextInt(20_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(eventId) != null, store.remove(eventId));
+            } else {
+                long updated = random.nextInt(1_000_000);
+                store.put(event(eventId, Instant.ofEpochMilli(updated), null));
+                expected.put(eventId, updated);
+            }
+        }
+
+        // Then
+        assertEquals(expected.size(), store.size());
+        expected.forEach((eventId, updated) ->
+                assertEquals(updated, store.get(eventId).getLastUpdated().toEpochMilli()));
+        for (int i = 0; i < 20_000; i++) {
+            assertEquals(expected.containsKey("event" + i), store.get("event" + i) != null);
+        }
+    }
+
+    private static LiveEvent event(String eventId, Instant lastUpdated, Instant lastPolled) {
+        return LiveEvent.builder()
+                .eventId(eventId)
+                .lastUpdated(lastUpdated)
+                .lastPolled(lastPolled)
+                .build();
+    }
+}
@@ -6,6 +6,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -131,4 +136,115 @@ class EventStateManagerTest {
         // Then
         assertEquals(0, eventStateManager.getTotalEventsCount());
     }
+
+    @Test
+    void testMarkingTheSameEventLiveTwiceCountsOnce() {
+        // Given
+        eventStateManager.markEventAsLive("event1");
+
+        // When
+        eventStateManager.markEventAsLive("event1");
+
+        // Then
+        assertEquals(1, eventStateManager.getLiveEventsCount());
+        assertEquals(1, eventStateManager.getAllLiveEvents().size());
+    }
+
+    @Test
+    void testRemovedLiveEventIsNoLongerCounted() {
+        // Given
+        eventStateManager.markEventAsLive("event1");
+        eventStateManager.markEventAsLive("event2");
+
+        // When
+        eventStateManager.removeEvent("event1");
+
+        // Then
+        assertEquals(1, eventStateManager.getLiveEventsCount());
+        assertEquals("event2", eventStateManager.getAllLiveEvents().get(0).getEventId());
+    }
+
+    @Test
+    void testCompactHistoryKeepsEndedEventsOutOfTheMap() {
+        // Given
+        eventStateManager = new EventStateManager(true);
+        eventStateManager.markEventAsLive("event1");
+        eventStateManager.markEventAsLive("event2");
+        eventStateManager.updateLastPolled("event1");
+
+        // When
+        LiveEvent ended = eventStateManager.markEventAsNotLive("event1");
+
+        // Then
+        assertFalse(ended.isLive());
+        assertFalse(eventStateManager.getEvent("event1").isLive());
+        assertNotNull(eventStateManager.getEvent("event1").getLastPolled());
+        assertNotNull(eventStateManager.markEventAsNotLive("event1"));
+        assertEquals(2, eventStateManager.getTotalEventsCount());
+        assertEquals(1, eventStateManager.getLiveEventsCount());
+        assertTrue(eventStateManager.getHistoryFootprintBytes() > 0);
+    }
+
+    @Test
+    void testCompactHistoryEventGoesLiveAgain() {
+        // Given
+        eventStateManager = new EventStateManager(true);
+        eventStateManager.markEventAsLive("event1");
+        eventStateManager.markEventAsNotLive("event1");
+
+        // When
+        LiveEvent event = eventStateManager.markEventAsLive("event1");
+
+        // Then
+        assertTrue(event.isLive());
+        assertTrue(eventStateManager.isEventLive("event1"));
+        assertEquals(1, eventStateManager.getTotalEventsCount());
+
+        eventStateManager.removeEvent("event1");
+        assertNull(eventStateManager.getEvent("event1"));
+        assertEquals(0, eventStateManager.getTotalEventsCount());
+    }
+
+    @Test
+    void testLiveIndexStaysConsistentUnderConcurrentTransitions() throws Exception {
+        assertConsistentUnderConcurrentTransitions();
+    }
+
+    @Test
+    void testCompactHistoryStaysConsistentUnderConcurrentTransitions() throws Exception {
+        eventStateManager = new EventStateManager(true);
+        assertConsistentUnderConcurrentTransitions();
+    }
+
+    private void assertConsistentUnderConcurrentTransitions() throws Exception {
+        // Given - 8 threads flipping the same 50 events live and not live
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20_000; i++) {
+                    String eventId = "event" + random.nextInt(50);
+                    switch (random.nextInt(3)) {
+                        case 0 -> eventStateManager.markEventAsLive(eventId);
+                        case 1 -> eventStateManager.markEventAsNotLive(eventId);
+                        default -> eventStateManager.removeEvent(eventId);
+                    }
+                }
+            });
+        }
+
+        // When
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then
+        List<LiveEvent> liveEvents = eventStateManager.getAllLiveEvents();
+        long expectedLive = IntStream.range(0, 50)
+                .filter(i -> eventStateManager.isEventLive("event" + i))
+                .count();
+
+        assertEquals(expectedLive, eventStateManager.getLiveEventsCount());
+        assertEquals(expectedLive, liveEvents.size());
+        assertTrue(liveEvents.stream().allMatch(LiveEvent::isLive));
+    }
 }
@@ -3,23 +3,48 @@ package com.spgroup.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.spgroup.config.KafkaClientConfiguration;
+import com.spgroup.message.MessageFormat;
+import com.spgroup.message.ScoreUpdateCodec;
+import com.spgroup.message.ScoreUpdateMessage;
+import com.spgroup.spill.SpillQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -33,17 +58,27 @@ class KafkaProducerServiceTest {
     @Mock
     private KafkaTemplate<String, String> kafkaTemplate;
 
+    @Mock
+    private KafkaTemplate<String, byte[]> binaryKafkaTemplate;
+
     @Mock
     private SendResult<String, String> sendResult;
 
     @Mock
     private RecordMetadata recordMetadata;
 
+    @Mock
+    private ObjectProvider<SpillQueue> spillQueueProvider;
+
     private KafkaProducerService kafkaProducerService;
 
+    private KafkaClientConfiguration configuration;
+
+    private SimpleMeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
-        KafkaClientConfiguration configuration = new KafkaClientConfiguration();
+        configuration = new KafkaClientConfiguration();
         configuration.setBootstrapServers("localhost:9092");
         configuration.setProducerKeySerializer("org.apache.kafka.common.serialization.StringSerializer");
         configuration.setProducerValueSerializer("org.apache.kafka.common.serialization.StringSerializer");
@@ -54,8 +89,10 @@ class KafkaProducerServiceTest {
         configuration.setPartitions(1);
         configuration.setReplicas(1);
 
+        meterRegistry = new SimpleMeterRegistry();
         ObjectMapper objectMapper = new ObjectMapper();
-        kafkaProducerService = new KafkaProducerService(kafkaTemplate, objectMapper, configuration);
+        kafkaProducerService = new KafkaProducerService(kafkaTemplate, binaryKafkaTemplate, objectMapper,
+                configuration, meterRegistry, spillQueueProvider);
     }
 
     @Test
@@ -85,6 +122,10 @@ class KafkaProducerServiceTest {
         // Then
         assertTrue(result);
         verify(kafkaTemplate, times(1)).send(eq("test-topic"), eq(key), anyString());
+        assertEquals(1, meterRegistry.get("polling.stage").tag("stage", "serialize").timer().count());
+        assertEquals(1, meterRegistry.get("polling.stage").tag("stage", "publish").timer().count());
+        assertEquals(1, meterRegistry.get("kafka.send").tag("outcome", "success").timer().count());
+        assertEquals(0, meterRegistry.get("kafka.send").tag("outcome", "failure").timer().count());
     }
 
     @Test
@@ -101,6 +142,428 @@ class KafkaProducerServiceTest {
         assertThrows(RuntimeException.class, () -> {
             kafkaProducerService.sendMessage(key, message);
         });
+        assertEquals(1, meterRegistry.get("kafka.send").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    void testJsonScoreUpdateIsSentAsBytes() throws Exception {
+        // Given
+        ScoreUpdateMessage message = ScoreUpdateMessage.of("event123", "2:1", Instant.now());
+
+        when(recordMetadata.partition()).thenReturn(0);
+        when(recordMetadata.offset()).thenReturn(100L);
+        when(binaryKafkaTemplate.send(anyString(), anyString(), any(byte[].class)))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, recordMetadata)));
+
+        // When
+        boolean result = kafkaProducerService.sendMessage("event123", message);
+
+        // Then
+        assertTrue(result);
+        ArgumentCaptor<byte[]> value = ArgumentCaptor.forClass(byte[].class);
+        verify(binaryKafkaTemplate).send(eq("test-topic"), eq("event123"), value.capture());
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(message)), objectMapper.readTree(value.getValue()));
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void testBinaryTopicRejectsOtherMessages() {
+        // Given
+        configuration.setMessageFormat(MessageFormat.BINARY);
+        kafkaProducerService = new KafkaProducerService(kafkaTemplate, binaryKafkaTemplate, new ObjectMapper(),
+                configuration, meterRegistry, spillQueueProvider);
+        Map<String, Object> message = new HashMap<>();
+        message.put("eventId", "event123");
+
+        // When
+        boolean result = kafkaProducerService.sendMessage("event123", message);
+
+        // Then
+        assertFalse(result);
+        assertEquals(1.0, meterRegistry.counter("kafka.publish", "outcome", "failure").count());
+    }
+
+    @Test
+    void testSpillsWhileBrokerIsDownAndReplaysInOrder(@TempDir Path directory) throws Exception {
+        // Given - the broker fails every send until it recovers
+        SpillQueue spillQueue = new SpillQueue(directory, 64 * 1024, 1024 * 1024, SpillQueue.DropPolicy.DROP_NEWEST);
+        configuration.setSpillDrainInterval(Duration.ofMillis(20));
+        when(spillQueueProvider.getIfAvailable()).thenReturn(spillQueue);
+        kafkaProducerService = new KafkaProducerService(kafkaTemplate, binaryKafkaTemplate, new ObjectMapper(),
+                configuration, meterRegistry, spillQueueProvider);
+
+        AtomicBoolean brokerUp = new AtomicBoolean();
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        ObjectMapper objectMapper = new ObjectMapper();
+        when(binaryKafkaTemplate.send(anyString(), anyString(), any(byte[].class))).thenAnswer(invocation -> {
+            if (!brokerUp.get()) {
+                return CompletableFuture.failedFuture(new RuntimeException("Broker down"));
+            }
+            delivered.add(objectMapper.readTree((byte[]) invocation.getArgument(2)).get("currentScore").asText());
+            return CompletableFuture.completedFuture(new SendResult<>(null, null));
+        });
+
+        // When - both updates are accepted without waiting for the broker
+        boolean first = kafkaProducerService.sendMessage("event1", ScoreUpdateMessage.of("event1", "1:0", Instant.now()));
+        boolean second = kafkaProducerService.sendMessage("event1", ScoreUpdateMessage.of("event1", "2:0", Instant.now()));
+        long spilled = kafkaProducerService.getSpilledCount();
+
+        brokerUp.set(true);
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (kafkaProducerService.getSpilledCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        kafkaProducerService.sendMessage("event1", ScoreUpdateMessage.of("event1", "3:0", Instant.now()));
+
+        // Then
+        assertTrue(first);
+        assertTrue(second);
+        assertEquals(2, spilled);
+        assertEquals(0, kafkaProducerService.getSpilledCount());
+        assertEquals(List.of("1:0", "2:0", "3:0"), delivered);
+
+        kafkaProducerService.stopSpillDrainer();
+        spillQueue.close();
+    }
+
+    @Test
+    void testSendFailingWhileLaterRecordsOfItsKeyArePendingKeepsTheKeyOrder(@TempDir Path directory) throws Exception {
+        // Given - the first send stays in flight, every later send is delivered
+        SpillQueue spillQueue = new SpillQueue(directory, 64 * 1024, 1024 * 1024, SpillQueue.DropPolicy.DROP_NEWEST);
+        configuration.setSpillDrainInterval(Duration.ofMillis(20));
+        when(spillQueueProvider.getIfAvailable()).thenReturn(spillQueue);
+        kafkaProducerService = new KafkaProducerService(kafkaTemplate, binaryKafkaTemplate, new ObjectMapper(),
+                configuration, meterRegistry, spillQueueProvider);
+
+        CompletableFuture<SendResult<String, byte[]>> firstSend = new CompletableFuture<>();
+        AtomicInteger sends = new AtomicInteger();
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        ObjectMapper objectMapper = new ObjectMapper();
+        when(binaryKafkaTemplate.send(anyString(), anyString(), any(byte[].class))).thenAnswer(invocation -> {
+            if (sends.incrementAndGet() == 1) {
+                return firstSend;
+            }
+            delivered.add(objectMapper.readTree((byte[]) invocation.getArgument(2)).get("currentScore").asText());
+            return CompletableFuture.completedFuture(new SendResult<>(null, null));
+        });
+
+        CompletableFuture<Boolean> first = kafkaProducerService.sendMessageAsync("event1",
+                ScoreUpdateMessage.of("event1", "1:0", Instant.now()));
+        CompletableFuture<Boolean> second = kafkaProducerService.sendMessageAsync("event1",
+                ScoreUpdateMessage.of("event1", "2:0", Instant.now()));
+        CompletableFuture<Boolean> otherKey = kafkaProducerService.sendMessageAsync("event2",
+                ScoreUpdateMessage.of("event2", "0:1", Instant.now()));
+
+        // When - the first send fails after the later ones were accepted
+        assertTrue(otherKey.get(5, TimeUnit.SECONDS));
+        assertFalse(second.isDone());
+        firstSend.completeExceptionally(new RuntimeException("Broker down"));
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (kafkaProducerService.getSpilledCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        kafkaProducerService.sendMessageAsync("event1", ScoreUpdateMessage.of("event1", "3:0", Instant.now()))
+                .get(5, TimeUnit.SECONDS);
+
+        // Then - the other key went out directly, event1 kept its order through the spill
+        assertEquals(List.of("0:1", "1:0", "2:0", "3:0"), delivered);
+        assertEquals(0, kafkaProducerService.getSpilledCount());
+
+        kafkaProducerService.stopSpillDrainer();
+        spillQueue.close();
+    }
+
+    @Test
+    void testBlockingSendReportsARecordTheSpillDroppedAsNotPublished(@TempDir Path directory) throws Exception {
+        // Given - the broker is down and the spill holds a single small segment
+        SpillQueue spillQueue = new SpillQueue(directory, 256, 256, SpillQueue.DropPolicy.DROP_NEWEST);
+        configuration.setSpillDrainInterval(Duration.ofMinutes(1));
+        when(spillQueueProvider.getIfAvailable()).thenReturn(spillQueue);
+        kafkaProducerService = new KafkaProducerService(kafkaTemplate, binaryKafkaTemplate, new ObjectMapper(),
+                configuration, meterRegistry, spillQueueProvider);
+        when(binaryKafkaTemplate.send(anyString(), anyString(), any(byte[].class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Broker down")));
+
+        // When
+        List<Boolean> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(kafkaProducerService.sendMessage("event1", ScoreUpdateMessage.of("event1", i + ":0", Instant.now())));
+        }
+
+        // Then - spilled records count as published, dropped ones don't
+        assertTrue(results.get(0));
+        assertFalse(results.get(9));
+        assertEquals(results.stream().filter(Boolean::booleanValue).count(), kafkaProducerService.getSpilledCount());
+
+        kafkaProducerService.stopSpillDrainer();
+        spillQueue.close();
+    }
+
+    @Test
+    void testSpilledRecordsDeletedByDropOldestAreReportedByKey(@TempDir Path directory) throws Exception {
+        // Given - two small segments, the oldest is deleted when a third one is needed
+        SpillQueue spillQueue = new SpillQueue(directory, 256, 512, SpillQueue.DropPolicy.DROP_OLDEST);
+        configuration.setSpillDrainInterval(Duration.ofMinutes(1));
+        when(spillQueueProvider.getIfAvailable()).thenReturn(spillQueue);
+        kafkaProducerService = new KafkaProducerService(kafkaTemplate, binaryKafkaTemplate, new ObjectMapper(),
+                configuration, meterRegistry, spillQueueProvider);
+        List<String> lost = new CopyOnWriteArrayList<>();
+        kafkaProducerService.setSpillDropListener(lost::add);
+        when(binaryKafkaTemplate.send(anyString(), anyString(), any(byte[].class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Broker down")));
+
+        // When
+        assertTrue(kafkaProducerService.sendMessage("event1", ScoreUpdateMessage.of("event1", "1:0", Instant.now())));
+        for (int i = 0; i < 10; i++) {
+            kafkaProducerService.sendMessage("event2", ScoreUpdateMessage.of("event2", i + ":0", Instant.now()));
+        }
+
+        // Then - the record of event1 was reported as published, then lost
+        assertTrue(lost.contains("event1"));
+
+        kafkaProducerService.stopSpillDrainer();
+        spillQueue.close();
+    }
+
+    @Test
+    void testReplayStopsAKeyAtItsFirstFailedRecord(@TempDir Path directory) throws Exception {
+        // Given - a backlog of two records of event1 and one of event2
+        SpillQueue spillQueue = new SpillQueue(directory, 64 * 1024, 1024 * 1024, SpillQueue.DropPolicy.DROP_NEWEST);
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (String[] record : new String[][]{{"event1", "1:0"}, {"event1", "2:0"}, {"event2", "0:1"}}) {
+            byte[] value = objectMapper.writeValueAsBytes(ScoreUpdateMessage.of(record[0], record[1], Instant.now()));
+            assertTrue(spillQueue.append(record[0], value, false));
+        }
+
+        // The first replay of event1 fails, every other send is delivered
+        AtomicInteger sends = new AtomicInteger();
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        when(binaryKafkaTemplate.send(anyString(), anyString(), any(byte[].class))).thenAnswer(invocation -> {
+            String score = objectMapper.readTree((byte[]) invocation.getArgument(2)).get("currentScore").asText();
+            if (sends.incrementAndGet() == 1) {
+                return CompletableFuture.failedFuture(new RuntimeException("Not leader"));
+            }
+            delivered.add(invocation.getArgument(1) + "=" + score);
+            return CompletableFuture.completedFuture(new SendResult<>(null, null));
+        });
+
+        // When
+        configuration.setSpillDrainInterval(Duration.ofMillis(20));
+        when(spillQueueProvider.getIfAvailable()).thenReturn(spillQueue);
+        kafkaProducerService = new KafkaProducerService(kafkaTemplate, binaryKafkaTemplate, objectMapper,
+                configuration, meterRegistry, spillQueueProvider);
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (kafkaProducerService.getSpilledCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Then - 2:0 was never sent before 1:0 was delivered
+        assertEquals(0, kafkaProducerService.getSpilledCount());
+        assertEquals(List.of("event1=1:0", "event1=2:0"),
+                delivered.stream().filter(record -> record.startsWith("event1")).toList());
+
+        kafkaProducerService.stopSpillDrainer();
+        spillQueue.close();
     }
 
+    /**
+     * Publishing with {@code kafka.producer.async.enabled}
+     */
+    @Nested
+    class AsyncPublishing {
+
+        @BeforeEach
+        void enableAsync() {
+            configuration.setProducerAsyncEnabled(true);
+            configuration.setProducerMaxInFlight(100);
+            kafkaProducerService = new KafkaProducerService(kafkaTemplate, binaryKafkaTemplate, new ObjectMapper(),
+                    configuration, meterRegistry, spillQueueProvider);
+        }
+
+        @Test
+        void testSendMessageAsyncSuccess() {
+            // Given
+            String key = "event123";
+            Map<String, Object> message = new HashMap<>();
+            message.put("eventId", key);
+
+            when(recordMetadata.partition()).thenReturn(0);
+            when(recordMetadata.offset()).thenReturn(100L);
+            when(sendResult.getRecordMetadata()).thenReturn(recordMetadata);
+            when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+                    .thenReturn(CompletableFuture.completedFuture(sendResult));
+
+            // When
+            boolean result = kafkaProducerService.sendMessageAsync(key, message).join();
+
+            // Then
+            assertTrue(result);
+            assertEquals(1.0, meterRegistry.counter("kafka.publish", "outcome", "success").count());
+        }
+
+        @Test
+        void testSendMessageAsyncFailureCompletesWithFalse() {
+            // Given
+            String key = "event123";
+            Map<String, Object> message = new HashMap<>();
+            message.put("eventId", key);
+
+            when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+                    .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Kafka error")));
+
+            // When
+            boolean result = kafkaProducerService.sendMessageAsync(key, message).join();
+
+            // Then
+            assertFalse(result);
+            assertEquals(1.0, meterRegistry.counter("kafka.publish", "outcome", "failure").count());
+        }
+
+        @Test
+        void testSendMessageAsyncRejectedWhenInFlightLimitReached() {
+            // Given - one slot, occupied by a send that is never acknowledged
+            configuration.setProducerMaxInFlight(1);
+            kafkaProducerService = new KafkaProducerService(kafkaTemplate, binaryKafkaTemplate, new ObjectMapper(),
+                    configuration, meterRegistry, spillQueueProvider);
+
+            Map<String, Object> message = new HashMap<>();
+            message.put("eventId", "event123");
+
+            when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+                    .thenReturn(new CompletableFuture<>());
+
+            // When
+            CompletableFuture<Boolean> pending = kafkaProducerService.sendMessageAsync("event123", message);
+            boolean rejected = kafkaProducerService.sendMessageAsync("event456", message).join();
+
+            // Then
+            assertFalse(pending.isDone());
+            assertFalse(rejected);
+            verify(kafkaTemplate, times(1)).send(anyString(), anyString(), anyString());
+            assertEquals(1.0, meterRegistry.counter("kafka.publish", "outcome", "rejected").count());
+        }
+
+        @Test
+        void testBinaryTopicSendsEncodedScoreUpdate() {
+            // Given
+            configuration.setTopicFormats(Map.of("test-topic", MessageFormat.BINARY));
+            kafkaProducerService = new KafkaProducerService(kafkaTemplate, binaryKafkaTemplate, new ObjectMapper(),
+                    configuration, meterRegistry, spillQueueProvider);
+            ScoreUpdateMessage message = ScoreUpdateMessage.of("event123", "2:1", Instant.now());
+
+            when(recordMetadata.partition()).thenReturn(0);
+            when(recordMetadata.offset()).thenReturn(100L);
+            SendResult<String, byte[]> binarySendResult = new SendResult<>(null, recordMetadata);
+            when(binaryKafkaTemplate.send(anyString(), anyString(), any(byte[].class)))
+                    .thenReturn(CompletableFuture.completedFuture(binarySendResult));
+
+            // When
+            boolean result = kafkaProducerService.sendMessageAsync("event123", message).join();
+
+            // Then
+            assertTrue(result);
+            ArgumentCaptor<byte[]> value = ArgumentCaptor.forClass(byte[].class);
+            verify(binaryKafkaTemplate).send(eq("test-topic"), eq("event123"), value.capture());
+            assertEquals(message, ScoreUpdateCodec.decode(value.getValue()));
+            verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+        }
+
+        @Test
+        void testInFlightSlotIsReleasedOnceTheRecordIsAcknowledged() {
+            // Given - one slot, taken by a send awaiting its acknowledgement
+            // A fresh registry, so the in-flight gauge reads this service
+            configuration.setProducerMaxInFlight(1);
+            meterRegistry = new SimpleMeterRegistry();
+            kafkaProducerService = new KafkaProducerService(kafkaTemplate, binaryKafkaTemplate, new ObjectMapper(),
+                    configuration, meterRegistry, spillQueueProvider);
+            Map<String, Object> message = new HashMap<>();
+            message.put("eventId", "event123");
+
+            CompletableFuture<SendResult<String, String>> ack = new CompletableFuture<>();
+            when(recordMetadata.partition()).thenReturn(0);
+            when(recordMetadata.offset()).thenReturn(100L);
+            when(sendResult.getRecordMetadata()).thenReturn(recordMetadata);
+            when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+                    .thenReturn(ack, CompletableFuture.completedFuture(sendResult));
+
+            CompletableFuture<Boolean> first = kafkaProducerService.sendMessageAsync("event123", message);
+            assertEquals(1.0, meterRegistry.get("kafka.publish.in-flight").gauge().value());
+            assertFalse(kafkaProducerService.sendMessageAsync("event456", message).join());
+
+            // When
+            ack.complete(sendResult);
+            boolean second = kafkaProducerService.sendMessageAsync("event456", message).join();
+
+            // Then - the slot went back with the acknowledgement and was taken by the next record
+            assertTrue(first.join());
+            assertTrue(second);
+            assertEquals(0.0, meterRegistry.get("kafka.publish.in-flight").gauge().value());
+            verify(kafkaTemplate, times(2)).send(anyString(), anyString(), anyString());
+        }
+
+        @Test
+        void testEveryRecordOverTheInFlightLimitIsCountedAsDropped() {
+            // Given - the only slot is never released
+            configuration.setProducerMaxInFlight(1);
+            kafkaProducerService = new KafkaProducerService(kafkaTemplate, binaryKafkaTemplate, new ObjectMapper(),
+                    configuration, meterRegistry, spillQueueProvider);
+            Map<String, Object> message = new HashMap<>();
+            message.put("eventId", "event123");
+
+            when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+                    .thenReturn(new CompletableFuture<>());
+            kafkaProducerService.sendMessageAsync("event123", message);
+
+            // When
+            for (int i = 0; i < 5; i++) {
+                assertFalse(kafkaProducerService.sendMessageAsync("event" + i, message).join());
+            }
+
+            // Then - dropped records are neither sent nor counted as failures
+            assertEquals(5.0, meterRegistry.counter("kafka.publish", "outcome", "rejected").count());
+            assertEquals(0.0, meterRegistry.counter("kafka.publish", "outcome", "failure").count());
+            verify(kafkaTemplate, times(1)).send(anyString(), anyString(), anyString());
+        }
+
+        @Test
+        void testRetriableErrorIsLeftToTheProducerNotResent() {
+            // Given - the producer gave up on the record once delivery.timeout.ms ran out
+            Map<String, Object> message = new HashMap<>();
+            message.put("eventId", "event123");
+
+            when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+                    .thenReturn(CompletableFuture.failedFuture(new TimeoutException("Expiring 1 record")));
+
+            // When
+            boolean result = kafkaProducerService.sendMessageAsync("event123", message).join();
+
+            // Then - a resend would get a new sequence number and could overtake newer records
+            assertFalse(result);
+            verify(kafkaTemplate, times(1)).send(anyString(), anyString(), anyString());
+            assertEquals(1.0, meterRegistry.counter("kafka.publish", "outcome", "failure").count());
+            assertNull(meterRegistry.find("kafka.publish.retries").counter());
+        }
+
+        @Test
+        void testNonRetriableErrorIsNotResent() {
+            // Given
+            Map<String, Object> message = new HashMap<>();
+            message.put("eventId", "event123");
+
+            when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+                    .thenReturn(CompletableFuture.failedFuture(new RecordTooLargeException("Too large")));
+
+            // When
+            boolean result = kafkaProducerService.sendMessageAsync("event123", message).join();
+
+            // Then
+            assertFalse(result);
+            verify(kafkaTemplate, times(1)).send(anyString(), anyString(), anyString());
+            assertEquals(1.0, meterRegistry.counter("kafka.publish", "outcome", "failure").count());
+        }
+    }
 }
@@ -0,0 +1,104 @@
+package com.spgroup.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spgroup.model.ExternalApiResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for LatestScoreCache
+ */
+class LatestScoreCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private LatestScoreCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new LatestScoreCache(Duration.ofHours(1), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testKeepsTheLatestScoreAsJson() throws Exception {
+        // Given
+        cache.record("event1", score("event1", "0:0"));
+
+        // When
+        cache.record("event1", score("event1", "1:0"));
+        LatestScoreCache.Entry entry = cache.get("event1");
+
+        // Then
+        assertEquals("1:0", entry.score());
+        JsonNode json = objectMapper.readTree(entry.json());
+        assertEquals("event1", json.get("eventId").asText());
+        assertEquals("1:0", json.get("currentScore").asText());
+        assertNotNull(json.get("timestamp").asText());
+        assertSame(entry.json(), cache.get("event1").json());
+    }
+
+    @Test
+    void testNotModifiedRefreshesTheFetchTimeOnly() throws Exception {
+        // Given
+        cache.record("event1", score("event1", "2:1"));
+        long firstFetch = cache.get("event1").fetchedAtMillis();
+        Thread.sleep(5);
+
+        // When
+        cache.record("event1", ExternalApiResponse.notModified("event1"));
+        cache.record("event2", ExternalApiResponse.notModified("event2"));
+
+        // Then
+        assertEquals("2:1", cache.get("event1").score());
+        assertTrue(cache.get("event1").fetchedAtMillis() > firstFetch);
+        assertNull(cache.get("event2"));
+    }
+
+    @Test
+    void testJsonArrayKeepsTheOrderAndSkipsUnknownEvents() throws Exception {
+        // Given
+        cache.record("event1", score("event1", "1:0"));
+        cache.record("event2", score("event2", "0:2"));
+
+        // When
+        JsonNode scores = objectMapper.readTree(cache.toJsonArray(List.of("event2", "unknown", "event1")));
+
+        // Then
+        assertEquals(2, scores.size());
+        assertEquals("event2", scores.get(0).get("eventId").asText());
+        assertEquals("event1", scores.get(1).get("eventId").asText());
+        assertEquals("[]", new String(cache.toJsonArray(List.of("unknown"))));
+    }
+
+    @Test
+    void testExpiredScoresAreEvicted() throws Exception {
+        // Given
+        cache = new LatestScoreCache(Duration.ofMillis(1), new SimpleMeterRegistry());
+        cache.record("event1", score("event1", "1:1"));
+        Thread.sleep(5);
+
+        // When
+        cache.evictExpired();
+
+        // Then
+        assertNull(cache.get("event1"));
+        assertEquals(0, cache.size());
+    }
+
+    private static ExternalApiResponse score(String eventId, String score) {
+        return ExternalApiResponse.builder()
+                .eventId(eventId)
+                .currentScore(score)
+                .build();
+    }
+}
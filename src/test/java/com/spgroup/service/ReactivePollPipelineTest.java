@@ -0,0 +1,145 @@
+package com.spgroup.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.KafkaException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for ReactivePollPipeline
+ */
+class ReactivePollPipelineTest {
+
+    // Polls started by the pipeline, each completed by the test through its sink
+    private final List<String> started = new CopyOnWriteArrayList<>();
+    private final Map<String, Sinks.Empty<Void>> pending = new ConcurrentHashMap<>();
+
+    private ReactivePollPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    @Test
+    void testAtMostMaxConcurrencyGroupsInFlight() {
+        // Given
+        pipeline = new ReactivePollPipeline(this::heldPoll, 2, 16);
+        pipeline.start();
+
+        // When
+        for (int i = 1; i <= 5; i++) {
+            assertTrue(pipeline.submit(List.of("event" + i)));
+        }
+
+        // Then - two polls run, the others wait in the buffer
+        assertEquals(List.of("event1", "event2"), started);
+        assertEquals(2, pipeline.getInFlight());
+
+        // When - a poll completes
+        complete("event1");
+
+        // Then - the next group takes its place
+        assertEquals(List.of("event1", "event2", "event3"), started);
+        assertEquals(2, pipeline.getInFlight());
+    }
+
+    @Test
+    void testGroupsAreRejectedWhenTheBufferIsFull() {
+        // Given - one poll in flight, room for 8 groups in the buffer
+        pipeline = new ReactivePollPipeline(this::heldPoll, 1, 8);
+        pipeline.start();
+
+        // When
+        int accepted = 0;
+        for (int i = 1; i <= 12; i++) {
+            if (pipeline.submit(List.of("event" + i, "other" + i))) {
+                accepted++;
+            }
+        }
+
+        // Then - the groups that don't fit are rejected and counted per event
+        assertEquals(9, accepted);
+        assertEquals(6, pipeline.getRejectedCount());
+        assertEquals(1, pipeline.getInFlight());
+        assertFalse(pipeline.submit(List.of("event13")));
+
+        // When - the polls complete one by one
+        for (int i = 1; i <= 9; i++) {
+            complete("event" + i);
+        }
+
+        // Then - every accepted group was polled, and the buffer takes groups again
+        assertEquals(9, started.size());
+        assertEquals(0, pipeline.getInFlight());
+        assertTrue(pipeline.submit(List.of("event14")));
+    }
+
+    @Test
+    void testFailedSendCompletesThePollAndThePipelineGoesOn() {
+        // Given - the Kafka send of the first group fails
+        List<String> polled = new CopyOnWriteArrayList<>();
+        pipeline = new ReactivePollPipeline(eventIds -> {
+            polled.add(eventIds.get(0));
+            if (eventIds.get(0).equals("event1")) {
+                return Mono.fromFuture(CompletableFuture.<Boolean>failedFuture(new KafkaException("Broker down")))
+                        .then();
+            }
+            return Mono.empty();
+        }, 1, 16);
+        pipeline.start();
+
+        // When
+        pipeline.submit(List.of("event1"));
+        pipeline.submit(List.of("event2"));
+
+        // Then - the failed poll released its slot and the next group was polled
+        assertEquals(List.of("event1", "event2"), polled);
+        assertEquals(0, pipeline.getInFlight());
+        assertEquals(0, pipeline.getRejectedCount());
+    }
+
+    @Test
+    void testCompletionCallbackRunsOnceThePollIsDone() {
+        // Given
+        pipeline = new ReactivePollPipeline(this::heldPoll, 1, 1);
+        pipeline.start();
+        List<String> completed = new CopyOnWriteArrayList<>();
+
+        // When
+        assertTrue(pipeline.submit(List.of("event1"), () -> completed.add("event1")));
+        assertTrue(pipeline.submit(List.of("event2"), () -> completed.add("event2")));
+        boolean accepted = pipeline.submit(List.of("event3"), () -> completed.add("event3"));
+
+        // Then - nothing completed while the polls are held, the rejected group gets no callback
+        assertFalse(accepted);
+        assertEquals(List.of(), completed);
+
+        complete("event1");
+        complete("event2");
+        assertEquals(List.of("event1", "event2"), completed);
+    }
+
+    private Mono<Void> heldPoll(List<String> eventIds) {
+        String eventId = eventIds.get(0);
+        Sinks.Empty<Void> done = Sinks.empty();
+        pending.put(eventId, done);
+        started.add(eventId);
+        return done.asMono();
+    }
+
+    private void complete(String eventId) {
+        pending.remove(eventId).tryEmitEmpty();
+    }
+}
@@ -0,0 +1,98 @@
+package com.spgroup.service;
+
+import com.spgroup.model.LiveEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for ScorePublishFilter
+ */
+class ScorePublishFilterTest {
+
+    private ScorePublishFilter filter;
+    private LiveEvent event;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ScorePublishFilter(true, Duration.ofSeconds(60), new SimpleMeterRegistry());
+        event = LiveEvent.builder()
+                .eventId("event123")
+                .build();
+    }
+
+    @Test
+    void testFirstScoreIsPublished() {
+        assertTrue(filter.shouldPublish(event, "0:0"));
+    }
+
+    @Test
+    void testUnchangedScoreIsSuppressed() {
+        // Given
+        filter.onPublished(event, "1:0");
+
+        // When & Then
+        assertFalse(filter.shouldPublish(event, "1:0"));
+        assertEquals(1.0, filter.getSuppressionRatio());
+    }
+
+    @Test
+    void testChangedScoreIsPublished() {
+        // Given
+        filter.onPublished(event, "1:0");
+
+        // When & Then
+        assertTrue(filter.shouldPublish(event, "1:1"));
+    }
+
+    @Test
+    void testUnchangedScoreIsPublishedWhenHeartbeatDue() {
+        // Given
+        filter.onPublished(event, "1:0");
+        event.setLastPublishedAt(Instant.now().minusSeconds(61));
+
+        // When & Then
+        assertTrue(filter.shouldPublish(event, "1:0"));
+    }
+
+    @Test
+    void testEveryScoreIsPublishedWhenChangeOnlyDisabled() {
+        // Given
+        filter = new ScorePublishFilter(false, Duration.ofSeconds(60), new SimpleMeterRegistry());
+        filter.onPublished(event, "1:0");
+
+        // When & Then
+        assertTrue(filter.shouldPublish(event, "1:0"));
+        assertEquals(0.0, filter.getSuppressionRatio());
+    }
+
+    @Test
+    void testNotModifiedPublishesOnlyDueHeartbeat() {
+        // Given
+        filter.onPublished(event, "1:0");
+
+        // When & Then
+        assertFalse(filter.shouldPublishUnchanged(event));
+
+        event.setLastPublishedAt(Instant.now().minusSeconds(61));
+        assertTrue(filter.shouldPublishUnchanged(event));
+    }
+
+    @Test
+    void testNotModifiedIsNotCountedAsSuppressedWhenChangeOnlyDisabled() {
+        // Given
+        filter = new ScorePublishFilter(false, Duration.ofSeconds(60), new SimpleMeterRegistry());
+        filter.onPublished(event, "1:0");
+
+        // When & Then
+        assertFalse(filter.shouldPublishUnchanged(event));
+        assertEquals(0.0, filter.getSuppressionRatio());
+    }
+}
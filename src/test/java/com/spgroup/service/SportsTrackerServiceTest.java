@@ -0,0 +1,354 @@
+package com.spgroup.service;
+
+import com.spgroup.externalapi.ExternalApiClientConfiguration;
+import com.spgroup.externalapi.UpstreamClientRegistry;
+import com.spgroup.externalapi.UpstreamResilience;
+import com.spgroup.message.ScoreUpdateMessage;
+import com.spgroup.scheduler.HashedWheelPollScheduler;
+import com.spgroup.scheduler.PollHandle;
+import com.spgroup.scheduler.VirtualThreadPollExecutor;
+import com.spgroup.stream.ScoreFanOut;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests of SportsTrackerService polls against an upstream stand-in, with Kafka mocked
+ */
+class SportsTrackerServiceTest {
+
+    // Upstream state: score per event, its ETag is the quoted score
+    private final Map<String, String> upstreamScores = new ConcurrentHashMap<>();
+    private final List<String> ifNoneMatch = new CopyOnWriteArrayList<>();
+    private final List<List<String>> batchCalls = new CopyOnWriteArrayList<>();
+
+    // Kafka state
+    private final AtomicBoolean brokerUp = new AtomicBoolean(true);
+    private final List<String> published = new CopyOnWriteArrayList<>();
+    private final List<String> publishedEventIds = new CopyOnWriteArrayList<>();
+    private final List<String> asyncSendThreads = new CopyOnWriteArrayList<>();
+
+    private DisposableServer upstream;
+    private UpstreamClientRegistry upstreamClients;
+    private SimpleMeterRegistry meterRegistry;
+    private ExternalApiService externalApiService;
+    private EventStateManager eventStateManager;
+    private KafkaProducerService kafkaProducerService;
+    private SportsTrackerService service;
+
+    @BeforeEach
+    void setUp() {
+        upstream = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/data", this::data)
+                        .get("/data/batch", this::dataBatch))
+                .bindNow();
+
+        meterRegistry = new SimpleMeterRegistry();
+        ExternalApiClientConfiguration config = ExternalApiClientConfiguration.builder()
+                .url("http://localhost:" + upstream.port() + "/data")
+                .batchUrl("http://localhost:" + upstream.port() + "/data/batch")
+                .timeout(Duration.ofSeconds(5))
+                .conditionalRequests(true)
+                .poolMaxConnections(10)
+                .poolPendingAcquireMax(20)
+                .poolPendingAcquireTimeout(Duration.ofSeconds(5))
+                .poolMaxIdleTime(Duration.ofSeconds(30))
+                .poolEvictionInterval(Duration.ofSeconds(10))
+                .poolHttp2(false)
+                .retryAttempts(0)
+                .retryInitialBackoff(Duration.ofMillis(1))
+                .retryMaxBackoff(Duration.ofMillis(5))
+                .retryBudgetRatio(0.1)
+                .retryBudgetMinPerSecond(5.0)
+                .retryBudgetMaxTokens(100)
+                .circuitBreakerWindowSize(100)
+                .circuitBreakerFailureRateThreshold(1.0)
+                .circuitBreakerOpenDuration(Duration.ofSeconds(10))
+                .circuitBreakerHalfOpenCalls(1)
+                .bulkheadMaxConcurrentCalls(100)
+                .hedgeEnabled(false)
+                .build();
+        upstreamClients = new UpstreamClientRegistry(WebClient.builder(), config);
+        externalApiService = new ExternalApiService(upstreamClients,
+                new UpstreamResilience(config, meterRegistry), config, meterRegistry);
+        externalApiService.initMetrics();
+
+        kafkaProducerService = mock(KafkaProducerService.class);
+        when(kafkaProducerService.sendMessage(anyString(), any())).thenAnswer(invocation -> {
+            if (!brokerUp.get()) {
+                return false;
+            }
+            ScoreUpdateMessage message = invocation.getArgument(1);
+            published.add(message.currentScore());
+            publishedEventIds.add(message.eventId());
+            return true;
+        });
+        when(kafkaProducerService.sendMessageAsync(anyString(), any())).thenAnswer(invocation -> {
+            asyncSendThreads.add(Thread.currentThread().getName());
+            return CompletableFuture.completedFuture(brokerUp.get());
+        });
+
+        eventStateManager = new EventStateManager();
+        service = newService(new AdaptivePollIntervalPolicy(false, 10_000, 60_000, 2.0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstreamClients.destroy();
+        upstream.disposeNow();
+    }
+
+    @Test
+    void testScoreThatFailedToPublishIsFetchedAgainInsteadOfNotModified() {
+        // Given - 1:0 is published, then 2:0 is fetched while the broker is down
+        eventStateManager.markEventAsLive("event1");
+        upstreamScores.put("event1", "1:0");
+        service.pollEventData("event1");
+
+        upstreamScores.put("event1", "2:0");
+        brokerUp.set(false);
+        service.pollEventData("event1");
+
+        // When - the broker is back and the upstream did not change
+        brokerUp.set(true);
+        service.pollEventData("event1");
+        service.pollEventData("event1");
+
+        // Then - 2:0 was requested unconditionally and published, then the validators are used again
+        assertEquals(List.of("1:0", "2:0"), published);
+        assertEquals(List.of("", "\"1:0\"", "", "\"2:0\""), ifNoneMatch);
+    }
+
+    @Test
+    void testUnchangedScoreBacksOffTheIntervalEvenWhenItFailedToPublish() {
+        // Given - adaptive polling, the broker is down
+        service = newService(new AdaptivePollIntervalPolicy(true, 10_000, 60_000, 2.0));
+        eventStateManager.markEventAsLive("event1");
+        service.startPollingForEvent("event1");
+        upstreamScores.put("event1", "1:0");
+        brokerUp.set(false);
+
+        // When - the same score is fetched three times
+        service.pollEventData("event1");
+        service.pollEventData("event1");
+        service.pollEventData("event1");
+
+        // Then - only the first fetch counted as a change
+        assertEquals(40_000, eventStateManager.getEvent("event1").getPollIntervalMs());
+        assertEquals(List.of(), published);
+    }
+
+    @Test
+    void testReactivePublishRunsOffTheEventLoopAndCompletesWhenTheSendFails() {
+        // Given
+        eventStateManager.markEventAsLive("event1");
+        upstreamScores.put("event1", "1:0");
+        brokerUp.set(false);
+
+        // When
+        service.pollEventsReactive(List.of("event1")).block(Duration.ofSeconds(5));
+        service.pollEventsReactive(List.of("event1")).block(Duration.ofSeconds(5));
+
+        // Then - the producer was never called on a WebClient event loop thread
+        assertEquals(2, asyncSendThreads.size());
+        assertTrue(asyncSendThreads.stream().noneMatch(thread -> thread.startsWith("reactor-http")),
+                asyncSendThreads.toString());
+        // and the failed publish was handled, the score is fetched again unconditionally
+        assertEquals(List.of("", ""), ifNoneMatch);
+    }
+
+    @Test
+    void testDueEventsAreGroupedIntoBatchesOfAtMostMaxSize() {
+        // Given - batch mode with groups of two, polls run on the dispatching thread
+        enableBatchMode(2);
+        List<String> eventIds = List.of("event1", "event2", "event3", "event4", "event5");
+        for (String eventId : eventIds) {
+            eventStateManager.markEventAsLive(eventId);
+            upstreamScores.put(eventId, "1:0");
+        }
+
+        // When
+        service.dispatchDueEvents(handles(eventIds));
+
+        // Then - one upstream call per group, in the order the events came due
+        assertEquals(List.of(List.of("event1", "event2"), List.of("event3", "event4"), List.of("event5")),
+                batchCalls);
+        assertEquals(5, published.size());
+    }
+
+    @Test
+    void testBatchResponsesAreMappedBackToTheirEvents() {
+        // Given - event2 is missing from the upstream, event3 is no longer live
+        enableBatchMode(10);
+        for (String eventId : List.of("event1", "event2", "event3", "event4")) {
+            eventStateManager.markEventAsLive(eventId);
+        }
+        eventStateManager.markEventAsNotLive("event3");
+        upstreamScores.put("event1", "1:0");
+        upstreamScores.put("event3", "3:0");
+        upstreamScores.put("event4", "4:0");
+
+        // When
+        service.pollEventBatch(List.of("event1", "event2", "event3", "event4"));
+
+        // Then - only live events are requested, each score is published for its own event
+        assertEquals(List.of(List.of("event1", "event2", "event4")), batchCalls);
+        assertEquals(List.of("event1", "event4"), publishedEventIds);
+        assertEquals(List.of("1:0", "4:0"), published);
+    }
+
+    @Test
+    void testEventIsNotDispatchedAgainWhileItsPollIsInFlight() {
+        // Given - polls are held in a queue instead of running
+        List<Runnable> queued = new ArrayList<>();
+        ReflectionTestUtils.setField(service, "pollExecutor", (Executor) queued::add);
+        eventStateManager.markEventAsLive("event1");
+        upstreamScores.put("event1", "1:0");
+        List<PollHandle> due = handles(List.of("event1"));
+
+        // When - the event comes due twice before its first poll runs
+        service.dispatchDueEvents(due);
+        service.dispatchDueEvents(due);
+
+        // Then - only one poll was queued, the second trigger was skipped and counted
+        assertEquals(1, queued.size());
+        assertEquals(1.0, meterRegistry.counter("polling.overlap.skipped").count());
+
+        // When - the poll completes and the event comes due again
+        queued.removeFirst().run();
+        service.dispatchDueEvents(due);
+
+        // Then
+        assertEquals(1, queued.size());
+        assertEquals(List.of("1:0"), published);
+    }
+
+    @Test
+    void testRejectedPollDoesNotBlockTheNextOneOfTheEvent() {
+        // Given - the executor is full
+        ReflectionTestUtils.setField(service, "pollExecutor", (Executor) task -> {
+            throw new RejectedExecutionException("Full");
+        });
+        List<PollHandle> due = handles(List.of("event1"));
+
+        // When
+        service.dispatchDueEvents(due);
+
+        // Then - the rejected poll is not in flight
+        assertFalse(due.get(0).isPolling());
+        assertEquals(0.0, meterRegistry.counter("polling.overlap.skipped").count());
+    }
+
+    @Test
+    void testScoreWhoseSpilledRecordWasDroppedIsFetchedAndPublishedAgain() {
+        // Given - 1:0 was published, its validators are kept
+        eventStateManager.markEventAsLive("event1");
+        upstreamScores.put("event1", "1:0");
+        service.pollEventData("event1");
+
+        // When - the spill reports the record as dropped before its replay
+        service.onPublishLost("event1");
+        service.pollEventData("event1");
+
+        // Then - the next poll was unconditional and published the score again
+        assertEquals(List.of("", ""), ifNoneMatch);
+        assertEquals(List.of("1:0", "1:0"), published);
+    }
+
+    private SportsTrackerService newService(AdaptivePollIntervalPolicy adaptivePollInterval) {
+        SportsTrackerService sportsTrackerService = new SportsTrackerService(eventStateManager, externalApiService,
+                kafkaProducerService, mock(TaskScheduler.class), mock(HashedWheelPollScheduler.class),
+                new StaticListableBeanFactory().getBeanProvider(VirtualThreadPollExecutor.class),
+                new ScorePublishFilter(true, Duration.ofMinutes(1), meterRegistry),
+                adaptivePollInterval,
+                new ScoreFanOut(16, meterRegistry),
+                new LatestScoreCache(Duration.ofHours(1), meterRegistry),
+                meterRegistry);
+        ReflectionTestUtils.setField(sportsTrackerService, "executionMode", "platform");
+        sportsTrackerService.startPollScheduler();
+        return sportsTrackerService;
+    }
+
+    private void enableBatchMode(int maxSize) {
+        ReflectionTestUtils.setField(service, "batchEnabled", true);
+        ReflectionTestUtils.setField(service, "batchMaxSize", maxSize);
+        ReflectionTestUtils.setField(service, "pollExecutor", (Executor) Runnable::run);
+    }
+
+    private static List<PollHandle> handles(List<String> eventIds) {
+        // Handles of a wheel that is never started, only their event IDs are read
+        HashedWheelPollScheduler wheel = new HashedWheelPollScheduler(100, 64);
+        List<PollHandle> handles = new ArrayList<>();
+        for (String eventId : eventIds) {
+            handles.add(wheel.schedule(eventId, 0, 10_000));
+        }
+        return handles;
+    }
+
+    private Mono<Void> data(HttpServerRequest request, HttpServerResponse response) {
+        String eventId = new QueryStringDecoder(request.uri()).parameters().get("eventId").get(0);
+        String score = upstreamScores.get(eventId);
+        String etag = "\"" + score + "\"";
+        String condition = Objects.requireNonNullElse(request.requestHeaders().get(HttpHeaderNames.IF_NONE_MATCH), "");
+        ifNoneMatch.add(condition);
+
+        response.header(HttpHeaderNames.ETAG, etag);
+        if (etag.equals(condition)) {
+            return response.status(304).send();
+        }
+        return response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                .sendString(Mono.just(scoreJson(eventId, score)))
+                .then();
+    }
+
+    private Mono<Void> dataBatch(HttpServerRequest request, HttpServerResponse response) {
+        List<String> eventIds = new QueryStringDecoder(request.uri()).parameters().get("eventId");
+        batchCalls.add(List.copyOf(eventIds));
+
+        // Events the upstream does not know are left out of the response
+        List<String> items = eventIds.stream()
+                .filter(upstreamScores::containsKey)
+                .map(eventId -> scoreJson(eventId, upstreamScores.get(eventId)))
+                .toList();
+        return response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                .sendString(Mono.just("[" + String.join(",", items) + "]"))
+                .then();
+    }
+
+    private static String scoreJson(String eventId, String score) {
+        return "{\"eventId\":\"" + eventId + "\",\"currentScore\":\"" + score + "\"}";
+    }
+}
@@ -0,0 +1,119 @@
+package com.spgroup.stream;
+
+import com.spgroup.message.ScoreUpdateMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import org.reactivestreams.Subscription;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for ScoreFanOut
+ */
+class ScoreFanOutTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ScoreFanOut fanOut;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        fanOut = new ScoreFanOut(4, meterRegistry);
+    }
+
+    @Test
+    void testSubscribersOnlyReceiveTheirEvents() {
+        // Given
+        List<String> event1 = new CopyOnWriteArrayList<>();
+        List<String> everything = new CopyOnWriteArrayList<>();
+        Disposable first = fanOut.subscribe(Set.of("event1")).subscribe(update -> event1.add(update.eventId()));
+        Disposable second = fanOut.subscribe(Set.of()).subscribe(update -> everything.add(update.eventId()));
+
+        // When
+        fanOut.publish(update("event1", "1:0"));
+        fanOut.publish(update("event2", "0:1"));
+
+        // Then
+        assertEquals(List.of("event1"), event1);
+        assertEquals(List.of("event1", "event2"), everything);
+        assertEquals(2, fanOut.getSubscriberCount());
+
+        first.dispose();
+        second.dispose();
+    }
+
+    @Test
+    void testUpdateIsTheKafkaJson() {
+        // Given
+        List<ScoreFanOut.ScoreUpdate> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = fanOut.subscribe(Set.of("event1")).subscribe(received::add);
+
+        // When
+        fanOut.publish(ScoreUpdateMessage.of("event1", "2:1", Instant.EPOCH));
+
+        // Then
+        assertEquals("{\"eventId\":\"event1\",\"currentScore\":\"2:1\",\"timestamp\":\"1970-01-01T00:00:00Z\","
+                + "\"source\":\"sports-tracker\"}", new String(received.get(0).json(), StandardCharsets.UTF_8));
+        subscription.dispose();
+    }
+
+    @Test
+    void testSlowSubscriberDropsOldestUpdates() {
+        // Given - a subscriber that requests nothing yet, with room for 4 updates
+        List<String> received = new CopyOnWriteArrayList<>();
+        BaseSubscriber<ScoreFanOut.ScoreUpdate> slow = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+            }
+
+            @Override
+            protected void hookOnNext(ScoreFanOut.ScoreUpdate update) {
+                received.add(new String(update.json(), StandardCharsets.UTF_8));
+            }
+        };
+        fanOut.subscribe(Set.of("event1")).subscribe(slow);
+
+        // When
+        for (int goals = 0; goals < 10; goals++) {
+            fanOut.publish(update("event1", goals + ":0"));
+        }
+        slow.request(100);
+
+        // Then
+        assertEquals(4, received.size());
+        assertTrue(received.get(0).contains("\"6:0\""));
+        assertTrue(received.get(3).contains("\"9:0\""));
+        assertEquals(6, meterRegistry.get("stream.updates").tag("outcome", "dropped").counter().count());
+        slow.dispose();
+    }
+
+    @Test
+    void testCancelledSubscriberIsRemoved() {
+        // Given
+        List<String> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = fanOut.subscribe(Set.of("event1", "event2"))
+                .subscribe(update -> received.add(update.eventId()));
+
+        // When
+        subscription.dispose();
+        fanOut.publish(update("event1", "1:0"));
+
+        // Then
+        assertEquals(0, fanOut.getSubscriberCount());
+        assertTrue(received.isEmpty());
+    }
+
+    private static ScoreUpdateMessage update(String eventId, String score) {
+        return ScoreUpdateMessage.of(eventId, score, Instant.now());
+    }
+}
@@ -0,0 +1,102 @@
+package com.spgroup.stream;
+
+import com.spgroup.message.ScoreUpdateMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of ScoreStreamServer over real connections
+ */
+class ScoreStreamServerTest {
+
+    private ScoreFanOut fanOut;
+    private ScoreStreamServer server;
+
+    @BeforeEach
+    void setUp() {
+        fanOut = new ScoreFanOut(16, new SimpleMeterRegistry());
+        server = new ScoreStreamServer(fanOut, 0, 10, 5, Duration.ofMinutes(1));
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void testServerSentEventsStreamTheEventsScores() throws Exception {
+        // Given
+        CompletableFuture<String> firstEvent = HttpClient.create()
+                .get()
+                .uri("http://localhost:" + server.getPort() + "/events/stream?ids=event1,event2")
+                .responseContent()
+                .asString()
+                .filter(chunk -> chunk.startsWith("data: "))
+                .next()
+                .toFuture();
+        awaitSubscribers(1);
+
+        // When
+        fanOut.publish(ScoreUpdateMessage.of("event3", "0:1", Instant.now()));
+        fanOut.publish(ScoreUpdateMessage.of("event2", "2:1", Instant.now()));
+
+        // Then
+        String data = firstEvent.get(5, TimeUnit.SECONDS);
+        assertTrue(data.contains("\"eventId\":\"event2\""));
+        assertTrue(data.contains("\"currentScore\":\"2:1\""));
+        assertTrue(data.endsWith("\n\n"));
+    }
+
+    @Test
+    void testWebSocketStreamsEveryScoreWithoutIds() throws Exception {
+        // Given
+        CompletableFuture<String> firstFrame = HttpClient.create()
+                .websocket()
+                .uri("ws://localhost:" + server.getPort() + "/events/stream/ws")
+                .handle((inbound, outbound) -> inbound.receive().asString())
+                .next()
+                .toFuture();
+        awaitSubscribers(1);
+
+        // When
+        fanOut.publish(ScoreUpdateMessage.of("event7", "3:3", Instant.now()));
+
+        // Then
+        String frame = firstFrame.get(5, TimeUnit.SECONDS);
+        assertTrue(frame.startsWith("{\"eventId\":\"event7\""));
+    }
+
+    @Test
+    void testTooManyIdsAreRejected() {
+        // When
+        Integer status = HttpClient.create()
+                .get()
+                .uri("http://localhost:" + server.getPort() + "/events/stream?ids=1,2,3,4,5,6")
+                .response()
+                .map(response -> response.status().code())
+                .block(Duration.ofSeconds(5));
+
+        // Then
+        assertEquals(400, status);
+    }
+
+    private void awaitSubscribers(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (fanOut.getSubscriberCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, fanOut.getSubscriberCount());
+    }
+}